@@ -0,0 +1,47 @@
+package com.devops26.comment.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devops26.migration.MigrationSupport;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 把旧的 comment_like_user_list 集合表迁移到 membership，只执行一次，旧表保留
+@Slf4j
+@Component
+public class MembershipMigration {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MigrationSupport migrationSupport;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyLikes() {
+        if (!migrationSupport.tableExists("comment_like_user_list")) {
+            log.info("No legacy comment_like_user_list table to migrate");
+            return;
+        }
+        try {
+            if (!migrationSupport.markDone("comment_like_user_list_to_membership")) {
+                return;
+            }
+            // 旧列表可能有重复的用户，insert ignore 依赖唯一约束去重
+            int migrated = jdbcTemplate.update(
+                    "insert ignore into membership (kind, entity_id, user_id) " +
+                    "select 'COMMENT_LIKER', comment_comment_id, like_user_list from comment_like_user_list " +
+                    "where like_user_list is not null");
+            log.info("Migrated {} legacy comment likes to membership", migrated);
+        } catch (Exception e) {
+            log.error("Failed to migrate legacy comment_like_user_list: {}", e.getMessage());
+            throw e;
+        }
+    }
+}
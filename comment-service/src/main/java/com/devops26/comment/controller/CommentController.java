@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.devops26.comment.entity.Comment;
@@ -46,6 +47,12 @@ public class CommentController {
         return ResultVO.buildSuccess(commentService.getByCommentId(commentId));
     }
 
+    // commentIds 中当前用户点过赞的评论
+    @GetMapping("/getLikedCommentIds")
+    public ResultVO<List<Integer>> getLikedCommentIds(@RequestParam(name = "commentIds") List<Integer> commentIds) {
+        return ResultVO.buildSuccess(commentService.getLikedCommentIds(commentIds));
+    }
+
     @PostMapping("/likeComment")
     public ResultVO<Integer> likeComment(Integer commentId) {
         return ResultVO.buildSuccess(commentService.likeComment(commentId));
@@ -2,7 +2,6 @@ package com.devops26.comment.entity;
 
 import java.time.LocalDateTime;
 import java.util.Date;
-import java.util.List;
 
 import jakarta.persistence.*;
 import lombok.Data;
@@ -29,10 +28,6 @@ public class Comment {
     @Column(name = "parent_id")
     private Integer parentId;
 
-    @ElementCollection
-    @Column(name = "like_user_list")
-    private List<Integer> likeUserList;
-
     @Basic
     @Column(name = "is_song_comment")
     private Boolean isSongComment;
@@ -3,6 +3,10 @@ package com.devops26.comment.repository;
 
 import com.devops26.comment.entity.Comment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,4 +17,12 @@ public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
     void deleteByCommentId(Integer commentId);
 
+    // 点赞数在数据库中原子增减，不读出实体
+    @Transactional
+    @Modifying
+    @Query("update Comment c set c.likes = coalesce(c.likes, 0) + :delta where c.commentId = :commentId")
+    int addLikes(@Param("commentId") Integer commentId, @Param("delta") Integer delta);
+
+    @Query("select c.likes from Comment c where c.commentId = :commentId")
+    Integer findLikesByCommentId(@Param("commentId") Integer commentId);
 }
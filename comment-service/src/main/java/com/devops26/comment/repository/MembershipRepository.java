@@ -0,0 +1,38 @@
+package com.devops26.comment.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devops26.comment.entity.Membership;
+import com.devops26.comment.enums.MembershipKind;
+
+public interface MembershipRepository extends JpaRepository<Membership, Long> {
+    // 依赖唯一约束去重：并发的重复插入只有一条生效，返回 0 表示关系已存在
+    @Transactional
+    @Modifying
+    @Query(value = "insert ignore into membership (kind, entity_id, user_id) values (:kind, :entityId, :userId)",
+            nativeQuery = true)
+    int add(@Param("kind") String kind, @Param("entityId") Integer entityId, @Param("userId") Integer userId);
+
+    // 返回 0 表示关系本来就不存在
+    @Transactional
+    @Modifying
+    @Query("delete from Membership m where m.kind = :kind and m.entityId = :entityId and m.userId = :userId")
+    int remove(@Param("kind") MembershipKind kind, @Param("entityId") Integer entityId, @Param("userId") Integer userId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Membership m where m.kind = :kind and m.entityId = :entityId")
+    int deleteAllByEntity(@Param("kind") MembershipKind kind, @Param("entityId") Integer entityId);
+
+    // entityIds 中与该用户存在关系的那些
+    @Query("select m.entityId from Membership m where m.kind = :kind and m.userId = :userId and m.entityId in :entityIds")
+    List<Integer> findEntityIdsIn(@Param("kind") MembershipKind kind, @Param("userId") Integer userId,
+            @Param("entityIds") Collection<Integer> entityIds);
+}
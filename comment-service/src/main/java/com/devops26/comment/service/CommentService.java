@@ -15,6 +15,8 @@ public interface CommentService {
 
     Comment getByCommentId(Integer commentId);
 
+    List<Integer> getLikedCommentIds(List<Integer> commentIds);
+
     Integer likeComment(Integer commentId);
 
     Integer cancelLikeComment(Integer commentId);
@@ -7,8 +7,10 @@ import java.util.Objects;
 
 import com.devops26.comment.entity.User;
 import com.devops26.comment.exception.TuneIslandException;
+import com.devops26.comment.enums.MembershipKind;
 import com.devops26.comment.feign.UserFeign;
 import com.devops26.comment.repository.CommentRepository;
+import com.devops26.comment.repository.MembershipRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -24,6 +26,8 @@ public class CommentServiceImpl implements CommentService {
     CommentRepository commentRepository;
     @Autowired
     UserFeign userFeign;
+    @Autowired
+    MembershipRepository membershipRepository;
 
     @Override
     public Integer createComment(Comment comment) {
@@ -31,7 +35,6 @@ public class CommentServiceImpl implements CommentService {
             comment.setCommentId(null);
             comment.setLikes(0);
             comment.setCreateTime(new Date());
-            comment.setLikeUserList(new ArrayList<>());
             Comment savedComment = commentRepository.save(comment);
             log.info("Successfully created comment with ID: {}", savedComment.getCommentId());
             return savedComment.getCommentId();
@@ -56,6 +59,7 @@ public class CommentServiceImpl implements CommentService {
 
         try {
             commentRepository.deleteByCommentId(commentId);
+            membershipRepository.deleteAllByEntity(MembershipKind.COMMENT_LIKER, commentId);
             log.info("Successfully deleted comment with ID: {}", commentId);
             return true;
         } catch (Exception e) {
@@ -80,6 +84,17 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
+    public List<Integer> getLikedCommentIds(List<Integer> commentIds) {
+        if (commentIds == null || commentIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        User user = userFeign.getCurrentUser().getResult();
+        return membershipRepository.findEntityIdsIn(MembershipKind.COMMENT_LIKER, user.getUserId(), commentIds);
+    }
+
+    // 点赞关系的插入本身就是去重检查，不加载评论的点赞用户列表
+    @Override
+    @Transactional
     public Integer likeComment(Integer commentId) {
         Comment comment = commentRepository.findByCommentId(commentId);
         if (comment == null) {
@@ -87,16 +102,14 @@ public class CommentServiceImpl implements CommentService {
         }
 
         User user = userFeign.getCurrentUser().getResult();
-        if (comment.getLikeUserList().contains(user.getUserId())) {
+        if (membershipRepository.add(MembershipKind.COMMENT_LIKER.name(), commentId, user.getUserId()) == 0) {
             throw TuneIslandException.alreadyLiked();
         }
 
         try {
-            comment.setLikes(comment.getLikes() + 1);
-            comment.getLikeUserList().add(user.getUserId());
-            commentRepository.save(comment);
+            commentRepository.addLikes(commentId, 1);
             log.info("User {} successfully liked comment {}", user.getUserId(), commentId);
-            return comment.getLikes();
+            return commentRepository.findLikesByCommentId(commentId);
         } catch (Exception e) {
             log.error("Error while liking comment {}: {}", commentId, e.getMessage());
             throw e;
@@ -104,6 +117,7 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
+    @Transactional
     public Integer cancelLikeComment(Integer commentId) {
         Comment comment = commentRepository.findByCommentId(commentId);
         if (comment == null) {
@@ -111,16 +125,14 @@ public class CommentServiceImpl implements CommentService {
         }
 
         User user = userFeign.getCurrentUser().getResult();
-        if (!comment.getLikeUserList().contains(user.getUserId())) {
+        if (membershipRepository.remove(MembershipKind.COMMENT_LIKER, commentId, user.getUserId()) == 0) {
             throw new TuneIslandException("你还没有点赞过该评论");
         }
 
         try {
-            comment.setLikes(comment.getLikes() - 1);
-            comment.getLikeUserList().remove(user.getUserId());
-            commentRepository.save(comment);
+            commentRepository.addLikes(commentId, -1);
             log.info("User {} successfully cancelled like on comment {}", user.getUserId(), commentId);
-            return comment.getLikes();
+            return commentRepository.findLikesByCommentId(commentId);
         } catch (Exception e) {
             log.error("Error while cancelling like on comment {}: {}", commentId, e.getMessage());
             throw e;
@@ -110,6 +110,18 @@ class CommentControllerTest {
                 .andExpect(jsonPath("$.result.commentId").value(testComment.getCommentId()));
     }
 
+    @Test
+    void getLikedCommentIds_Success() throws Exception {
+        when(commentService.getLikedCommentIds(Arrays.asList(1, 2, 3))).thenReturn(Arrays.asList(1, 3));
+
+        mockMvc.perform(get("/comment/getLikedCommentIds")
+                .param("commentIds", "1", "2", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value("000"))
+                .andExpect(jsonPath("$.result[0]").value(1))
+                .andExpect(jsonPath("$.result[1]").value(3));
+    }
+
     @Test
     void likeComment_Success() throws Exception {
         when(commentService.likeComment(anyInt())).thenReturn(1);
@@ -7,7 +7,6 @@ import java.util.Date;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -19,6 +18,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
@@ -26,9 +26,11 @@ import org.mockito.MockitoAnnotations;
 import com.devops26.comment.entity.Comment;
 import com.devops26.comment.entity.ResultVO;
 import com.devops26.comment.entity.User;
+import com.devops26.comment.enums.MembershipKind;
 import com.devops26.comment.exception.TuneIslandException;
 import com.devops26.comment.feign.UserFeign;
 import com.devops26.comment.repository.CommentRepository;
+import com.devops26.comment.repository.MembershipRepository;
 
 class CommentServiceImplTest {
 
@@ -38,6 +40,9 @@ class CommentServiceImplTest {
     @Mock
     private UserFeign userFeign;
 
+    @Mock
+    private MembershipRepository membershipRepository;
+
     @InjectMocks
     private CommentServiceImpl commentService;
 
@@ -59,7 +64,6 @@ class CommentServiceImplTest {
         testComment.setIsSongComment(true);
         testComment.setLikes(0);
         testComment.setCreateTime(new Date());
-        testComment.setLikeUserList(new ArrayList<>());
     }
 
     @Test
@@ -94,6 +98,7 @@ class CommentServiceImplTest {
 
         assertTrue(result);
         verify(commentRepository).deleteByCommentId(testComment.getCommentId());
+        verify(membershipRepository).deleteAllByEntity(MembershipKind.COMMENT_LIKER, testComment.getCommentId());
     }
 
     @Test
@@ -158,39 +163,41 @@ class CommentServiceImplTest {
         userResultVO.setResult(testUser);
         when(userFeign.getCurrentUser()).thenReturn(userResultVO);
         when(commentRepository.findByCommentId(testComment.getCommentId())).thenReturn(testComment);
-        when(commentRepository.save(any(Comment.class))).thenReturn(testComment);
+        when(membershipRepository.add("COMMENT_LIKER", 1, 1)).thenReturn(1);
+        when(commentRepository.findLikesByCommentId(1)).thenReturn(1);
 
         Integer likes = commentService.likeComment(testComment.getCommentId());
 
         assertEquals(1, likes);
-        assertTrue(testComment.getLikeUserList().contains(testUser.getUserId()));
+        verify(commentRepository).addLikes(1, 1);
+        verify(commentRepository, never()).save(any(Comment.class));
     }
 
     @Test
     void likeComment_AlreadyLiked() {
-        testComment.getLikeUserList().add(testUser.getUserId());
         ResultVO<User> userResultVO = new ResultVO<>();
         userResultVO.setResult(testUser);
         when(userFeign.getCurrentUser()).thenReturn(userResultVO);
         when(commentRepository.findByCommentId(testComment.getCommentId())).thenReturn(testComment);
+        when(membershipRepository.add("COMMENT_LIKER", 1, 1)).thenReturn(0);
 
         assertThrows(TuneIslandException.class, () -> commentService.likeComment(testComment.getCommentId()));
+        verify(commentRepository, never()).addLikes(anyInt(), anyInt());
     }
 
     @Test
     void cancelLikeComment_Success() {
-        testComment.getLikeUserList().add(testUser.getUserId());
-        testComment.setLikes(1);
         ResultVO<User> userResultVO = new ResultVO<>();
         userResultVO.setResult(testUser);
         when(userFeign.getCurrentUser()).thenReturn(userResultVO);
         when(commentRepository.findByCommentId(testComment.getCommentId())).thenReturn(testComment);
-        when(commentRepository.save(any(Comment.class))).thenReturn(testComment);
+        when(membershipRepository.remove(MembershipKind.COMMENT_LIKER, 1, 1)).thenReturn(1);
+        when(commentRepository.findLikesByCommentId(1)).thenReturn(0);
 
         Integer likes = commentService.cancelLikeComment(testComment.getCommentId());
 
         assertEquals(0, likes);
-        assertFalse(testComment.getLikeUserList().contains(testUser.getUserId()));
+        verify(commentRepository).addLikes(1, -1);
     }
 
     @Test
@@ -199,8 +206,31 @@ class CommentServiceImplTest {
         userResultVO.setResult(testUser);
         when(userFeign.getCurrentUser()).thenReturn(userResultVO);
         when(commentRepository.findByCommentId(testComment.getCommentId())).thenReturn(testComment);
+        when(membershipRepository.remove(MembershipKind.COMMENT_LIKER, 1, 1)).thenReturn(0);
 
         assertThrows(TuneIslandException.class, () -> commentService.cancelLikeComment(testComment.getCommentId()));
+        verify(commentRepository, never()).addLikes(anyInt(), anyInt());
+    }
+
+    @Test
+    void getLikedCommentIds_Success() {
+        ResultVO<User> userResultVO = new ResultVO<>();
+        userResultVO.setResult(testUser);
+        when(userFeign.getCurrentUser()).thenReturn(userResultVO);
+        when(membershipRepository.findEntityIdsIn(MembershipKind.COMMENT_LIKER, 1, Arrays.asList(1, 2, 3)))
+                .thenReturn(Arrays.asList(1, 3));
+
+        List<Integer> liked = commentService.getLikedCommentIds(Arrays.asList(1, 2, 3));
+
+        assertEquals(Arrays.asList(1, 3), liked);
+    }
+
+    @Test
+    void getLikedCommentIds_EmptyInput() {
+        List<Integer> liked = commentService.getLikedCommentIds(new ArrayList<>());
+
+        assertTrue(liked.isEmpty());
+        verify(userFeign, never()).getCurrentUser();
     }
 
     @Test
@@ -253,7 +283,8 @@ class CommentServiceImplTest {
         userResultVO.setResult(testUser);
         when(userFeign.getCurrentUser()).thenReturn(userResultVO);
         when(commentRepository.findByCommentId(testComment.getCommentId())).thenReturn(testComment);
-        when(commentRepository.save(any(Comment.class))).thenThrow(new org.springframework.dao.DataIntegrityViolationException("Data integrity error"));
+        when(membershipRepository.add("COMMENT_LIKER", 1, 1)).thenReturn(1);
+        when(commentRepository.addLikes(1, 1)).thenThrow(new org.springframework.dao.DataIntegrityViolationException("Data integrity error"));
 
         assertThrows(org.springframework.dao.DataIntegrityViolationException.class, () -> commentService.likeComment(testComment.getCommentId()));
     }
@@ -276,12 +307,12 @@ class CommentServiceImplTest {
 
     @Test
     void cancelLikeComment_SaveThrowsDataIntegrityException() {
-        testComment.getLikeUserList().add(testUser.getUserId());
         ResultVO<User> userResultVO = new ResultVO<>();
         userResultVO.setResult(testUser);
         when(userFeign.getCurrentUser()).thenReturn(userResultVO);
         when(commentRepository.findByCommentId(testComment.getCommentId())).thenReturn(testComment);
-        when(commentRepository.save(any(Comment.class))).thenThrow(new org.springframework.dao.DataIntegrityViolationException("Data integrity error"));
+        when(membershipRepository.remove(MembershipKind.COMMENT_LIKER, 1, 1)).thenReturn(1);
+        when(commentRepository.addLikes(1, -1)).thenThrow(new org.springframework.dao.DataIntegrityViolationException("Data integrity error"));
 
         assertThrows(org.springframework.dao.DataIntegrityViolationException.class, () -> commentService.cancelLikeComment(testComment.getCommentId()));
     }
@@ -6,6 +6,7 @@ import java.util.List;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -30,18 +31,23 @@ public class LoginFilter implements GlobalFilter, Ordered {
             "/user/getUserById",
             "/tools/**",
             "/songs/getAllSongs",
+            "/songs/getSongsPage",
             "/songs/getSongById",
             "/songs/searchByName",
             "/songs/searchBySinger",
             "/songs/play",
             "/songs/getByTag",
             "/songs/search",
+            "/songs/searchPage",
+            "/songs/suggest",
             "/songs/hotSongs",
             "/songs/getListByTag",
+            "/songs/getChart",
             "/songlist/getAllByOwnerId",
             "/songlist/getBySonglistId",
             "/songlist/getByName",
             "/songlist/getPublicSonglists",
+            "/songlist/getPublicSonglistsPage",
             "/songlist/getRecommendations",
             "/comment/getSongCommentByArtId",
             "/comment/getSonglistCommentByArtId",
@@ -52,6 +58,13 @@ public class LoginFilter implements GlobalFilter, Ordered {
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         String path = exchange.getRequest().getPath().value();
+
+        // 各服务的 /stats 运维指标只在内网直连访问，经由服务名路由过来的一律拒绝
+        if (isInternalPath(path)) {
+            log.warn("Blocked internal api: {}", path);
+            exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+            return exchange.getResponse().setComplete();
+        }
         
         // 检查是否是排除的路径
         if (isExcludedPath(path)) {
@@ -81,6 +94,13 @@ public class LoginFilter implements GlobalFilter, Ordered {
                 });
     }
 
+    // 匹配 /stats/** 以及服务发现路由的 /{serviceId}/stats/**
+    private boolean isInternalPath(String path) {
+        String[] segments = path.split("/");
+        return (segments.length > 1 && segments[1].equalsIgnoreCase("stats"))
+                || (segments.length > 2 && segments[2].equalsIgnoreCase("stats"));
+    }
+
     @Override
     public int getOrder() {
         return -1; // 确保这个过滤器最先执行
@@ -1,5 +1,6 @@
 package com.devops26.gateway.config;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +11,7 @@ import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.web.server.ServerWebExchange;
@@ -131,4 +133,24 @@ public class LoginFilterTest {
         verify(chain).filter(exchange);
         verifyNoInteractions(tokenUtil);
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void shouldBlockServiceStatsPath() {
+        // Given
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/music-service/stats/locks")
+                .header("token", "valid-token")
+                .build()
+        );
+
+        // When
+        Mono<Void> result = loginFilter.filter(exchange, chain);
+
+        // Then
+        StepVerifier.create(result)
+            .verifyComplete();
+        assertEquals(HttpStatus.NOT_FOUND, exchange.getResponse().getStatusCode());
+        verifyNoInteractions(chain);
+        verifyNoInteractions(tokenUtil);
+    }
+}
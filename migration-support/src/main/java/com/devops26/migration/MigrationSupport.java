@@ -0,0 +1,45 @@
+package com.devops26.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// 启动迁移的公共步骤，由 MigrationSupportAutoConfiguration 注册到各服务。
+// 旧表迁移后保留不删，滚动发布期间仍在运行的旧版本副本照常读写
+public class MigrationSupport {
+    private static final String SEQUENCE_COLUMN = "legacy_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MigrationSupport(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.tables where table_schema = database() and table_name = ?",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    // 旧集合表既没有主键也没有顺序列；补一个自增列，MySQL 重建表时按插入顺序为已有行编号，
+    // 即原列表中的顺序。返回该列名，供迁移语句 order by
+    public String addSequenceColumn(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns " +
+                "where table_schema = database() and table_name = ? and column_name = ?",
+                Integer.class, table, SEQUENCE_COLUMN);
+        if (count == null || count == 0) {
+            jdbcTemplate.execute("alter table " + table + " add column " + SEQUENCE_COLUMN +
+                    " bigint not null auto_increment unique");
+        }
+        return SEQUENCE_COLUMN;
+    }
+
+    // 记录迁移已执行，返回 false 表示之前已完成。需在迁移语句之前、同一事务中调用：
+    // 迁移失败时标记随之回滚；并发启动的副本在主键上等待，先提交的一方完成后其余的直接跳过。
+    // 建表等 DDL 会隐式提交，须放在本方法之前执行
+    public boolean markDone(String name) {
+        jdbcTemplate.execute("create table if not exists data_migration " +
+                "(name varchar(100) not null primary key, migrated_at datetime not null)");
+        return jdbcTemplate.update("insert ignore into data_migration (name, migrated_at) values (?, now())", name) > 0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.devops26.migration;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@AutoConfiguration(after = JdbcTemplateAutoConfiguration.class)
+public class MigrationSupportAutoConfiguration {
+
+    @Bean
+    public MigrationSupport migrationSupport(JdbcTemplate jdbcTemplate) {
+        return new MigrationSupport(jdbcTemplate);
+    }
+}
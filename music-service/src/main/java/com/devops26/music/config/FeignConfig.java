@@ -21,17 +21,16 @@ public class FeignConfig implements RequestInterceptor {
 
     @Override
     public void apply(RequestTemplate requestTemplate) {
-        requestTemplate.header("token", getHttpServletRequest().getHeader("token"));
-
+        HttpServletRequest request = getHttpServletRequest();
+        // 定时任务等后台线程没有请求上下文，不转发 token
+        if (request != null) {
+            requestTemplate.header("token", request.getHeader("token"));
+        }
     }
 
     private HttpServletRequest getHttpServletRequest() {
-        try {
-            return ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        return attributes == null ? null : attributes.getRequest();
     }
 
 //    private Map<String, String> getHeaders(HttpServletRequest request) {
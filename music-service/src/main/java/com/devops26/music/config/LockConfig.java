@@ -0,0 +1,29 @@
+package com.devops26.music.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.devops26.music.util.KeyedLockProvider;
+import com.devops26.music.util.RedisKeyedLockProvider;
+import com.devops26.music.util.StripedKeyedLockProvider;
+
+@Configuration
+public class LockConfig {
+
+    // 多副本部署必须用 redis；local 只在同一进程内互斥，适合单机开发
+    @Bean
+    public KeyedLockProvider keyedLockProvider(StringRedisTemplate stringRedisTemplate,
+            @Value("${music.lock.provider:redis}") String provider,
+            @Value("${music.lock.stripes:256}") int stripes,
+            @Value("${music.lock.wait-timeout-ms:5000}") long waitTimeoutMillis,
+            @Value("${music.lock.lease-ms:30000}") long leaseMillis,
+            @Value("${music.lock.key-prefix:music:lock}") String keyPrefix) {
+        StripedKeyedLockProvider local = new StripedKeyedLockProvider(stripes, waitTimeoutMillis);
+        if ("local".equalsIgnoreCase(provider)) {
+            return local;
+        }
+        return new RedisKeyedLockProvider(stringRedisTemplate, local, keyPrefix, leaseMillis, waitTimeoutMillis);
+    }
+}
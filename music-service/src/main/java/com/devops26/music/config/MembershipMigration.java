@@ -0,0 +1,52 @@
+package com.devops26.music.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devops26.migration.MigrationSupport;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 把旧的 song_rate_user_list / songlist_rate_user_list 集合表迁移到 membership，每张表只执行一次，旧表保留
+@Slf4j
+@Component
+public class MembershipMigration {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MigrationSupport migrationSupport;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyRaters() {
+        migrate("SONG_RATER", "song_rate_user_list", "song_song_id");
+        migrate("SONGLIST_RATER", "songlist_rate_user_list", "songlist_songlist_id");
+    }
+
+    private void migrate(String kind, String table, String entityColumn) {
+        if (!migrationSupport.tableExists(table)) {
+            log.info("No legacy {} table to migrate", table);
+            return;
+        }
+        try {
+            if (!migrationSupport.markDone(table + "_to_membership")) {
+                return;
+            }
+            // 旧列表可能有重复的用户，insert ignore 依赖唯一约束去重
+            int migrated = jdbcTemplate.update(
+                    "insert ignore into membership (kind, entity_id, user_id) " +
+                    "select ?, " + entityColumn + ", rate_user_list from " + table + " where rate_user_list is not null",
+                    kind);
+            log.info("Migrated {} legacy {} entries to membership", migrated, table);
+        } catch (Exception e) {
+            log.error("Failed to migrate legacy {}: {}", table, e.getMessage());
+            throw e;
+        }
+    }
+}
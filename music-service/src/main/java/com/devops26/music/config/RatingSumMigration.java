@@ -0,0 +1,47 @@
+package com.devops26.music.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+// 为 rate_sum 列回填 旧平均分 × 人数。在 Hibernate 更新表结构之后、开始接收请求之前执行，
+// 评分时可直接在 rate_sum 上累加；只处理尚未回填的行，重复执行无副作用。
+// 新建的库没有旧的 rate 列，无需回填
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class RatingSumMigration {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void backfillRateSum() {
+        try {
+            int songs = backfill("song");
+            int songlists = backfill("songlist");
+            if (songs > 0 || songlists > 0) {
+                log.info("Backfilled rate_sum for {} songs and {} songlists", songs, songlists);
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill rate_sum: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    private int backfill(String table) {
+        Integer legacyColumns = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns " +
+                "where table_schema = database() and table_name = ? and column_name = 'rate'",
+                Integer.class, table);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return 0;
+        }
+        return jdbcTemplate.update("update " + table +
+                " set rate_sum = coalesce(rate, 0) * coalesce(rate_num, 0) where rate_sum is null");
+    }
+}
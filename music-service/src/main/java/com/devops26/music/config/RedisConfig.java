@@ -4,6 +4,7 @@ import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.cache.CacheProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
@@ -13,10 +14,15 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import com.devops26.music.util.SongCatalogReader;
+import com.devops26.music.util.SongIndexRefresher;
+
 @EnableCaching
 @EnableConfigurationProperties(CacheProperties.class)
 @Configuration
@@ -54,4 +60,16 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
-} 
\ No newline at end of file
+
+    // 订阅曲库失效频道，其他副本修改歌曲后清除本地缓存、更新本地搜索索引和输入联想
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+            SongCatalogReader songCatalogReader, SongIndexRefresher songIndexRefresher,
+            @Value("${music.catalog.invalidation-channel:music:catalog:invalidate}") String invalidationChannel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(songCatalogReader, new ChannelTopic(invalidationChannel));
+        container.addMessageListener(songIndexRefresher, new ChannelTopic(invalidationChannel));
+        return container;
+    }
+}
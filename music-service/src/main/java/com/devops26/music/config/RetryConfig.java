@@ -0,0 +1,18 @@
+package com.devops26.music.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.devops26.music.util.RetryPolicy;
+
+@Configuration
+public class RetryConfig {
+
+    @Bean
+    public RetryPolicy retryPolicy(@Value("${music.retry.max-attempts:4}") int maxAttempts,
+            @Value("${music.retry.initial-backoff-ms:20}") long initialBackoffMillis,
+            @Value("${music.retry.max-backoff-ms:200}") long maxBackoffMillis) {
+        return new RetryPolicy(maxAttempts, initialBackoffMillis, maxBackoffMillis);
+    }
+}
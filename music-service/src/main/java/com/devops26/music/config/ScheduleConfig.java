@@ -2,7 +2,6 @@ package com.devops26.music.config;
 
 import com.devops26.music.service.SongService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -15,7 +14,6 @@ public class ScheduleConfig {
     private SongService songService;
 
     @Scheduled(cron = "0 0 4 * * ?") // 每天凌晨4点执行
-    @CacheEvict(value = "rank")
     public void trainRecommendationModel() {
         songService.trainRecommendationModel();
     }
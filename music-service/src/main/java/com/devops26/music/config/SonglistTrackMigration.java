@@ -0,0 +1,50 @@
+package com.devops26.music.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devops26.migration.MigrationSupport;
+import com.devops26.music.entity.SonglistTrack;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 把旧的 songlist_songs 集合表迁移到 songlist_track，按原有顺序分配稀疏位置，只执行一次，旧表保留
+@Slf4j
+@Component
+public class SonglistTrackMigration {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MigrationSupport migrationSupport;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacySongs() {
+        if (!migrationSupport.tableExists("songlist_songs")) {
+            log.info("No legacy songlist_songs table to migrate");
+            return;
+        }
+        try {
+            String sequence = migrationSupport.addSequenceColumn("songlist_songs");
+            if (!migrationSupport.markDone("songlist_songs_to_songlist_track")) {
+                return;
+            }
+            // 旧列表可能有重复的歌曲，insert ignore 依赖唯一约束去重
+            int migrated = jdbcTemplate.update(
+                    "insert ignore into songlist_track (songlist_id, song_id, position) " +
+                    "select songlist_songlist_id, songs, " + SonglistTrack.POSITION_GAP +
+                    " * row_number() over (partition by songlist_songlist_id order by " + sequence + ") " +
+                    "from songlist_songs where songs is not null");
+            log.info("Migrated {} legacy songlist songs to songlist_track", migrated);
+        } catch (Exception e) {
+            log.error("Failed to migrate legacy songlist_songs: {}", e.getMessage());
+            throw e;
+        }
+    }
+}
@@ -3,16 +3,24 @@ package com.devops26.music.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.devops26.music.entity.CursorPage;
 import com.devops26.music.entity.ResultVO;
 import com.devops26.music.entity.Song;
+import com.devops26.music.entity.SongSearchPage;
+import com.devops26.music.entity.SongSuggestion;
+import com.devops26.music.entity.SongSummary;
 import com.devops26.music.service.SongService;
+import com.devops26.music.util.NdjsonWriter;
 
 @RestController
 @RequestMapping("/songs")
@@ -37,47 +45,91 @@ public class SongController {
     }
 
     @GetMapping("/getAllSongs")
-    public ResultVO<List<Song>> getAllSongs() {
+    public ResultVO<List<SongSummary>> getAllSongs() {
         return ResultVO.buildSuccess(songService.getAllSongs());
     }
 
+    // 曲库键集分页：sort 为 id（默认）或 playAmount，cursor 为上一页返回的 nextCursor
+    @GetMapping("/getSongsPage")
+    public ResultVO<CursorPage<SongSummary>> getSongsPage(@RequestParam(name = "cursor", required = false) String cursor,
+                                                         @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                                         @RequestParam(name = "sort", defaultValue = "id") String sort) {
+        return ResultVO.buildSuccess(songService.getSongsPage(cursor, size, sort));
+    }
+
+    // 以 NDJSON 流式导出整个曲库，每行一首歌曲
+    @GetMapping("/exportSongs")
+    public ResponseEntity<StreamingResponseBody> exportSongs() {
+        StreamingResponseBody body = out -> songService.exportSongs(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonWriter.CONTENT_TYPE))
+                .body(body);
+    }
+
     @GetMapping("/searchByName")
-    public ResultVO<List<Song>> searchSongsByName(@RequestParam(name = "name") String name) {
+    public ResultVO<List<SongSummary>> searchSongsByName(@RequestParam(name = "name") String name) {
         return ResultVO.buildSuccess(songService.searchSongsByName(name));
     }
 
     @GetMapping("/searchBySinger")
-    public ResultVO<List<Song>> searchSongsBySinger(@RequestParam(name = "singer") String singer) {
+    public ResultVO<List<SongSummary>> searchSongsBySinger(@RequestParam(name = "singer") String singer) {
         return ResultVO.buildSuccess(songService.searchSongsBySinger(singer));
     }
 
     @GetMapping("/search")
-    public ResultVO<List<Song>> searchSongs(@RequestParam(name = "keyword") String keyword) {
+    public ResultVO<List<SongSummary>> searchSongs(@RequestParam(name = "keyword") String keyword) {
         return ResultVO.buildSuccess(songService.searchSongs(keyword));
     }
 
+    @GetMapping("/searchPage")
+    public ResultVO<SongSearchPage> searchSongsPage(@RequestParam(name = "keyword") String keyword,
+                                                    @RequestParam(name = "page", defaultValue = "0") Integer page,
+                                                    @RequestParam(name = "size", defaultValue = "20") Integer size) {
+        return ResultVO.buildSuccess(songService.searchSongs(keyword, page, size));
+    }
+
+    // 搜索框输入联想
+    @GetMapping("/suggest")
+    public ResultVO<List<SongSuggestion>> suggest(@RequestParam(name = "prefix") String prefix,
+                                                  @RequestParam(name = "limit", defaultValue = "10") Integer limit) {
+        return ResultVO.buildSuccess(songService.suggest(prefix, limit));
+    }
+
     @GetMapping("/getByTag")
-    public ResultVO<List<Song>> getSongsByTag(@RequestParam(name = "tag") String tag) {
+    public ResultVO<List<SongSummary>> getSongsByTag(@RequestParam(name = "tag") String tag) {
         return ResultVO.buildSuccess(songService.getSongsByTag(tag));
     }
 
     //热歌榜
     @GetMapping("/hotSongs")
-    public ResultVO<List<Song>> getHotSongs() {
+    public ResultVO<List<SongSummary>> getHotSongs() {
         return ResultVO.buildSuccess(songService.getHotSongs());
     }
 
     //流行音乐榜
     @GetMapping("/getListByTag")
-    public ResultVO<List<Song>> getListByTag(@RequestParam(name = "tag") String tag) {
+    public ResultVO<List<SongSummary>> getListByTag(@RequestParam(name = "tag") String tag) {
         return ResultVO.buildSuccess(songService.getListByTag(tag));
     }
 
+    // 实时榜单：window 为 trending（热度，默认）、day 或 week，不传 tag 为全站榜
+    @GetMapping("/getChart")
+    public ResultVO<List<SongSummary>> getChart(@RequestParam(name = "window", defaultValue = "trending") String window,
+                                                @RequestParam(name = "tag", required = false) String tag) {
+        return ResultVO.buildSuccess(songService.getChart(window, tag));
+    }
+
     @PostMapping("/rateSong")
     public ResultVO<Boolean> rateSong(@RequestParam(name = "songId") Integer songId, @RequestParam(name="rate") Double rate) {
         return ResultVO.buildSuccess(songService.rateSong(songId, rate));
     }
 
+    // 当前用户是否已给这首歌评过分
+    @GetMapping("/hasRated")
+    public ResultVO<Boolean> hasRated(@RequestParam(name = "songId") Integer songId) {
+        return ResultVO.buildSuccess(songService.hasRated(songId));
+    }
+
     @PostMapping("/play")
     public ResultVO<Boolean> play(@RequestParam(name = "songId") Integer songId) {
         return ResultVO.buildSuccess(songService.play(songId));
@@ -2,9 +2,13 @@ package com.devops26.music.controller;
 
 import java.util.List;
 
+import com.devops26.music.entity.CursorPage;
 import com.devops26.music.entity.ResultVO;
 import com.devops26.music.entity.User;
+import com.devops26.music.util.NdjsonWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.devops26.music.entity.Songlist;
 import com.devops26.music.service.SonglistService;
@@ -59,6 +64,28 @@ public class SonglistController {
         return ResultVO.buildSuccess(songlistService.getByName(name));
     }
 
+    // 批量追加到歌单末尾，已在歌单中的跳过，返回实际追加的数量
+    @PostMapping("/addSongs")
+    public ResultVO<Integer> addSongs(@RequestParam(name = "songlistId") Integer songlistId,
+                                      @RequestBody List<Integer> songIds) {
+        return ResultVO.buildSuccess(songlistService.addSongs(songlistId, songIds));
+    }
+
+    // 批量移出歌单，返回实际移出的数量
+    @PostMapping("/removeSongs")
+    public ResultVO<Integer> removeSongs(@RequestParam(name = "songlistId") Integer songlistId,
+                                         @RequestBody List<Integer> songIds) {
+        return ResultVO.buildSuccess(songlistService.removeSongs(songlistId, songIds));
+    }
+
+    // 把歌曲移到 afterSongId 之后，不传 afterSongId 时移到最前
+    @PostMapping("/moveSong")
+    public ResultVO<Boolean> moveSong(@RequestParam(name = "songlistId") Integer songlistId,
+                                      @RequestParam(name = "songId") Integer songId,
+                                      @RequestParam(name = "afterSongId", required = false) Integer afterSongId) {
+        return ResultVO.buildSuccess(songlistService.moveSong(songlistId, songId, afterSongId));
+    }
+
     @PostMapping("/collectSonglist")
     public ResultVO<Integer> collectSonglist(@RequestParam(name = "songlistId") Integer songlistId) {
         return ResultVO.buildSuccess(songlistService.collectSonglist(songlistId));
@@ -69,11 +96,33 @@ public class SonglistController {
         return ResultVO.buildSuccess(songlistService.rate(songlistId, rate));
     }
 
+    // 当前用户是否已给这个歌单评过分
+    @GetMapping("/hasRated")
+    public ResultVO<Boolean> hasRated(@RequestParam(name = "songlistId") Integer songlistId) {
+        return ResultVO.buildSuccess(songlistService.hasRated(songlistId));
+    }
+
     @GetMapping("/getPublicSonglists")
     public ResultVO<List<Songlist>> getPublicSonglists() {
         return ResultVO.buildSuccess(songlistService.getPublicSonglists());
     }
 
+    // 公开歌单的键集分页，cursor 为上一页返回的 nextCursor
+    @GetMapping("/getPublicSonglistsPage")
+    public ResultVO<CursorPage<Songlist>> getPublicSonglistsPage(@RequestParam(name = "cursor", required = false) String cursor,
+                                                                 @RequestParam(name = "size", defaultValue = "20") Integer size) {
+        return ResultVO.buildSuccess(songlistService.getPublicSonglistsPage(cursor, size));
+    }
+
+    // 以 NDJSON 流式导出全部公开歌单，每行一个歌单
+    @GetMapping("/exportPublicSonglists")
+    public ResponseEntity<StreamingResponseBody> exportPublicSonglists() {
+        StreamingResponseBody body = out -> songlistService.exportPublicSonglists(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonWriter.CONTENT_TYPE))
+                .body(body);
+    }
+
     @PostMapping("/cancelCollectSonglist")
     public ResultVO<Boolean> cancelCollectSonglist(@RequestParam(name = "songlistId") Integer songlistId) {
         return ResultVO.buildSuccess(songlistService.cancelCollectSonglist(songlistId));
@@ -0,0 +1,74 @@
+package com.devops26.music.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.devops26.music.entity.CatalogCacheStats;
+import com.devops26.music.entity.CatalogStats;
+import com.devops26.music.entity.HistoryQueueStats;
+import com.devops26.music.entity.LockStats;
+import com.devops26.music.entity.PlayCounterStats;
+import com.devops26.music.entity.ResultVO;
+import com.devops26.music.entity.TrainingProgress;
+import com.devops26.music.service.CatalogStatsService;
+import com.devops26.music.service.ListeningHistoryService;
+import com.devops26.music.service.PlayCountService;
+import com.devops26.music.service.SongService;
+import com.devops26.music.util.KeyedLockProvider;
+import com.devops26.music.util.SongCatalogReader;
+
+// 运维指标接口，网关的 LoginFilter 拦截 /{serviceId}/stats/**，只供内网直连访问
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    @Autowired
+    private PlayCountService playCountService;
+
+    @Autowired
+    private ListeningHistoryService listeningHistoryService;
+
+    @Autowired
+    private CatalogStatsService catalogStatsService;
+
+    @Autowired
+    private SongService songService;
+
+    @Autowired
+    private SongCatalogReader songCatalogReader;
+
+    @Autowired
+    private KeyedLockProvider keyedLockProvider;
+
+    @GetMapping("/playCounter")
+    public ResultVO<PlayCounterStats> getPlayCounterStats() {
+        return ResultVO.buildSuccess(playCountService.getStats());
+    }
+
+    @GetMapping("/historyQueue")
+    public ResultVO<HistoryQueueStats> getHistoryQueueStats() {
+        return ResultVO.buildSuccess(listeningHistoryService.getStats());
+    }
+
+    @GetMapping("/catalog")
+    public ResultVO<CatalogStats> getCatalogStats() {
+        return ResultVO.buildSuccess(catalogStatsService.getStats());
+    }
+
+    @GetMapping("/catalogCache")
+    public ResultVO<CatalogCacheStats> getCatalogCacheStats() {
+        return ResultVO.buildSuccess(songCatalogReader.getStats());
+    }
+
+    @GetMapping("/locks")
+    public ResultVO<LockStats> getLockStats() {
+        return ResultVO.buildSuccess(keyedLockProvider.getStats());
+    }
+
+    @GetMapping("/training")
+    public ResultVO<TrainingProgress> getTrainingProgress() {
+        return ResultVO.buildSuccess(songService.getTrainingProgress());
+    }
+}
@@ -0,0 +1,32 @@
+package com.devops26.music.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogCacheStats {
+    // 当前缓存的歌曲数（估计值）
+    private Long size;
+
+    private Long hitCount;
+
+    private Long missCount;
+
+    private Double hitRate;
+
+    private Long loadSuccessCount;
+
+    // 查库失败的次数
+    private Long loadFailureCount;
+
+    private Double averageLoadMillis;
+
+    // 因容量或过期被淘汰的条目
+    private Long evictionCount;
+
+    // 收到的失效消息（包括本副本发布的）
+    private Long invalidations;
+}
@@ -0,0 +1,42 @@
+package com.devops26.music.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.devops26.music.enums.SongTag;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogStats {
+    private Integer songCount;
+
+    private Long totalPlayAmount;
+
+    // 播放量分布，用于热度归一化
+    private Integer maxPlayAmount;
+
+    private Integer p50PlayAmount;
+
+    private Integer p90PlayAmount;
+
+    private Integer p99PlayAmount;
+
+    private Integer ratedSongCount;
+
+    private Double averageRate;
+
+    // 评分分布，第 i 项为评分落在 [i, i + 1) 的歌曲数，5 分计入最后一项
+    private List<Long> rateHistogram;
+
+    private Map<SongTag, Long> tagCounts;
+
+    private Date computedAt;
+
+    private Long computeMillis;
+}
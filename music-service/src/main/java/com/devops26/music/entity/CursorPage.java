@@ -0,0 +1,18 @@
+package com.devops26.music.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 键集分页的一页结果：下一页从 nextCursor 之后继续，不使用 offset
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+
+    // 没有更多数据时为 null
+    private String nextCursor;
+}
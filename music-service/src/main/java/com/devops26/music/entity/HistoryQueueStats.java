@@ -0,0 +1,26 @@
+package com.devops26.music.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryQueueStats {
+    // 队列中等待发送的播放事件
+    private Integer queuedEvents;
+
+    private Integer queueCapacity;
+
+    private Long publishedEvents;
+
+    // 队列已满时被丢弃的事件
+    private Long droppedEvents;
+
+    private Long deliveredEvents;
+
+    private Long deliveredBatches;
+
+    private Long failedBatches;
+}
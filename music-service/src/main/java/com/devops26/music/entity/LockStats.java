@@ -0,0 +1,39 @@
+package com.devops26.music.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LockStats {
+    // local 或 redis
+    private String provider;
+
+    private Long acquisitions;
+
+    // 等锁超时的次数
+    private Long timeouts;
+
+    // 释放时发现租约已过期（锁可能已被其他副本拿走）的次数
+    private Long expiredLeases;
+
+    // 直方图各桶的上界（毫秒），最后一桶为超出最大上界的部分
+    private List<Long> bucketBoundsMillis;
+
+    private List<Long> waitCounts;
+
+    private List<Long> holdCounts;
+
+    // 由直方图估算，取所在桶的上界
+    private Long waitP99Millis;
+
+    private Long holdP99Millis;
+
+    private Long maxWaitMillis;
+
+    private Long maxHoldMillis;
+}
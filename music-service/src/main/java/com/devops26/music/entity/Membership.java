@@ -0,0 +1,35 @@
+package com.devops26.music.entity;
+
+import com.devops26.music.enums.MembershipKind;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 用户与歌曲、歌单、评论之间的 "评过分" / "点过赞" 关系，各服务共用一张表。
+// 唯一约束既用于去重，也是按 (类型, 实体, 用户) 查询的索引
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "membership",
+        uniqueConstraints = @UniqueConstraint(name = "uk_membership_kind_entity_user",
+                columnNames = {"kind", "entity_id", "user_id"}),
+        indexes = @Index(name = "idx_membership_kind_user", columnList = "kind, user_id"))
+public class Membership {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Basic
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 32)
+    private MembershipKind kind;
+
+    @Basic
+    @Column(name = "entity_id", nullable = false)
+    private Integer entityId;
+
+    @Basic
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+}
@@ -0,0 +1,28 @@
+package com.devops26.music.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayCounterStats {
+    // 尚未写入数据库的播放次数
+    private Long pendingPlays;
+
+    // 有待写入增量的歌曲数
+    private Integer pendingSongs;
+
+    private Long recordedPlays;
+
+    private Long flushedPlays;
+
+    private Long failedFlushes;
+
+    private Date lastFlushTime;
+
+    private Long lastFlushMillis;
+}
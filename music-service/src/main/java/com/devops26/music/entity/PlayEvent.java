@@ -0,0 +1,18 @@
+package com.devops26.music.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayEvent {
+    private Integer userId;
+
+    private Integer songId;
+
+    private Date playedAt;
+}
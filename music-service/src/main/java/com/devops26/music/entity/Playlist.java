@@ -2,6 +2,7 @@ package com.devops26.music.entity;
 
 import com.devops26.music.enums.PlayStrategy;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -37,4 +38,10 @@ public class Playlist {
     @ElementCollection
     @Column(name = "songs")
     private List<Integer> songs;
+
+    // 乐观锁版本，客户端修改播放列表时带回读取时的版本
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
\ No newline at end of file
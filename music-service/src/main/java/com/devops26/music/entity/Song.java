@@ -2,6 +2,7 @@ package com.devops26.music.entity;
 
 import com.devops26.music.enums.SongTag;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Formula;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -41,17 +42,18 @@ public class Song {
     @Column(name = "image_url")
     private String imageUrl;
 
-    @Basic
-    @Column(name = "rate")
+    // 平均分不存储，读取时由评分总和与人数算出；没有人评分时为空
+    @Formula("case when rate_num > 0 then rate_sum / rate_num end")
     private Double rate;
 
+    // 评分总和与人数只由仓库中的原子 UPDATE 修改，保存整个实体时不覆盖
     @Basic
-    @Column(name = "rate_num")
-    private Integer rateNum;
+    @Column(name = "rate_sum", updatable = false)
+    private Double rateSum;
 
-    @ElementCollection
-    @Column(name = "rate_user_list")
-    private List<Integer> rateUserList;
+    @Basic
+    @Column(name = "rate_num", updatable = false)
+    private Integer rateNum;
 
     @Basic
     @Column(name = "lyric", columnDefinition = "TEXT")
@@ -0,0 +1,22 @@
+package com.devops26.music.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SongSearchPage {
+    // 命中总数
+    private Long total;
+
+    // 页码，从 0 开始
+    private Integer page;
+
+    private Integer size;
+
+    private List<SongSummary> songs;
+}
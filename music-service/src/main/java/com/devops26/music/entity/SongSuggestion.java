@@ -0,0 +1,23 @@
+package com.devops26.music.entity;
+
+import com.devops26.music.enums.SuggestionType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SongSuggestion {
+    private SuggestionType type;
+
+    // 歌名或歌手名
+    private String text;
+
+    // 歌手候选为 null
+    private Integer songId;
+
+    // 歌手候选为其所有歌曲的播放量之和
+    private Long playAmount;
+}
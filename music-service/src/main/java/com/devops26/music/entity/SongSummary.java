@@ -0,0 +1,26 @@
+package com.devops26.music.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 列表接口返回的歌曲摘要：不含歌词和标签、评分用户两个集合，由 JPQL 构造器查询直接生成
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SongSummary {
+    private Integer songId;
+
+    private String name;
+
+    private String singer;
+
+    // 列表中可以直接播放
+    private String url;
+
+    private String imageUrl;
+
+    private Integer playAmount;
+
+    private Double rate;
+}
@@ -1,6 +1,8 @@
 package com.devops26.music.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Formula;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -35,19 +37,26 @@ public class Songlist {
     @Column(name = "is_public")
     private Boolean isPublic;
 
-    @ElementCollection
-    @Column(name = "songs")
+    // 曲目存放在 songlist_track 中，不随实体加载和保存；返回给前端前由服务层按位置顺序填充
+    @Transient
     private List<Integer> songs;
 
-    @Basic
-    @Column(name = "rate")
+    // 平均分不存储，读取时由评分总和与人数算出；没有人评分时为空
+    @Formula("case when rate_num > 0 then rate_sum / rate_num end")
     private Double rate;
 
+    // 评分总和与人数只由仓库中的原子 UPDATE 修改，保存整个实体时不覆盖
+    @Basic
+    @Column(name = "rate_sum", updatable = false)
+    private Double rateSum;
+
     @Basic
-    @Column(name = "rate_num")
+    @Column(name = "rate_num", updatable = false)
     private Integer rateNum;
 
-    @ElementCollection
-    @Column(name = "rate_user_list")
-    private List<Integer> rateUserList;
+    // 乐观锁版本，客户端修改歌单时带回读取时的版本
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
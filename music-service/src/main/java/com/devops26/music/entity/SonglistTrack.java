@@ -0,0 +1,41 @@
+package com.devops26.music.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 歌单中的一首歌。位置是稀疏的：相邻曲目之间留出 POSITION_GAP 的空隙，
+// 追加取最大位置加间隔，移动取前后两首的中间值，都只改动一行。
+// 同一位置可能有多首（并发追加），此时按 track_id 排序
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "songlist_track",
+        uniqueConstraints = @UniqueConstraint(name = "uk_songlist_track_song", columnNames = {"songlist_id", "song_id"}),
+        indexes = @Index(name = "idx_songlist_track_position", columnList = "songlist_id, position"))
+public class SonglistTrack {
+    public static final long POSITION_GAP = 1L << 16;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "track_id")
+    private Long trackId;
+
+    @Basic
+    @Column(name = "songlist_id", nullable = false)
+    private Integer songlistId;
+
+    @Basic
+    @Column(name = "song_id", nullable = false)
+    private Integer songId;
+
+    @Basic
+    @Column(name = "position", nullable = false)
+    private Long position;
+
+    public SonglistTrack(Integer songlistId, Integer songId, Long position) {
+        this.songlistId = songlistId;
+        this.songId = songId;
+        this.position = position;
+    }
+}
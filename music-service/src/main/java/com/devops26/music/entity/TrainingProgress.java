@@ -0,0 +1,32 @@
+package com.devops26.music.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrainingProgress {
+    // 是否正在生成推荐
+    private Boolean running;
+
+    private Integer totalUsers;
+
+    private Integer processedUsers;
+
+    // 生成推荐时出错的用户数
+    private Integer failedUsers;
+
+    private Integer writtenChunks;
+
+    private Integer failedChunks;
+
+    private Double usersPerSecond;
+
+    private Date startTime;
+
+    private Date finishTime;
+}
@@ -0,0 +1,29 @@
+package com.devops26.music.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// 每个用户一行的推荐结果，由推荐训练写入；读取推荐只需按主键查一次
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_recommendation")
+public class UserRecommendation {
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    // 按推荐顺序打包的歌曲 id，每个 4 字节（大端序）
+    @Lob
+    @Column(name = "song_ids", columnDefinition = "BLOB")
+    private byte[] songIds;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "updated_at")
+    private Date updatedAt;
+}
@@ -0,0 +1,11 @@
+package com.devops26.music.enums;
+
+// membership 表由多个服务共用，各服务的枚举保持一致
+public enum MembershipKind {
+    // 给歌曲评过分
+    SONG_RATER,
+    // 给歌单评过分
+    SONGLIST_RATER,
+    // 给评论点过赞
+    COMMENT_LIKER
+}
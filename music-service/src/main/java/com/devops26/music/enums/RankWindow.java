@@ -0,0 +1,9 @@
+package com.devops26.music.enums;
+
+public enum RankWindow {
+    // 热度随时间衰减，近期播放权重更高
+    TRENDING,
+    // 自然日 / 自然周内的播放次数
+    DAY,
+    WEEK
+}
@@ -0,0 +1,5 @@
+package com.devops26.music.enums;
+
+public enum SuggestionType {
+    SONG, SINGER
+}
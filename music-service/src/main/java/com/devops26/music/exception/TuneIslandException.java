@@ -60,4 +60,40 @@ public class TuneIslandException extends RuntimeException {
     public static TuneIslandException songlistAlreadyCollected() {
         return new TuneIslandException("歌单已被收藏");
     }
-} 
\ No newline at end of file
+
+    public static TuneIslandException invalidTag() {
+        return new TuneIslandException("标签不存在");
+    }
+
+    public static TuneIslandException invalidRankWindow() {
+        return new TuneIslandException("榜单类型无效");
+    }
+
+    public static TuneIslandException invalidCursor() {
+        return new TuneIslandException("分页游标无效");
+    }
+
+    public static TuneIslandException concurrentModification() {
+        return new TuneIslandException("内容已被修改，请刷新后重试");
+    }
+
+    public static TuneIslandException lockTimeout() {
+        return new TuneIslandException("操作繁忙，请稍后重试");
+    }
+
+    public static TuneIslandException versionRequired() {
+        return new TuneIslandException("修改曲目列表需要带上歌单版本");
+    }
+
+    public static TuneIslandException emptySongList() {
+        return new TuneIslandException("歌曲列表不能为空");
+    }
+
+    public static TuneIslandException tooManySongs(int max) {
+        return new TuneIslandException("一次最多操作 " + max + " 首歌曲");
+    }
+
+    public static TuneIslandException interrupted() {
+        return new TuneIslandException("操作被中断");
+    }
+}
@@ -1,6 +1,7 @@
 package com.devops26.music.feign;
 
 import com.devops26.music.config.FeignConfig;
+import com.devops26.music.entity.PlayEvent;
 import com.devops26.music.entity.ResultVO;
 import com.devops26.music.entity.User;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -25,6 +26,16 @@ public interface UserFeign {
     @GetMapping("/user/findAll")
     ResultVO<List<User>> findAll();
 
+    // 只返回推荐训练需要的字段：userId、songlistList、history
+    @GetMapping("/user/findAllProfiles")
+    ResultVO<List<User>> findAllProfiles();
+
     @PostMapping("/user/saveAll")
     ResultVO<List<User>> saveAll(@RequestBody List<User> users);
+
+    @PostMapping("/user/appendHistory")
+    ResultVO<Boolean> appendHistory(@RequestBody List<PlayEvent> events);
+
+    @PostMapping("/user/verifyToken")
+    ResultVO<Boolean> verifyToken(@RequestParam("token") String token);
 }
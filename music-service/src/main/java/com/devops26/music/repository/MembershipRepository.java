@@ -0,0 +1,37 @@
+package com.devops26.music.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devops26.music.entity.Membership;
+import com.devops26.music.enums.MembershipKind;
+
+public interface MembershipRepository extends JpaRepository<Membership, Long> {
+    boolean existsByKindAndEntityIdAndUserId(MembershipKind kind, Integer entityId, Integer userId);
+
+    // 依赖唯一约束去重：并发的重复插入只有一条生效，返回 0 表示关系已存在
+    @Transactional
+    @Modifying
+    @Query(value = "insert ignore into membership (kind, entity_id, user_id) values (:kind, :entityId, :userId)",
+            nativeQuery = true)
+    int add(@Param("kind") String kind, @Param("entityId") Integer entityId, @Param("userId") Integer userId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Membership m where m.kind = :kind and m.entityId = :entityId")
+    int deleteAllByEntity(@Param("kind") MembershipKind kind, @Param("entityId") Integer entityId);
+
+    // 用户最近建立关系的实体在前
+    @Query("select m.entityId from Membership m where m.kind = :kind and m.userId = :userId order by m.id desc")
+    List<Integer> findEntityIds(@Param("kind") MembershipKind kind, @Param("userId") Integer userId, Pageable pageable);
+
+    // 每行为 [userId, entityId]，训练时一次取出全部关系
+    @Query("select m.userId, m.entityId from Membership m where m.kind = :kind")
+    List<Object[]> findAllPairs(@Param("kind") MembershipKind kind);
+}
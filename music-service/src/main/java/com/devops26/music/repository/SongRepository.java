@@ -1,24 +1,102 @@
 package com.devops26.music.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import com.devops26.music.enums.SongTag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.devops26.music.entity.Song;
+import com.devops26.music.entity.SongSummary;
 
 public interface SongRepository extends JpaRepository<Song, Integer> {
     Song findBySongId(Integer songId);
     List<Song> findAll();
     Song findByUrl(String url);
-    List<Song> findByNameContainingIgnoreCaseOrderByPlayAmountDesc(String name);
-    List<Song> findBySingerContainingIgnoreCaseOrderByPlayAmountDesc(String singer);
-    List<Song> findByNameContainingIgnoreCaseOrSingerContainingIgnoreCaseOrderByPlayAmountDesc(String name, String singer);
 
-    List<Song> findByTagsContainingOrderByPlayAmountDesc(SongTag tag);
+    List<Song> findAllByOrderByPlayAmountDesc(Pageable pageable);
 
-    List<Song> findAllByOrderByPlayAmountDesc();
+    // 按主键分批遍历曲库
+    List<Song> findBySongIdGreaterThanOrderBySongIdAsc(Integer songId, Pageable pageable);
+
+    // 列表查询只取摘要字段，不读歌词，也不关联两个集合表
+    String SUMMARY = "select new com.devops26.music.entity.SongSummary(s.songId, s.name, s.singer, s.url, "
+            + "s.imageUrl, s.playAmount, s.rate) from Song s ";
+
+    @Query(SUMMARY + "order by s.songId")
+    List<SongSummary> findAllSummaries();
+
+    @Query(SUMMARY + "order by s.playAmount desc")
+    List<SongSummary> findTopSummaries(Pageable pageable);
+
+    // 键集分页：按 id 升序，从 afterId 之后开始
+    @Query(SUMMARY + "where s.songId > :afterId order by s.songId")
+    List<SongSummary> findSummariesAfterId(@Param("afterId") Integer afterId, Pageable pageable);
+
+    // 键集分页的第一页，排序与 findSummariesAfterPlayAmount 完全一致，翻页时不会漏掉或重复同播放量的歌曲
+    @Query(SUMMARY + "order by coalesce(s.playAmount, 0) desc, s.songId")
+    List<SongSummary> findFirstSummariesByPlayAmount(Pageable pageable);
+
+    // 键集分页：按 (播放量降序, id 升序)，从 (playAmount, songId) 之后开始
+    @Query(SUMMARY + "where coalesce(s.playAmount, 0) < :playAmount "
+            + "or (coalesce(s.playAmount, 0) = :playAmount and s.songId > :songId) "
+            + "order by coalesce(s.playAmount, 0) desc, s.songId")
+    List<SongSummary> findSummariesAfterPlayAmount(@Param("playAmount") Integer playAmount,
+            @Param("songId") Integer songId, Pageable pageable);
+
+    // 导出用的流式查询：MySQL 驱动在 fetch size 为 Integer.MIN_VALUE 时逐行读取结果集，需在事务内消费并关闭
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(SUMMARY + "order by s.songId")
+    Stream<SongSummary> streamAllSummaries();
+
+    @Query(SUMMARY + "where lower(s.name) like lower(concat('%', :name, '%')) order by s.playAmount desc")
+    List<SongSummary> findSummariesByName(@Param("name") String name);
+
+    @Query(SUMMARY + "where lower(s.singer) like lower(concat('%', :singer, '%')) order by s.playAmount desc")
+    List<SongSummary> findSummariesBySinger(@Param("singer") String singer);
+
+    @Query(SUMMARY + "where lower(s.name) like lower(concat('%', :keyword, '%')) "
+            + "or lower(s.singer) like lower(concat('%', :keyword, '%')) order by s.playAmount desc")
+    List<SongSummary> findSummariesByKeyword(@Param("keyword") String keyword);
+
+    // 按标签过滤只关联标签表做条件，不加载集合
+    @Query(SUMMARY + "join s.tags t where t = :tag order by s.playAmount desc")
+    List<SongSummary> findSummariesByTag(@Param("tag") SongTag tag);
+
+    @Query(SUMMARY + "join s.tags t where t = :tag order by s.playAmount desc")
+    List<SongSummary> findTopSummariesByTag(@Param("tag") SongTag tag, Pageable pageable);
 
     List<Song> findByRateIsNotNullOrderByRateDesc();
+
+    @Query("select coalesce(s.playAmount, 0) from Song s order by coalesce(s.playAmount, 0)")
+    List<Integer> findAllPlayAmounts();
+
+    @Query("select s.rate from Song s where s.rate is not null and s.rateNum > 0")
+    List<Double> findAllRates();
+
+    // 每行为 [SongTag, 歌曲数]
+    @Query("select t, count(s) from Song s join s.tags t group by t")
+    List<Object[]> countSongsByTag();
+
+    @Transactional
+    @Modifying
+    @Query("update Song s set s.playAmount = coalesce(s.playAmount, 0) + :delta where s.songId = :songId")
+    int incrementPlayAmount(@Param("songId") Integer songId, @Param("delta") Integer delta);
+
+    // 评分总和、人数在数据库中原子累加，不读出实体；行锁持有到事务结束。
+    // 平均分由实体上的公式在读取时算出，不随评分写入，也就不依赖 SET 子句的赋值顺序
+    @Transactional
+    @Modifying
+    @Query("update Song s set s.rateSum = coalesce(s.rateSum, 0) + :rate, s.rateNum = coalesce(s.rateNum, 0) + 1 "
+            + "where s.songId = :songId")
+    int addRating(@Param("songId") Integer songId, @Param("rate") Double rate);
+
 } 
\ No newline at end of file
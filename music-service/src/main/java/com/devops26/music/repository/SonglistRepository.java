@@ -2,15 +2,46 @@ package com.devops26.music.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.devops26.music.entity.Songlist;
 
+import jakarta.persistence.LockModeType;
+
 public interface SonglistRepository extends JpaRepository<Songlist, Integer> {
     Songlist findBySonglistId(Integer songlistId);
     List<Songlist> findAllByOwnerId(Integer ownerId);
     Songlist findByName(String name);
     void deleteBySonglistId(Integer songlistId);
     List<Songlist> findAllByIsPublic(Boolean isPublic);
-} 
\ No newline at end of file
+
+    // 读取时锁住歌单行，锁内读到的版本就是最新版本，直到事务结束别人都改不了这个歌单
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Songlist findForUpdateBySonglistId(Integer songlistId);
+
+    // 曲目变化时递增歌单版本，带着旧版本提交的完整曲目列表会被拒绝；
+    // 修改曲目前先调用，update 持有的行锁让同一歌单的曲目修改串行执行
+    @Transactional
+    @Modifying
+    @Query("update Songlist s set s.version = s.version + 1 where s.songlistId = :songlistId")
+    int incrementVersion(@Param("songlistId") Integer songlistId);
+
+    // 键集分页：按 id 升序，从 afterId 之后开始
+    List<Songlist> findByIsPublicTrueAndSonglistIdGreaterThanOrderBySonglistIdAsc(Integer afterId, Pageable pageable);
+
+    // 同 SongRepository.addRating
+    @Transactional
+    @Modifying
+    @Query("update Songlist s set s.rateSum = coalesce(s.rateSum, 0) + :rate, s.rateNum = coalesce(s.rateNum, 0) + 1 "
+            + "where s.songlistId = :songlistId")
+    int addRating(@Param("songlistId") Integer songlistId, @Param("rate") Double rate);
+
+    @Query("select s.rate from Songlist s where s.songlistId = :songlistId")
+    Double findRateBySonglistId(@Param("songlistId") Integer songlistId);
+}
@@ -0,0 +1,54 @@
+package com.devops26.music.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devops26.music.entity.SonglistTrack;
+
+public interface SonglistTrackRepository extends JpaRepository<SonglistTrack, Long> {
+    // 追加到末尾，位置为当前最大位置加 gap，只读 (songlist_id, position) 索引的最后一项；
+    // 依赖唯一约束去重，返回 0 表示歌曲已在歌单中
+    @Transactional
+    @Modifying
+    @Query(value = "insert ignore into songlist_track (songlist_id, song_id, position) "
+            + "select :songlistId, :songId, coalesce(max(position), 0) + :gap from songlist_track "
+            + "where songlist_id = :songlistId", nativeQuery = true)
+    int append(@Param("songlistId") Integer songlistId, @Param("songId") Integer songId, @Param("gap") Long gap);
+
+    @Transactional
+    @Modifying
+    @Query("delete from SonglistTrack t where t.songlistId = :songlistId and t.songId in :songIds")
+    int removeSongs(@Param("songlistId") Integer songlistId, @Param("songIds") Collection<Integer> songIds);
+
+    @Transactional
+    @Modifying
+    @Query("delete from SonglistTrack t where t.songlistId = :songlistId")
+    int deleteAllBySonglistId(@Param("songlistId") Integer songlistId);
+
+    SonglistTrack findBySonglistIdAndSongId(Integer songlistId, Integer songId);
+
+    List<SonglistTrack> findAllBySonglistIdOrderByPositionAscTrackIdAsc(Integer songlistId);
+
+    @Query("select t.songId from SonglistTrack t where t.songlistId = :songlistId order by t.position, t.trackId")
+    List<Integer> findSongIds(@Param("songlistId") Integer songlistId);
+
+    // 每行为 [songlistId, songId]，一次取出多个歌单的全部歌曲，各歌单内按位置排序
+    @Query("select t.songlistId, t.songId from SonglistTrack t where t.songlistId in :songlistIds "
+            + "order by t.songlistId, t.position, t.trackId")
+    List<Object[]> findSongIdsBySonglistIds(@Param("songlistIds") Collection<Integer> songlistIds);
+
+    // 排在 position 之后的第一首的位置，不算 songId 自己；没有时返回 null
+    @Query("select min(t.position) from SonglistTrack t where t.songlistId = :songlistId "
+            + "and t.position > :position and t.songId <> :songId")
+    Long findNextPosition(@Param("songlistId") Integer songlistId, @Param("position") Long position,
+            @Param("songId") Integer songId);
+
+    @Query("select min(t.position) from SonglistTrack t where t.songlistId = :songlistId and t.songId <> :songId")
+    Long findFirstPosition(@Param("songlistId") Integer songlistId, @Param("songId") Integer songId);
+}
@@ -0,0 +1,21 @@
+package com.devops26.music.repository;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.devops26.music.entity.UserRecommendation;
+
+public interface UserRecommendationRepository extends JpaRepository<UserRecommendation, Integer> {
+    UserRecommendation findByUserId(Integer userId);
+
+    // 主键由调用方指定，直接插入或覆盖，不像 save 那样先查询一次
+    @Modifying
+    // 使用 MySQL 8.0.19 起的行别名写法，values() 引用新值的写法已废弃
+    @Query(value = "insert into user_recommendation (user_id, song_ids, updated_at) values (:userId, :songIds, :updatedAt) "
+            + "as new on duplicate key update song_ids = new.song_ids, updated_at = new.updated_at", nativeQuery = true)
+    int upsert(@Param("userId") Integer userId, @Param("songIds") byte[] songIds, @Param("updatedAt") Date updatedAt);
+}
@@ -0,0 +1,8 @@
+package com.devops26.music.service;
+
+import com.devops26.music.entity.CatalogStats;
+
+public interface CatalogStatsService {
+    CatalogStats getStats();
+    CatalogStats refresh();
+}
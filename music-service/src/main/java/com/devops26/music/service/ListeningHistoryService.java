@@ -0,0 +1,9 @@
+package com.devops26.music.service;
+
+import com.devops26.music.entity.HistoryQueueStats;
+
+public interface ListeningHistoryService {
+    void publish(Integer userId, Integer songId);
+    void flush();
+    HistoryQueueStats getStats();
+}
@@ -0,0 +1,9 @@
+package com.devops26.music.service;
+
+import com.devops26.music.entity.PlayCounterStats;
+
+public interface PlayCountService {
+    void recordPlay(Integer songId);
+    void flush();
+    PlayCounterStats getStats();
+}
@@ -0,0 +1,10 @@
+package com.devops26.music.service;
+
+import java.util.List;
+
+import com.devops26.music.entity.User;
+
+public interface RecommendationService {
+    void saveRecommendations(List<User> users);
+    List<Integer> getRecommendations(Integer userId);
+}
@@ -1,27 +1,41 @@
 package com.devops26.music.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
+import com.devops26.music.entity.CursorPage;
 import com.devops26.music.entity.Song;
+import com.devops26.music.entity.SongSearchPage;
+import com.devops26.music.entity.SongSuggestion;
+import com.devops26.music.entity.SongSummary;
+import com.devops26.music.entity.TrainingProgress;
 
 public interface SongService {
     Integer uploadSong(Song song);
     Song getSongById(Integer songId);
-    List<Song> getAllSongs();
+    List<SongSummary> getAllSongs();
+    CursorPage<SongSummary> getSongsPage(String cursor, Integer size, String sort);
+    void exportSongs(OutputStream out) throws IOException;
     Boolean updateSong(Song song);
-    List<Song> searchSongsByName(String name);
-    List<Song> searchSongsBySinger(String singer);
+    List<SongSummary> searchSongsByName(String name);
+    List<SongSummary> searchSongsBySinger(String singer);
     Boolean play(Integer songId);
-    List<Song> searchSongs(String keyword);
-    List<Song> getSongsByTag(String tag);
-    List<Song> getHotSongs();
-    List<Song> getListByTag(String tag);
+    List<SongSummary> searchSongs(String keyword);
+    SongSearchPage searchSongs(String keyword, Integer page, Integer size);
+    List<SongSuggestion> suggest(String prefix, Integer limit);
+    List<SongSummary> getSongsByTag(String tag);
+    Boolean hasRated(Integer songId);
+    List<SongSummary> getHotSongs();
+    List<SongSummary> getListByTag(String tag);
+    List<SongSummary> getChart(String window, String tag);
     Boolean rateSong(Integer songId, Double rate);
     Boolean collectSong(Integer songId, Integer songlistId);
     Boolean likeSong(Integer songId);
     Boolean cancelLikeSong(Integer songId);
     List<Song> getRecommendedSongs(Integer userId, Integer numRecommendations);
     void trainRecommendationModel();
+    TrainingProgress getTrainingProgress();
     List<Song> getLLMRecommendedSongs(Integer userId, Integer numRecommendations);
     default List<Song> getRecommendedSongs(Integer userId) {
         return getRecommendedSongs(userId, 10);
@@ -1,7 +1,10 @@
 package com.devops26.music.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
+import com.devops26.music.entity.CursorPage;
 import com.devops26.music.entity.Songlist;
 import com.devops26.music.entity.User;
 
@@ -10,12 +13,19 @@ public interface SonglistService {
     Boolean deleteSonglist(Integer songlistId);
     Boolean updateSonglist(Songlist songlist);
     Songlist getMylikeSonglist(Integer userId);
+    Integer getMylikeSonglistId(Integer userId);
     List<Songlist> getAllByOwnerId(Integer ownerId);
     Songlist getBySonglistId(Integer songlistId);
     Songlist getByName(String name);
+    Integer addSongs(Integer songlistId, List<Integer> songIds);
+    Integer removeSongs(Integer songlistId, List<Integer> songIds);
+    Boolean moveSong(Integer songlistId, Integer songId, Integer afterSongId);
     Integer collectSonglist(Integer songlistId);
     Double rate(Integer songlistId, Double rate);
+    Boolean hasRated(Integer songlistId);
     List<Songlist> getPublicSonglists();
+    CursorPage<Songlist> getPublicSonglistsPage(String cursor, Integer size);
+    void exportPublicSonglists(OutputStream out) throws IOException;
     Boolean cancelCollectSonglist(Integer songlistId);
     List<Songlist> getRecommendedSonglists();
     boolean createDefaultSonglist(User user);
@@ -0,0 +1,98 @@
+package com.devops26.music.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.devops26.music.entity.CatalogStats;
+import com.devops26.music.enums.SongTag;
+import com.devops26.music.repository.SongRepository;
+import com.devops26.music.service.CatalogStatsService;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 曲库统计快照：定时或每次训练前用几条聚合查询算一次，打分时直接读取，不再逐首歌查询数据库
+@Service
+@Slf4j
+public class CatalogStatsServiceImpl implements CatalogStatsService {
+    @Autowired
+    private SongRepository songRepository;
+
+    private volatile CatalogStats stats;
+
+    @Override
+    public CatalogStats getStats() {
+        CatalogStats current = stats;
+        return current != null ? current : refresh();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${music.catalog-stats.refresh-interval-ms:600000}")
+    public synchronized CatalogStats refresh() {
+        long start = System.currentTimeMillis();
+        try {
+            // 按播放量升序返回，百分位直接按下标取
+            List<Integer> playAmounts = songRepository.findAllPlayAmounts();
+            List<Double> rates = songRepository.findAllRates();
+            List<Object[]> tagRows = songRepository.countSongsByTag();
+
+            long totalPlayAmount = 0;
+            for (Integer playAmount : playAmounts) {
+                totalPlayAmount += playAmount;
+            }
+
+            Long[] rateHistogram = new Long[5];
+            Arrays.fill(rateHistogram, 0L);
+            double rateSum = 0;
+            for (Double rate : rates) {
+                rateSum += rate;
+                int bucket = Math.min(4, Math.max(0, (int) Math.floor(rate)));
+                rateHistogram[bucket]++;
+            }
+
+            Map<SongTag, Long> tagCounts = new EnumMap<>(SongTag.class);
+            for (Object[] row : tagRows) {
+                tagCounts.put((SongTag) row[0], ((Number) row[1]).longValue());
+            }
+
+            CatalogStats computed = new CatalogStats(
+                    playAmounts.size(),
+                    totalPlayAmount,
+                    percentile(playAmounts, 1.0),
+                    percentile(playAmounts, 0.5),
+                    percentile(playAmounts, 0.9),
+                    percentile(playAmounts, 0.99),
+                    rates.size(),
+                    rates.isEmpty() ? 0.0 : rateSum / rates.size(),
+                    new ArrayList<>(Arrays.asList(rateHistogram)),
+                    tagCounts,
+                    new Date(),
+                    System.currentTimeMillis() - start);
+            stats = computed;
+            log.info("Refreshed catalog stats for {} songs in {} ms", computed.getSongCount(), computed.getComputeMillis());
+            return computed;
+        } catch (Exception e) {
+            log.error("Failed to refresh catalog stats: {}", e.getMessage());
+            // 刷新失败时继续使用上一次的结果
+            if (stats != null) {
+                return stats;
+            }
+            throw e;
+        }
+    }
+
+    private Integer percentile(List<Integer> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.min(sorted.size() - 1, Math.max(0, index)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.devops26.music.service.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.devops26.music.entity.HistoryQueueStats;
+import com.devops26.music.entity.PlayEvent;
+import com.devops26.music.feign.UserFeign;
+import com.devops26.music.service.ListeningHistoryService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// 播放历史异步写入：播放请求只把事件放入有界队列，由后台任务批量发送给 user-service
+@Service
+@Slf4j
+public class ListeningHistoryServiceImpl implements ListeningHistoryService {
+    @Autowired
+    private UserFeign userFeign;
+
+    @Value("${music.history.max-batch-size:500}")
+    private int maxBatchSize = 500;
+
+    private final int queueCapacity;
+    private final BlockingQueue<PlayEvent> queue;
+
+    private final LongAdder publishedEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder deliveredEvents = new LongAdder();
+    private final LongAdder deliveredBatches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
+    public ListeningHistoryServiceImpl(@Value("${music.history.queue-capacity:10000}") int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public void publish(Integer userId, Integer songId) {
+        publishedEvents.increment();
+        if (!queue.offer(new PlayEvent(userId, songId, new Date()))) {
+            droppedEvents.increment();
+            log.warn("History queue is full, dropping play of song {} by user {}", songId, userId);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${music.history.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<PlayEvent> batch = new ArrayList<>();
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            if (!deliver(batch)) {
+                return;
+            }
+            batch = new ArrayList<>();
+        }
+    }
+
+    private boolean deliver(List<PlayEvent> batch) {
+        try {
+            userFeign.appendHistory(batch);
+            deliveredEvents.add(batch.size());
+            deliveredBatches.increment();
+            return true;
+        } catch (Exception e) {
+            failedBatches.increment();
+            log.error("Failed to deliver {} play events to user-service: {}", batch.size(), e.getMessage());
+            // 放回队列等待下次重试，队列已满时丢弃
+            for (PlayEvent event : batch) {
+                if (!queue.offer(event)) {
+                    droppedEvents.increment();
+                }
+            }
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Delivering {} pending play events before shutdown", queue.size());
+        flush();
+    }
+
+    @Override
+    public HistoryQueueStats getStats() {
+        return new HistoryQueueStats(queue.size(), queueCapacity, publishedEvents.sum(), droppedEvents.sum(),
+                deliveredEvents.sum(), deliveredBatches.sum(), failedBatches.sum());
+    }
+}
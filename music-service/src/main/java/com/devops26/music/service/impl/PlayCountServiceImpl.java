@@ -0,0 +1,104 @@
+package com.devops26.music.service.impl;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.devops26.music.entity.PlayCounterStats;
+import com.devops26.music.repository.SongRepository;
+import com.devops26.music.service.PlayCountService;
+import com.devops26.music.util.SongLeaderboard;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// 播放量写回缓冲：播放只在内存中按歌曲累加（LongAdder），由定时任务合并增量后批量写入数据库，
+// 写入成功的增量再同步到 Redis 榜单
+@Service
+@Slf4j
+public class PlayCountServiceImpl implements PlayCountService {
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private SongLeaderboard songLeaderboard;
+
+    private final Map<Integer, LongAdder> pendingPlays = new ConcurrentHashMap<>();
+
+    private final LongAdder recordedPlays = new LongAdder();
+    private final LongAdder flushedPlays = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+
+    private volatile Date lastFlushTime;
+    private volatile long lastFlushMillis;
+
+    @Override
+    public void recordPlay(Integer songId) {
+        pendingPlays.computeIfAbsent(songId, id -> new LongAdder()).increment();
+        recordedPlays.increment();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${music.play-counter.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        long start = System.currentTimeMillis();
+        int songs = 0;
+        Map<Integer, Long> flushed = new HashMap<>();
+        // 计数器保留在表中而不移除，避免与并发的 recordPlay 竞争导致计数丢失
+        for (Map.Entry<Integer, LongAdder> entry : pendingPlays.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta == 0) {
+                continue;
+            }
+            // 单次最多写回 Integer.MAX_VALUE 次，超出部分放回计数器留到下一次
+            int applied = (int) Math.min(delta, Integer.MAX_VALUE);
+            if (delta > applied) {
+                entry.getValue().add(delta - applied);
+            }
+            try {
+                songRepository.incrementPlayAmount(entry.getKey(), applied);
+                flushedPlays.add(applied);
+                flushed.put(entry.getKey(), (long) applied);
+                songs++;
+            } catch (Exception e) {
+                // 写入失败时把增量放回，等待下一次刷新重试
+                entry.getValue().add(applied);
+                failedFlushes.increment();
+                log.error("Failed to flush {} plays for song {}: {}", applied, entry.getKey(), e.getMessage());
+            }
+        }
+        songLeaderboard.recordPlays(flushed);
+        lastFlushTime = new Date();
+        lastFlushMillis = System.currentTimeMillis() - start;
+        if (songs > 0) {
+            log.debug("Flushed play counts for {} songs in {} ms", songs, lastFlushMillis);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Flushing pending play counts before shutdown");
+        flush();
+    }
+
+    @Override
+    public PlayCounterStats getStats() {
+        long pending = 0;
+        int pendingSongs = 0;
+        for (LongAdder adder : pendingPlays.values()) {
+            long value = adder.sum();
+            if (value > 0) {
+                pending += value;
+                pendingSongs++;
+            }
+        }
+        return new PlayCounterStats(pending, pendingSongs, recordedPlays.sum(), flushedPlays.sum(),
+                failedFlushes.sum(), lastFlushTime, lastFlushMillis);
+    }
+}
@@ -14,6 +14,8 @@ import com.devops26.music.exception.TuneIslandException;
 import com.devops26.music.repository.PlaylistRepository;
 import com.devops26.music.repository.SongRepository;
 import com.devops26.music.service.PlaylistService;
+import com.devops26.music.util.KeyedLockProvider;
+import com.devops26.music.util.RetryPolicy;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,6 +24,10 @@ import lombok.extern.slf4j.Slf4j;
 public class PlaylistServiceImpl implements PlaylistService {
     @Autowired
     PlaylistRepository playlistRepository;
+    @Autowired
+    KeyedLockProvider keyedLockProvider;
+    @Autowired
+    RetryPolicy retryPolicy;
 
     @Override
     public Playlist getPlaylistByUserId(Integer userId) {
@@ -31,44 +37,34 @@ public class PlaylistServiceImpl implements PlaylistService {
     @Override
     public Boolean updatePlaylist(Playlist playlist) {
         validatePlaylistUpdate(playlist);
-        synchronized (("playlist:" + playlist.getPlaylistId()).intern()) {
-            return executePlaylistUpdate(playlist);
-        }
+        Long clientVersion = playlist.getVersion();
+        return keyedLockProvider.withLock("playlist:" + playlist.getPlaylistId(),
+                () -> retryPolicy.execute("Update playlist for user " + playlist.getUserId(),
+                        () -> executePlaylistUpdate(playlist, clientVersion)));
     }
 
-    private void validatePlaylistUpdate(Playlist playlist) {
+    private Playlist validatePlaylistUpdate(Playlist playlist) {
         Playlist existingPlaylist = playlistRepository.findByUserId(playlist.getUserId());
         if (existingPlaylist == null || !Objects.equals(existingPlaylist.getPlaylistId(), playlist.getPlaylistId())) {
             throw TuneIslandException.playlistAlreadyExists();
         }
+        return existingPlaylist;
     }
 
-    private Boolean executePlaylistUpdate(Playlist playlist) {
-        int retries = 3;
-        while (retries > 0) {
-            try {
-                playlistRepository.save(playlist);
-                log.info("Successfully updated playlist for user: {}", playlist.getUserId());
-                return true;
-            } catch (Exception e) {
-                if (--retries == 0) {
-                    log.error("Failed to update playlist for user {} after 3 retries: {}",
-                            playlist.getUserId(), e.getMessage());
-                    throw e;
-                }
-                handleRetry(playlist, retries);
-            }
+    // 每次尝试都重新读取当前版本；客户端带了版本而期间已被修改则拒绝，不带版本时以最后一次写入为准
+    private Boolean executePlaylistUpdate(Playlist playlist, Long clientVersion) {
+        Playlist existingPlaylist = validatePlaylistUpdate(playlist);
+        if (clientVersion != null && !clientVersion.equals(existingPlaylist.getVersion())) {
+            throw TuneIslandException.concurrentModification();
         }
-        return false;
-    }
-
-    private void handleRetry(Playlist playlist, int remainingRetries) {
-        log.warn("Retrying update playlist for user {}, {} attempts remaining",
-                playlist.getUserId(), remainingRetries);
+        playlist.setVersion(existingPlaylist.getVersion());
         try {
-            Thread.sleep(1000);
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
+            playlistRepository.save(playlist);
+            log.info("Successfully updated playlist for user: {}", playlist.getUserId());
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to update playlist for user {}: {}", playlist.getUserId(), e.getMessage());
+            throw e;
         }
     }
 
@@ -0,0 +1,72 @@
+package com.devops26.music.service.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devops26.music.entity.User;
+import com.devops26.music.entity.UserRecommendation;
+import com.devops26.music.repository.UserRecommendationRepository;
+import com.devops26.music.service.RecommendationService;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 推荐结果存放在 music-service 自己的 user_recommendation 表，训练和读取都不经过 user-service
+@Service
+@Slf4j
+public class RecommendationServiceImpl implements RecommendationService {
+    @Autowired
+    private UserRecommendationRepository userRecommendationRepository;
+
+    @Override
+    @Transactional
+    public void saveRecommendations(List<User> users) {
+        Date now = new Date();
+        int saved = 0;
+        for (User user : users) {
+            // 本次生成失败的用户保留上一次的推荐
+            if (user.getUserId() == null || user.getRecommendedSongs() == null) {
+                continue;
+            }
+            userRecommendationRepository.upsert(user.getUserId(), pack(user.getRecommendedSongs()), now);
+            saved++;
+        }
+        log.info("Saved recommendations for {} users", saved);
+    }
+
+    @Override
+    public List<Integer> getRecommendations(Integer userId) {
+        UserRecommendation recommendation = userRecommendationRepository.findByUserId(userId);
+        if (recommendation == null || recommendation.getSongIds() == null) {
+            return new ArrayList<>();
+        }
+        return unpack(recommendation.getSongIds());
+    }
+
+    private static byte[] pack(List<Integer> songIds) {
+        ByteBuffer buffer = ByteBuffer.allocate(songIds.size() * Integer.BYTES);
+        for (Integer songId : songIds) {
+            if (songId != null) {
+                buffer.putInt(songId);
+            }
+        }
+        byte[] packed = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(packed);
+        return packed;
+    }
+
+    private static List<Integer> unpack(byte[] packed) {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        List<Integer> songIds = new ArrayList<>(packed.length / Integer.BYTES);
+        while (buffer.remaining() >= Integer.BYTES) {
+            songIds.add(buffer.getInt());
+        }
+        return songIds;
+    }
+}
@@ -1,21 +1,52 @@
 package com.devops26.music.service.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.devops26.music.constants.DefaultImage;
+import com.devops26.music.entity.CursorPage;
+import com.devops26.music.entity.SongSearchPage;
+import com.devops26.music.entity.SongSuggestion;
+import com.devops26.music.entity.SongSummary;
 import com.devops26.music.entity.Songlist;
+import com.devops26.music.entity.SonglistTrack;
+import com.devops26.music.entity.TrainingProgress;
 import com.devops26.music.entity.User;
+import com.devops26.music.enums.MembershipKind;
+import com.devops26.music.enums.RankWindow;
 import com.devops26.music.enums.SongTag;
 import com.devops26.music.enums.UserRole;
 import com.devops26.music.feign.UserFeign;
+import com.devops26.music.repository.MembershipRepository;
 import com.devops26.music.repository.SonglistRepository;
+import com.devops26.music.repository.SonglistTrackRepository;
+import com.devops26.music.service.CatalogStatsService;
+import com.devops26.music.service.ListeningHistoryService;
+import com.devops26.music.service.PlayCountService;
+import com.devops26.music.service.RecommendationService;
 import com.devops26.music.service.SonglistService;
 import com.devops26.music.util.MLRecommenderUtil;
+import com.devops26.music.util.NdjsonWriter;
+import com.devops26.music.util.SongCatalogReader;
+import com.devops26.music.util.SongLeaderboard;
+import com.devops26.music.util.SongSearchIndex;
+import com.devops26.music.util.SongSuggester;
+import com.devops26.music.util.TokenUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import com.devops26.music.entity.Song;
@@ -31,6 +62,16 @@ import com.devops26.music.util.LLMRecommendationEngine;
 @Service
 @Slf4j
 public class SongServiceImpl implements SongService {
+    // 榜单长度
+    private static final int RANK_SIZE = 30;
+    private static final Duration RANK_FALLBACK_TTL = Duration.ofMinutes(1);
+
+    // 榜单补位用的累计播放量前 RANK_SIZE 首，按标签缓存；歌曲少的标签榜单长期不满，不能每次读榜都查库
+    private final Cache<String, List<SongSummary>> rankFallback = Caffeine.newBuilder()
+            .expireAfterWrite(RANK_FALLBACK_TTL)
+            .build();
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     @Autowired
     private UserFeign userFeign;
 
@@ -49,6 +90,51 @@ public class SongServiceImpl implements SongService {
     @Autowired
     private SongRepository songRepository;
 
+    @Autowired
+    private PlayCountService playCountService;
+
+    @Autowired
+    private ListeningHistoryService listeningHistoryService;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Autowired
+    private CatalogStatsService catalogStatsService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private SongCatalogReader songCatalogReader;
+
+    @Autowired
+    private SongSearchIndex songSearchIndex;
+
+    @Autowired
+    private SongSuggester songSuggester;
+
+    @Autowired
+    private SongLeaderboard songLeaderboard;
+
+    @Autowired
+    private MembershipRepository membershipRepository;
+
+    @Autowired
+    private SonglistTrackRepository songlistTrackRepository;
+
+    @Value("${music.search.default-page-size:50}")
+    private int defaultSearchPageSize;
+
+    @Value("${music.search.max-page-size:100}")
+    private int maxSearchPageSize;
+
+    @Value("${music.page.max-size:100}")
+    private int maxPageSize;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Override
     public Integer uploadSong(Song song) {
         try {
@@ -63,6 +149,9 @@ public class SongServiceImpl implements SongService {
                 song.setImageUrl(DefaultImage.DEFAULT_SONG_IMAGE);
             }
             Song newSong = songRepository.save(song);
+            songCatalogReader.invalidate(newSong.getSongId());
+            songSearchIndex.index(newSong);
+            songSuggester.onSongChanged(newSong);
             log.info("Successfully uploaded song: {}", newSong.getSongId());
             return newSong.getSongId();
         } catch (Exception e) {
@@ -71,14 +160,61 @@ public class SongServiceImpl implements SongService {
         }
     }
 
+    @Override
+    public CursorPage<SongSummary> getSongsPage(String cursor, Integer size, String sort) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, maxPageSize));
+        // 多取一条用来判断是否还有下一页
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        boolean byPlayAmount = "playAmount".equals(sort);
+        List<SongSummary> songs;
+        try {
+            if (byPlayAmount) {
+                String[] parts = cursor == null || cursor.isEmpty() ? null : cursor.split("_", 2);
+                songs = parts == null
+                        ? songRepository.findFirstSummariesByPlayAmount(limit)
+                        : songRepository.findSummariesAfterPlayAmount(Integer.parseInt(parts[0]),
+                                Integer.parseInt(parts[1]), limit);
+            } else {
+                int afterId = cursor == null || cursor.isEmpty() ? 0 : Integer.parseInt(cursor);
+                songs = songRepository.findSummariesAfterId(afterId, limit);
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw TuneIslandException.invalidCursor();
+        }
+
+        if (songs.size() <= pageSize) {
+            return new CursorPage<>(songs, null);
+        }
+        songs = new ArrayList<>(songs.subList(0, pageSize));
+        SongSummary last = songs.get(pageSize - 1);
+        String nextCursor = byPlayAmount
+                ? (last.getPlayAmount() == null ? 0 : last.getPlayAmount()) + "_" + last.getSongId()
+                : String.valueOf(last.getSongId());
+        return new CursorPage<>(songs, nextCursor);
+    }
+
+    // 结果集逐行读出、逐行写出，内存占用与曲库大小无关
+    @Override
+    @Transactional(readOnly = true)
+    public void exportSongs(OutputStream out) throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(objectMapper, out);
+        try (Stream<SongSummary> songs = songRepository.streamAllSummaries()) {
+            Iterator<SongSummary> iterator = songs.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+        log.info("Exported {} songs", writer.finish());
+    }
+
     @Override
     public Song getSongById(Integer songId) {
-        return songRepository.findBySongId(songId);
+        return songCatalogReader.findById(songId);
     }
 
     @Override
-    public List<Song> getAllSongs() {
-        return songRepository.findAll();
+    public List<SongSummary> getAllSongs() {
+        return songRepository.findAllSummaries();
     }
 
     @Override
@@ -87,51 +223,90 @@ public class SongServiceImpl implements SongService {
         if (user.getRole() != UserRole.ADMIN) {
             throw TuneIslandException.permissionDenied();
         }
-        songRepository.save(song);
+        Song savedSong = songRepository.save(song);
+        songCatalogReader.invalidate(song.getSongId());
+        songSearchIndex.index(savedSong);
+        songSuggester.onSongChanged(savedSong);
         return true;
     }
 
     @Override
-    public List<Song> searchSongsByName(String name) {
+    public List<SongSummary> searchSongsByName(String name) {
         if (name == null || name.trim().isEmpty()) {
             return List.of();
         }
-        List<Song> songs = songRepository.findByNameContainingIgnoreCaseOrderByPlayAmountDesc(name.trim());
+        List<SongSummary> songs = songRepository.findSummariesByName(name.trim());
         return songs;
     }
 
     @Override
-    public List<Song> searchSongsBySinger(String singer) {
+    public List<SongSummary> searchSongsBySinger(String singer) {
         if (singer == null || singer.trim().isEmpty()) {
             return List.of();
         }
-        List<Song> songs = songRepository.findBySingerContainingIgnoreCaseOrderByPlayAmountDesc(singer.trim());
+        List<SongSummary> songs = songRepository.findSummariesBySinger(singer.trim());
         return songs;
     }
 
 
+    // 旧接口不分页，与原来一样返回全部命中；需要分页的调用方使用 /songs/searchPage
     @Override
-    public List<Song> searchSongs(String keyword) {
+    public List<SongSummary> searchSongs(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
             return List.of();
         }
 
         String trimmedKeyword = keyword.trim();
-        List<Song> songs = songRepository.findByNameContainingIgnoreCaseOrSingerContainingIgnoreCaseOrderByPlayAmountDesc(
-                trimmedKeyword, trimmedKeyword);
+        if (songSearchIndex.isReady()) {
+            try {
+                return songSearchIndex.searchAll(trimmedKeyword);
+            } catch (Exception e) {
+                log.error("Search index query failed for '{}': {}", trimmedKeyword, e.getMessage());
+            }
+        }
+        return songRepository.findSummariesByKeyword(trimmedKeyword);
+    }
 
-        return songs;
+    @Override
+    public SongSearchPage searchSongs(String keyword, Integer page, Integer size) {
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        int pageSize = size == null ? defaultSearchPageSize : Math.max(1, Math.min(size, maxSearchPageSize));
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return new SongSearchPage(0L, pageNumber, pageSize, List.of());
+        }
+
+        String trimmedKeyword = keyword.trim();
+        if (songSearchIndex.isReady()) {
+            try {
+                return songSearchIndex.search(trimmedKeyword, pageNumber, pageSize);
+            } catch (Exception e) {
+                log.error("Search index query failed for '{}': {}", trimmedKeyword, e.getMessage());
+            }
+        }
+        // 索引尚未构建完成或查询出错时退回数据库模糊查询
+        List<SongSummary> songs = songRepository.findSummariesByKeyword(trimmedKeyword);
+        int from = Math.min(pageNumber * pageSize, songs.size());
+        int to = Math.min(from + pageSize, songs.size());
+        return new SongSearchPage((long) songs.size(), pageNumber, pageSize, songs.subList(from, to));
     }
 
     @Override
-    public List<Song> getSongsByTag(String tag) {
+    public List<SongSuggestion> suggest(String prefix, Integer limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return List.of();
+        }
+        return songSuggester.suggest(prefix, limit == null ? 10 : limit);
+    }
+
+    @Override
+    public List<SongSummary> getSongsByTag(String tag) {
         if (tag == null || tag.trim().isEmpty()) {
             return List.of();
         }
 
         try {
             SongTag songTag = SongTag.valueOf(tag.toUpperCase());
-            List<Song> songs = songRepository.findByTagsContainingOrderByPlayAmountDesc(songTag);
+            List<SongSummary> songs = songRepository.findSummariesByTag(songTag);
             return songs;
         } catch (IllegalArgumentException e) {
             return List.of();
@@ -139,14 +314,14 @@ public class SongServiceImpl implements SongService {
     }
 
     @Override
+    @Transactional
     public Boolean rateSong(Integer songId, Double rate) {
         try {
             User currentUser = userFeign.getCurrentUser().getResult();
-            Song song = songRepository.findBySongId(songId);
-            if (song.getRateUserList().contains(currentUser.getUserId())) {
-                throw TuneIslandException.alreadyRated();
+            if (!songRepository.existsById(songId)) {
+                throw TuneIslandException.songNotFound();
             }
-            updateSongRating(song, rate, currentUser.getUserId());
+            updateSongRating(songId, rate, currentUser.getUserId());
             log.info("User {} rated song {} with {}", currentUser.getUserId(), songId, rate);
             return true;
         } catch (Exception e) {
@@ -156,47 +331,103 @@ public class SongServiceImpl implements SongService {
     }
 
     @Override
-    @Cacheable(value = "rank", key = "'hot'")
-    public List<Song> getHotSongs() {
-        List<Song> songs = songRepository.findAllByOrderByPlayAmountDesc();
-        songs.forEach(song -> song.setTags(null));
-        songs.forEach(song -> song.setRateUserList(null));
-        return songs.stream()
-                .limit(30)
-                .collect(Collectors.toList());
+    public Boolean hasRated(Integer songId) {
+        Integer userId = tokenUtil.getCurrentUserId();
+        return userId != null && membershipRepository.existsByKindAndEntityIdAndUserId(MembershipKind.SONG_RATER,
+                songId, userId);
     }
 
     @Override
-    @Cacheable(value = "rank", key = "#tag")
-    public List<Song> getListByTag(String tag) {
-        List<Song> songs = songRepository.findByTagsContainingOrderByPlayAmountDesc(SongTag.valueOf(tag));
-        songs.forEach(song -> song.setTags(null));
-        songs.forEach(song -> song.setRateUserList(null));
-        return songs.stream().limit(30).collect(Collectors.toList());
+    public List<SongSummary> getHotSongs() {
+        return getRank(RankWindow.TRENDING, null);
+    }
+
+    @Override
+    public List<SongSummary> getListByTag(String tag) {
+        return getRank(RankWindow.TRENDING, parseTag(tag));
+    }
+
+    @Override
+    public List<SongSummary> getChart(String window, String tag) {
+        SongTag songTag = tag == null || tag.isEmpty() ? null : parseTag(tag);
+        return getRank(parseRankWindow(window), songTag);
+    }
+
+    private SongTag parseTag(String tag) {
+        if (tag == null) {
+            throw TuneIslandException.invalidTag();
+        }
+        try {
+            return SongTag.valueOf(tag.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw TuneIslandException.invalidTag();
+        }
+    }
+
+    private RankWindow parseRankWindow(String window) {
+        if (window == null) {
+            throw TuneIslandException.invalidRankWindow();
+        }
+        try {
+            return RankWindow.valueOf(window.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw TuneIslandException.invalidRankWindow();
+        }
+    }
+
+    // 榜单直接读 Redis 有序集合，歌曲信息走本地曲库缓存；
+    // 榜上歌曲不足 RANK_SIZE 首时（刚上线、当日刚开始）用累计播放量最高的歌曲补齐
+    private List<SongSummary> getRank(RankWindow window, SongTag tag) {
+        List<Song> ranked = songCatalogReader.findAllInOrder(songLeaderboard.top(window, tag, RANK_SIZE));
+        if (ranked.size() >= RANK_SIZE) {
+            return ranked.stream().map(this::toSummary).collect(Collectors.toList());
+        }
+        List<SongSummary> fallback = rankFallback.get(tag == null ? "" : tag.name(), key -> {
+            PageRequest top = PageRequest.of(0, RANK_SIZE);
+            return tag == null
+                    ? songRepository.findTopSummaries(top)
+                    : songRepository.findTopSummariesByTag(tag, top);
+        });
+        if (ranked.isEmpty()) {
+            return new ArrayList<>(fallback);
+        }
+        List<SongSummary> songs = new ArrayList<>(RANK_SIZE);
+        Set<Integer> songIds = new HashSet<>();
+        for (Song song : ranked) {
+            songs.add(toSummary(song));
+            songIds.add(song.getSongId());
+        }
+        for (SongSummary song : fallback) {
+            if (songs.size() >= RANK_SIZE) {
+                break;
+            }
+            if (songIds.add(song.getSongId())) {
+                songs.add(song);
+            }
+        }
+        return songs;
+    }
+
+    private SongSummary toSummary(Song song) {
+        return new SongSummary(song.getSongId(), song.getName(), song.getSinger(), song.getUrl(),
+                song.getImageUrl(), song.getPlayAmount(), song.getRate());
     }
 
 
 
-    @Transactional
     @Override
     public Boolean play(Integer songId) {
         try {
-            synchronized (("songPlay:" + songId).intern()) {
-                Song song = songRepository.findBySongId(songId);
-                if (song == null) {
-                    throw TuneIslandException.songNotFound();
-                }
-
-                if (song.getPlayAmount() == null) {
-                    song.setPlayAmount(0);
-                }
-                song.setPlayAmount(song.getPlayAmount() + 1);
-                songRepository.save(song);
+            if (!songRepository.existsById(songId)) {
+                throw TuneIslandException.songNotFound();
             }
+            // 播放量先计入内存计数器，由 PlayCountService 定时批量写回
+            playCountService.recordPlay(songId);
 
-            User currentUser = userFeign.getCurrentUser().getResult();
-            if (currentUser != null) {
-                updateUserHistory(currentUser, songId);
+            // 播放历史异步发送给 user-service，不阻塞播放请求
+            Integer userId = tokenUtil.getCurrentUserId();
+            if (userId != null) {
+                listeningHistoryService.publish(userId, songId);
             }
             return true;
         } catch (Exception e) {
@@ -206,18 +437,22 @@ public class SongServiceImpl implements SongService {
     }
 
     @Override
+    @Transactional
     public Boolean collectSong(Integer songId, Integer songlistId) {
         try {
             User user = userFeign.getCurrentUser().getResult();
             Songlist songlist = songlistRepository.findBySonglistId(songlistId);
+            if (songlist == null) {
+                throw TuneIslandException.songlistNotFound();
+            }
             if (!songlist.getOwnerId().equals(user.getUserId())) {
                 throw TuneIslandException.permissionDenied();
             }
-            if (songlist.getSongs().contains(songId)) {
+            // 只插入一行曲目，不读取、不重写歌单的其他曲目；歌单版本随之递增
+            songlistRepository.incrementVersion(songlistId);
+            if (songlistTrackRepository.append(songlistId, songId, SonglistTrack.POSITION_GAP) == 0) {
                 throw TuneIslandException.songAlreadyCollected();
             }
-            songlist.getSongs().add(songId);
-            songlistRepository.save(songlist);
             log.info("User {} collected song {} to songlist {}", user.getUserId(), songId, songlistId);
             return true;
         } catch (Exception e) {
@@ -227,15 +462,15 @@ public class SongServiceImpl implements SongService {
     }
 
     @Override
+    @Transactional
     public Boolean likeSong(Integer songId) {
         try {
             User user = userFeign.getCurrentUser().getResult();
-            Songlist likes = songlistService.getMylikeSonglist(user.getUserId());
-            if (likes.getSongs().contains(songId)) {
+            Integer likesId = songlistService.getMylikeSonglistId(user.getUserId());
+            songlistRepository.incrementVersion(likesId);
+            if (songlistTrackRepository.append(likesId, songId, SonglistTrack.POSITION_GAP) == 0) {
                 throw TuneIslandException.songAlreadyCollected();
             }
-            likes.getSongs().add(songId);
-            songlistRepository.save(likes);
             log.info("User {} liked song {}", user.getUserId(), songId);
             return true;
         } catch (Exception e) {
@@ -245,15 +480,15 @@ public class SongServiceImpl implements SongService {
     }
 
     @Override
+    @Transactional
     public Boolean cancelLikeSong(Integer songId) {
         try {
             User user = userFeign.getCurrentUser().getResult();
-            Songlist likes = songlistService.getMylikeSonglist(user.getUserId());
-            if (!likes.getSongs().contains(songId)) {
+            Integer likesId = songlistService.getMylikeSonglistId(user.getUserId());
+            songlistRepository.incrementVersion(likesId);
+            if (songlistTrackRepository.removeSongs(likesId, List.of(songId)) == 0) {
                 throw new TuneIslandException("你还没有喜欢这首歌");
             }
-            likes.getSongs().remove(songId);
-            songlistRepository.save(likes);
             log.info("User {} cancelled like for song {}", user.getUserId(), songId);
             return true;
         } catch (Exception e) {
@@ -265,34 +500,32 @@ public class SongServiceImpl implements SongService {
     @Override
     @Transactional
     public void trainRecommendationModel() {
-        List<User> users = userFeign.findAll().getResult();
+        List<User> users = userFeign.findAllProfiles().getResult();
         List<Song> songs = songRepository.findAll();
-        mlRecommenderUtil.trainModel(users, songs);
-        // 保存更新后的用户推荐列表
-        userFeign.saveAll(users);
+        // 每次训练前刷新曲库统计，生成推荐时统一使用这一份
+        catalogStatsService.refresh();
+        // 推荐结果按块写入本服务的 user_recommendation 表
+        mlRecommenderUtil.trainModel(users, songs, recommendationService::saveRecommendations);
+    }
+
+    @Override
+    public TrainingProgress getTrainingProgress() {
+        return mlRecommenderUtil.getProgress();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Song> getRecommendedSongs(Integer userId, Integer numRecommendations) {
-        User user = userFeign.getUserById(userId).getResult();
-
-        // 直接从用户的推荐列表中获取歌曲
-        List<Integer> recommendedIds = user.getRecommendedSongs();
+        // 直接从推荐结果表中获取歌曲
+        List<Integer> recommendedIds = recommendationService.getRecommendations(userId);
         if (recommendedIds == null || recommendedIds.isEmpty()) {
-            // 如果没有推荐列表，返回热门歌曲
-            return songRepository.findAllByOrderByPlayAmountDesc()
-                    .stream()
-                    .limit(numRecommendations)
-                    .collect(Collectors.toList());
+            // 如果没有推荐列表，只查询播放量最高的 numRecommendations 首
+            return songCatalogReader.findTopPlayed(numRecommendations);
         }
 
-        // 获取推荐的歌曲详情
-        return recommendedIds.stream()
-                .map(songRepository::findBySongId)
-                .filter(song -> song != null)
-                .limit(numRecommendations)
-                .collect(Collectors.toList());
+        // 一次 IN 查询取回推荐的歌曲详情，按推荐顺序返回
+        List<Song> songs = songCatalogReader.findAllInOrder(recommendedIds);
+        return songs.size() > numRecommendations ? songs.subList(0, numRecommendations) : songs;
     }
 
     @Override
@@ -304,28 +537,15 @@ public class SongServiceImpl implements SongService {
         return llmRecommendationEngine.recommendSongsForUser(user, allSongs, numRecommendations);
     }
 
-    private void updateSongRating(Song song, Double rate, Integer userId) {
+    // 评分关系的插入本身就是去重检查；总分和人数在数据库中原子累加，多个副本同时评分也不会互相覆盖
+    private void updateSongRating(Integer songId, Double rate, Integer userId) {
         if (rate < 0 || rate > 5) {
             throw TuneIslandException.invalidRate();
         }
-        synchronized (("songRate:" + song.getSongId()).intern()) {
-            Double totalRate = song.getRate() * song.getRateNum() + rate;
-            song.setRateNum(song.getRateNum() + 1);
-            song.setRate(totalRate / song.getRateNum());
-            song.getRateUserList().add(userId);
-            songRepository.save(song);
-        }
-
-    }
-
-    private void updateUserHistory(User user, Integer songId) {
-        if (user.getHistory() == null) {
-            user.setHistory(new ArrayList<>());
-        }
-        user.getHistory().add(0, songId);
-        if (user.getHistory().size() > 300) {
-            user.getHistory().remove(300);
+        if (membershipRepository.add(MembershipKind.SONG_RATER.name(), songId, userId) == 0) {
+            throw TuneIslandException.alreadyRated();
         }
-        userFeign.save(user);
+        songRepository.addRating(songId, rate);
+        songCatalogReader.invalidate(songId);
     }
 }
\ No newline at end of file
@@ -1,31 +1,50 @@
 package com.devops26.music.service.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.devops26.music.constants.DefaultImage;
+import com.devops26.music.entity.CursorPage;
 import com.devops26.music.entity.User;
+import com.devops26.music.enums.MembershipKind;
 import com.devops26.music.feign.UserFeign;
+import com.devops26.music.repository.MembershipRepository;
+import com.devops26.music.util.NdjsonWriter;
+import com.devops26.music.util.RetryPolicy;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import com.devops26.music.entity.Song;
 import com.devops26.music.entity.Songlist;
+import com.devops26.music.entity.SonglistTrack;
 import com.devops26.music.exception.TuneIslandException;
 import com.devops26.music.repository.SongRepository;
 import com.devops26.music.repository.SonglistRepository;
+import com.devops26.music.repository.SonglistTrackRepository;
 import com.devops26.music.service.SonglistService;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Slf4j
 public class SonglistServiceImpl implements SonglistService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
 
     @Autowired
     SonglistRepository songlistRepository;
@@ -33,6 +52,31 @@ public class SonglistServiceImpl implements SonglistService {
     @Autowired
     UserFeign userFeign;
 
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MembershipRepository membershipRepository;
+
+    @Autowired
+    RetryPolicy retryPolicy;
+
+    @Autowired
+    SonglistTrackRepository songlistTrackRepository;
+
+    @Value("${music.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${music.page.export-batch-size:500}")
+    private int exportBatchSize;
+
+    // 批量增删曲目时单次请求的歌曲数上限
+    @Value("${music.songlist.max-batch-size:500}")
+    private int maxTrackBatchSize;
+
     @Override
     public Integer createSonglist(Songlist songlist) {
         try {
@@ -43,6 +87,9 @@ public class SonglistServiceImpl implements SonglistService {
                 songlist.setImageUrl(DefaultImage.DEFAULT_SONGLIST_IMAGE);
             }
             Songlist saved = songlistRepository.save(songlist);
+            if (songlist.getSongs() != null) {
+                appendSongs(saved.getSonglistId(), songlist.getSongs());
+            }
             log.info("Successfully created songlist: {}", saved.getSonglistId());
             return saved.getSonglistId();
         } catch (Exception e) {
@@ -60,6 +107,8 @@ public class SonglistServiceImpl implements SonglistService {
                 throw TuneIslandException.permissionDenied();
             }
             songlistRepository.deleteBySonglistId(songlistId);
+            songlistTrackRepository.deleteAllBySonglistId(songlistId);
+            membershipRepository.deleteAllByEntity(MembershipKind.SONGLIST_RATER, songlistId);
             log.info("Successfully deleted songlist: {}", songlistId);
             return true;
         } catch (Exception e) {
@@ -71,12 +120,37 @@ public class SonglistServiceImpl implements SonglistService {
     @Override
     public Boolean updateSonglist(Songlist songlist) {
         try {
-            Songlist oldSonglist = songlistRepository.findBySonglistId(songlist.getSonglistId());
-            if (!Objects.equals(userFeign.getCurrentUser().getResult().getUserId(), oldSonglist.getOwnerId())) {
-                throw TuneIslandException.permissionDenied();
+            Integer userId = userFeign.getCurrentUser().getResult().getUserId();
+            Long clientVersion = songlist.getVersion();
+            // 提交的完整曲目列表会删掉不在其中的歌曲，必须带版本，过期的列表不能覆盖别人刚加的歌
+            if (songlist.getSongs() != null && clientVersion == null) {
+                throw TuneIslandException.versionRequired();
             }
-            songlistRepository.save(songlist);
-            log.info("Successfully updated songlist: {}", songlist.getSonglistId());
+            // 元数据和曲目在同一事务中修改，版本检查在行锁内进行，检查通过后到提交前别人改不了这个歌单
+            retryPolicy.execute("Update songlist " + songlist.getSonglistId(),
+                    () -> transactionTemplate.execute(status -> {
+                Songlist oldSonglist = songlistRepository.findForUpdateBySonglistId(songlist.getSonglistId());
+                if (oldSonglist == null) {
+                    throw TuneIslandException.songlistNotFound();
+                }
+                if (!Objects.equals(userId, oldSonglist.getOwnerId())) {
+                    throw TuneIslandException.permissionDenied();
+                }
+                // 客户端带了版本而期间已被修改则拒绝，不覆盖别人的修改；不带版本时以最后一次写入为准
+                if (clientVersion != null && !clientVersion.equals(oldSonglist.getVersion())) {
+                    throw TuneIslandException.concurrentModification();
+                }
+                // 收藏数只由收藏、取消收藏修改，不采用客户端传来的值
+                songlist.setCollects(oldSonglist.getCollects());
+                songlist.setVersion(oldSonglist.getVersion());
+                songlistRepository.save(songlist);
+                // 提交了曲目列表时按差异同步，未提交则曲目不变
+                if (songlist.getSongs() != null && syncTracks(songlist.getSonglistId(), songlist.getSongs())) {
+                    songlistRepository.incrementVersion(songlist.getSonglistId());
+                }
+                log.info("Successfully updated songlist: {}", songlist.getSonglistId());
+                return true;
+            }));
             return true;
         } catch (Exception e) {
             log.error("Failed to update songlist {}: {}", songlist.getSonglistId(), e.getMessage());
@@ -86,6 +160,19 @@ public class SonglistServiceImpl implements SonglistService {
 
     @Override
     public Songlist getMylikeSonglist(Integer userId) {
+        return withSongs(findMylikeSonglist(userId));
+    }
+
+    @Override
+    public Integer getMylikeSonglistId(Integer userId) {
+        Songlist songlist = findMylikeSonglist(userId);
+        if (songlist == null) {
+            throw TuneIslandException.songlistNotFound();
+        }
+        return songlist.getSonglistId();
+    }
+
+    private Songlist findMylikeSonglist(Integer userId) {
         User user = userFeign.getUserById(userId).getResult();
         String mylikeName = user.getName() + "喜欢的音乐";
         return songlistRepository.findByName(mylikeName);
@@ -93,17 +180,192 @@ public class SonglistServiceImpl implements SonglistService {
 
     @Override
     public List<Songlist> getAllByOwnerId(Integer ownerId) {
-        return songlistRepository.findAllByOwnerId(ownerId);
+        return withSongs(songlistRepository.findAllByOwnerId(ownerId));
     }
 
     @Override
     public Songlist getBySonglistId(Integer songlistId) {
-        return songlistRepository.findBySonglistId(songlistId);
+        return withSongs(songlistRepository.findBySonglistId(songlistId));
     }
 
     @Override
     public Songlist getByName(String name) {
-        return songlistRepository.findByName(name);
+        return withSongs(songlistRepository.findByName(name));
+    }
+
+    @Override
+    @Transactional
+    public Integer addSongs(Integer songlistId, List<Integer> songIds) {
+        try {
+            checkBatchSize(songIds);
+            requireOwnedSonglist(songlistId);
+            songlistRepository.incrementVersion(songlistId);
+            int added = appendSongs(songlistId, songIds);
+            log.info("Added {} songs to songlist {}", added, songlistId);
+            return added;
+        } catch (Exception e) {
+            log.error("Failed to add songs to songlist {}: {}", songlistId, e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional
+    public Integer removeSongs(Integer songlistId, List<Integer> songIds) {
+        try {
+            checkBatchSize(songIds);
+            requireOwnedSonglist(songlistId);
+            songlistRepository.incrementVersion(songlistId);
+            int removed = songIds.isEmpty() ? 0 : songlistTrackRepository.removeSongs(songlistId, songIds);
+            log.info("Removed {} songs from songlist {}", removed, songlistId);
+            return removed;
+        } catch (Exception e) {
+            log.error("Failed to remove songs from songlist {}: {}", songlistId, e.getMessage());
+            throw e;
+        }
+    }
+
+    // 把 songId 移到 afterSongId 之后，afterSongId 为空时移到最前
+    @Override
+    @Transactional
+    public Boolean moveSong(Integer songlistId, Integer songId, Integer afterSongId) {
+        try {
+            requireOwnedSonglist(songlistId);
+            SonglistTrack track = songlistTrackRepository.findBySonglistIdAndSongId(songlistId, songId);
+            if (track == null) {
+                throw TuneIslandException.songNotFound();
+            }
+            if (Objects.equals(songId, afterSongId)) {
+                return true;
+            }
+            songlistRepository.incrementVersion(songlistId);
+            Long position = positionAfter(songlistId, songId, afterSongId);
+            if (position == null) {
+                // 前后两首之间已没有空隙，整体重排后再取一次
+                renumberTracks(songlistId);
+                position = positionAfter(songlistId, songId, afterSongId);
+            }
+            track.setPosition(position);
+            songlistTrackRepository.save(track);
+            log.info("Moved song {} after {} in songlist {}", songId, afterSongId, songlistId);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to move song {} in songlist {}: {}", songId, songlistId, e.getMessage());
+            throw e;
+        }
+    }
+
+    private Songlist requireOwnedSonglist(Integer songlistId) {
+        Songlist songlist = songlistRepository.findBySonglistId(songlistId);
+        if (songlist == null) {
+            throw TuneIslandException.songlistNotFound();
+        }
+        if (!Objects.equals(userFeign.getCurrentUser().getResult().getUserId(), songlist.getOwnerId())) {
+            throw TuneIslandException.permissionDenied();
+        }
+        return songlist;
+    }
+
+    private void checkBatchSize(List<Integer> songIds) {
+        if (songIds == null) {
+            throw TuneIslandException.emptySongList();
+        }
+        if (songIds.size() > maxTrackBatchSize) {
+            throw TuneIslandException.tooManySongs(maxTrackBatchSize);
+        }
+    }
+
+    // 按给出的顺序逐首追加，已在歌单中的跳过，返回实际追加的数量
+    private int appendSongs(Integer songlistId, List<Integer> songIds) {
+        int added = 0;
+        for (Integer songId : new LinkedHashSet<>(songIds)) {
+            if (songId != null) {
+                added += songlistTrackRepository.append(songlistId, songId, SonglistTrack.POSITION_GAP);
+            }
+        }
+        return added;
+    }
+
+    // 取 afterSongId 与其后一首之间的中间位置；两者之间没有空隙时返回 null
+    private Long positionAfter(Integer songlistId, Integer songId, Integer afterSongId) {
+        Long previous = null;
+        if (afterSongId != null) {
+            SonglistTrack after = songlistTrackRepository.findBySonglistIdAndSongId(songlistId, afterSongId);
+            if (after == null) {
+                throw TuneIslandException.songNotFound();
+            }
+            previous = after.getPosition();
+        }
+        Long next = previous == null
+                ? songlistTrackRepository.findFirstPosition(songlistId, songId)
+                : songlistTrackRepository.findNextPosition(songlistId, previous, songId);
+        if (next == null) {
+            return previous == null ? SonglistTrack.POSITION_GAP : previous + SonglistTrack.POSITION_GAP;
+        }
+        if (previous == null) {
+            return next - SonglistTrack.POSITION_GAP;
+        }
+        return next - previous > 1 ? previous + (next - previous) / 2 : null;
+    }
+
+    // 按当前顺序重新分配等间隔的位置
+    private void renumberTracks(Integer songlistId) {
+        List<SonglistTrack> tracks = songlistTrackRepository.findAllBySonglistIdOrderByPositionAscTrackIdAsc(songlistId);
+        for (int i = 0; i < tracks.size(); i++) {
+            tracks.get(i).setPosition((i + 1) * SonglistTrack.POSITION_GAP);
+        }
+        songlistTrackRepository.saveAll(tracks);
+        log.info("Renumbered {} tracks in songlist {}", tracks.size(), songlistId);
+    }
+
+    // 按客户端提交的完整列表同步：删掉不在列表中的，新增的追加到末尾；
+    // 只有保留下来的歌曲顺序变了、或新歌插在中间时才整体重写。返回曲目是否有变化
+    private boolean syncTracks(Integer songlistId, List<Integer> songIds) {
+        List<Integer> target = new ArrayList<>(new LinkedHashSet<>(songIds));
+        target.remove(null);
+        Set<Integer> targetSet = new HashSet<>(target);
+        List<Integer> current = songlistTrackRepository.findSongIds(songlistId);
+        List<Integer> removed = new ArrayList<>();
+        List<Integer> kept = new ArrayList<>();
+        for (Integer songId : current) {
+            (targetSet.contains(songId) ? kept : removed).add(songId);
+        }
+        if (!removed.isEmpty()) {
+            songlistTrackRepository.removeSongs(songlistId, removed);
+        }
+        if (target.subList(0, kept.size()).equals(kept)) {
+            return appendSongs(songlistId, target.subList(kept.size(), target.size())) > 0 || !removed.isEmpty();
+        }
+        songlistTrackRepository.deleteAllBySonglistId(songlistId);
+        List<SonglistTrack> tracks = new ArrayList<>();
+        for (int i = 0; i < target.size(); i++) {
+            tracks.add(new SonglistTrack(songlistId, target.get(i), (i + 1) * SonglistTrack.POSITION_GAP));
+        }
+        songlistTrackRepository.saveAll(tracks);
+        return true;
+    }
+
+    private Songlist withSongs(Songlist songlist) {
+        if (songlist != null) {
+            songlist.setSongs(songlistTrackRepository.findSongIds(songlist.getSonglistId()));
+        }
+        return songlist;
+    }
+
+    // 曲目不随歌单实体加载，多个歌单的曲目合并成一条 IN 查询
+    private List<Songlist> withSongs(List<Songlist> songlists) {
+        if (songlists == null || songlists.isEmpty()) {
+            return songlists;
+        }
+        Map<Integer, List<Integer>> songs = new HashMap<>();
+        List<Integer> songlistIds = songlists.stream().map(Songlist::getSonglistId).collect(Collectors.toList());
+        for (Object[] row : songlistTrackRepository.findSongIdsBySonglistIds(songlistIds)) {
+            songs.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((Integer) row[1]);
+        }
+        for (Songlist songlist : songlists) {
+            songlist.setSongs(songs.getOrDefault(songlist.getSonglistId(), new ArrayList<>()));
+        }
+        return songlists;
     }
 
     @Override
@@ -116,13 +378,14 @@ public class SonglistServiceImpl implements SonglistService {
 
             user.getSonglistList().add(songlistId);
             userFeign.save(user);
-            synchronized (("songlistCollect:" + songlistId).intern()) {
+            // 与其他修改冲突时重新读取后重试
+            return retryPolicy.execute("Collect songlist " + songlistId, () -> {
                 Songlist songlist = songlistRepository.findBySonglistId(songlistId);
                 songlist.setCollects(songlist.getCollects() + 1);
                 songlistRepository.save(songlist);
                 log.info("User {} collected songlist {}", user.getUserId(), songlistId);
                 return songlist.getCollects();
-            }
+            });
         } catch (Exception e) {
             log.error("Error collecting songlist {}: {}", songlistId, e.getMessage());
             throw e;
@@ -130,6 +393,7 @@ public class SonglistServiceImpl implements SonglistService {
     }
 
     @Override
+    @Transactional
     public Double rate(Integer songlistId, Double rate) {
         try {
             if (rate < 0 || rate > 5) {
@@ -137,49 +401,77 @@ public class SonglistServiceImpl implements SonglistService {
             }
 
             User currentUser = userFeign.getCurrentUser().getResult();
-            Songlist songlist = songlistRepository.findBySonglistId(songlistId);
-
-            if (songlist == null) {
+            if (!songlistRepository.existsById(songlistId)) {
                 throw TuneIslandException.songlistNotFound();
             }
 
-            initRate(songlist);
-
-            if (songlist.getRateUserList().contains(currentUser.getUserId())) {
+            // 评分关系的插入本身就是去重检查，不加载歌单的评分用户列表
+            if (membershipRepository.add(MembershipKind.SONGLIST_RATER.name(), songlistId, currentUser.getUserId()) == 0) {
                 throw TuneIslandException.alreadyRated();
             }
 
-            synchronized (("songlistRate:" + songlistId).intern()) {
-                songlist = songlistRepository.findBySonglistId(songlistId);
-                Double totalRate = songlist.getRate() * songlist.getRateNum() + rate;
-                songlist.setRateNum(songlist.getRateNum() + 1);
-                songlist.setRate(totalRate / songlist.getRateNum());
-                songlist.getRateUserList().add(currentUser.getUserId());
-                Double newRate = songlistRepository.save(songlist).getRate();
-                log.info("User {} rated songlist {} with {}", currentUser.getUserId(), songlistId, rate);
-                return newRate;
-            }
+            // 总分和人数在数据库中原子累加，多个副本同时评分也不会互相覆盖
+            songlistRepository.addRating(songlistId, rate);
+            Double newRate = songlistRepository.findRateBySonglistId(songlistId);
+            log.info("User {} rated songlist {} with {}", currentUser.getUserId(), songlistId, rate);
+            return newRate;
         } catch (Exception e) {
             log.error("Error rating songlist {}: {}", songlistId, e.getMessage());
             throw e;
         }
     }
 
-    private void initRate(Songlist songlist) {
-        if (songlist.getRate() == null) {
-            songlist.setRate(0.0);
-        }
-        if (songlist.getRateNum() == null) {
-            songlist.setRateNum(0);
-        }
-        if (songlist.getRateUserList() == null) {
-            songlist.setRateUserList(new ArrayList<>());
-        }
+    @Override
+    public Boolean hasRated(Integer songlistId) {
+        User currentUser = userFeign.getCurrentUser().getResult();
+        return membershipRepository.existsByKindAndEntityIdAndUserId(MembershipKind.SONGLIST_RATER, songlistId,
+                currentUser.getUserId());
     }
 
     @Override
     public List<Songlist> getPublicSonglists() {
-        return songlistRepository.findAllByIsPublic(true);
+        return withSongs(songlistRepository.findAllByIsPublic(true));
+    }
+
+    @Override
+    public CursorPage<Songlist> getPublicSonglistsPage(String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, maxPageSize));
+        int afterId;
+        try {
+            afterId = cursor == null || cursor.isEmpty() ? 0 : Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw TuneIslandException.invalidCursor();
+        }
+        return transactionTemplate.execute(status -> loadPublicPage(afterId, pageSize));
+    }
+
+    // 每批在独立的只读事务中加载，写出时不依赖请求线程的 Session
+    @Override
+    public void exportPublicSonglists(OutputStream out) throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(objectMapper, out);
+        int afterId = 0;
+        CursorPage<Songlist> page;
+        do {
+            int from = afterId;
+            page = transactionTemplate.execute(status -> loadPublicPage(from, exportBatchSize));
+            for (Songlist songlist : page.getItems()) {
+                writer.write(songlist);
+            }
+            afterId = page.getNextCursor() == null ? afterId : Integer.parseInt(page.getNextCursor());
+        } while (page.getNextCursor() != null);
+        log.info("Exported {} public songlists", writer.finish());
+    }
+
+    // 多取一条判断是否还有下一页；曲目在同一事务内一次查出
+    private CursorPage<Songlist> loadPublicPage(int afterId, int pageSize) {
+        List<Songlist> songlists = songlistRepository.findByIsPublicTrueAndSonglistIdGreaterThanOrderBySonglistIdAsc(
+                afterId, PageRequest.of(0, pageSize + 1));
+        String nextCursor = null;
+        if (songlists.size() > pageSize) {
+            songlists = new ArrayList<>(songlists.subList(0, pageSize));
+            nextCursor = String.valueOf(songlists.get(pageSize - 1).getSonglistId());
+        }
+        return new CursorPage<>(withSongs(songlists), nextCursor);
     }
 
     @Override
@@ -189,13 +481,15 @@ public class SonglistServiceImpl implements SonglistService {
             if (!user.getSonglistList().contains(songlistId)) {
                 throw new TuneIslandException("你还没有收藏过这个歌单");
             }
-            Songlist songlist = songlistRepository.findBySonglistId(songlistId);
             user.getSonglistList().remove(songlistId);
             userFeign.save(user);
-            songlist.setCollects(songlist.getCollects() - 1);
-            songlistRepository.save(songlist);
-            log.info("User {} cancelled collection of songlist {}", user.getUserId(), songlistId);
-            return true;
+            return retryPolicy.execute("Cancel collection of songlist " + songlistId, () -> {
+                Songlist songlist = songlistRepository.findBySonglistId(songlistId);
+                songlist.setCollects(songlist.getCollects() - 1);
+                songlistRepository.save(songlist);
+                log.info("User {} cancelled collection of songlist {}", user.getUserId(), songlistId);
+                return true;
+            });
         } catch (Exception e) {
             log.error("Error cancelling collection of songlist {}: {}", songlistId, e.getMessage());
             throw e;
@@ -209,7 +503,7 @@ public class SonglistServiceImpl implements SonglistService {
         for (Songlist songlist : publicSonglists) {
             if (songlist.getRate() == null) songlist.setRate(0.0);
         }
-        return publicSonglists.stream()
+        List<Songlist> recommended = publicSonglists.stream()
                 .sorted((s1, s2) -> {
                     // 首先按评分排序（从高到低）
                     int rateCompare = s2.getRate().compareTo(s1.getRate());
@@ -221,6 +515,7 @@ public class SonglistServiceImpl implements SonglistService {
                 })
                 .limit(8)
                 .collect(Collectors.toList());
+        return withSongs(recommended);
     }
 
     public boolean createDefaultSonglist(User user) {
@@ -232,15 +527,15 @@ public class SonglistServiceImpl implements SonglistService {
         songlist.setIsPublic(false);
         songlist.setSongs(new ArrayList<>());
         songlist.setRate(0.0);
+        songlist.setRateSum(0.0);
         songlist.setRateNum(0);
-        songlist.setRateUserList(new ArrayList<>());
         createSonglist(songlist);
         log.info("Created default songlist for user: {}", user.getUserId());
         return true;
     }
 
     public boolean updateMyLikeSonglistName(User user) {
-        Songlist songlist = getMylikeSonglist(user.getUserId());
+        Songlist songlist = findMylikeSonglist(user.getUserId());
         songlist.setName(user.getName() + "喜欢的音乐");
         songlistRepository.save(songlist);
         return true;
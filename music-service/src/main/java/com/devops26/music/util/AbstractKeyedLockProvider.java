@@ -0,0 +1,70 @@
+package com.devops26.music.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.devops26.music.entity.LockStats;
+import com.devops26.music.exception.TuneIslandException;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 统一记录等锁、持锁耗时和超时次数，子类只负责加锁与释放
+@Slf4j
+public abstract class AbstractKeyedLockProvider implements KeyedLockProvider {
+    protected final long waitTimeoutNanos;
+
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram holdTimes = new LatencyHistogram();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    protected final LongAdder expiredLeases = new LongAdder();
+
+    protected AbstractKeyedLockProvider(long waitTimeoutMillis) {
+        this.waitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+    }
+
+    @Override
+    public <T> T withLock(String key, Supplier<T> action) {
+        long start = System.nanoTime();
+        Lease lease;
+        try {
+            lease = acquire(key, waitTimeoutNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lease = null;
+        }
+        long acquired = System.nanoTime();
+        waitTimes.record(acquired - start);
+        if (lease == null) {
+            timeouts.increment();
+            log.warn("Timed out waiting for lock {} after {} ms", key,
+                    TimeUnit.NANOSECONDS.toMillis(acquired - start));
+            throw TuneIslandException.lockTimeout();
+        }
+        acquisitions.increment();
+        try {
+            return action.get();
+        } finally {
+            lease.release();
+            holdTimes.record(System.nanoTime() - acquired);
+        }
+    }
+
+    @Override
+    public LockStats getStats() {
+        return new LockStats(name(), acquisitions.sum(), timeouts.sum(), expiredLeases.sum(),
+                LatencyHistogram.boundsMillis(), waitTimes.counts(), holdTimes.counts(),
+                waitTimes.percentileMillis(0.99), holdTimes.percentileMillis(0.99),
+                waitTimes.maxMillis(), holdTimes.maxMillis());
+    }
+
+    // 在 timeoutNanos 内拿到锁则返回租约，否则返回 null
+    protected abstract Lease acquire(String key, long timeoutNanos) throws InterruptedException;
+
+    protected abstract String name();
+
+    protected interface Lease {
+        void release();
+    }
+}
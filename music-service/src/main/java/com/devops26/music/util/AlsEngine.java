@@ -0,0 +1,207 @@
+package com.devops26.music.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 隐式反馈 ALS（Hu, Koren, Volinsky 2008）：评分视为偏好 p = 1，置信度 c = 1 + alpha * r。
+// 固定歌曲因子时每个用户的最优解是一个 k × k 正规方程的闭式解，反之亦然；
+// 各行之间互不依赖，因此按行切分后在线程池中并行求解，不需要任何同步。
+@Slf4j
+public class AlsEngine {
+    private final int threads;
+    private final int iterations;
+    private final double alpha;
+    private final double regularization;
+
+    public AlsEngine(int threads, int iterations, double alpha, double regularization) {
+        this.threads = Math.max(1, threads);
+        this.iterations = iterations;
+        this.alpha = alpha;
+        this.regularization = regularization;
+    }
+
+    public TrainingReport train(SparseRatingMatrix ratings, FactorModel model) {
+        long start = System.currentTimeMillis();
+        if (ratings.getNonZeroCount() == 0) {
+            return new TrainingReport("als", threads, 0, 0.0, 0);
+        }
+
+        int k = model.getNumFactors();
+        double[] userFactors = model.getUserFactors();
+        double[] songFactors = model.getSongFactors();
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        double rmse = 0.0;
+        try {
+            for (int iter = 0; iter < iterations; iter++) {
+                double[] songGram = gram(songFactors, model.getNumSongs(), k);
+                solveRows(pool, model.getNumUsers(), k, (row, solver) ->
+                        solver.solveUser(ratings, row, songFactors, songGram, userFactors));
+
+                double[] userGram = gram(userFactors, model.getNumUsers(), k);
+                solveRows(pool, model.getNumSongs(), k, (row, solver) ->
+                        solver.solveSong(ratings, row, userFactors, userGram, songFactors));
+
+                rmse = preferenceRmse(ratings, model);
+                log.info("ALS sweep {}: RMSE = {}", iter + 1, rmse);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        TrainingReport report = new TrainingReport("als", threads, iterations, rmse, System.currentTimeMillis() - start);
+        log.info("ALS finished {} sweeps on {} threads in {} ms ({} sweeps/s), RMSE = {}",
+                report.getEpochs(), threads, report.getMillis(),
+                String.format("%.2f", report.getEpochsPerSecond()), rmse);
+        return report;
+    }
+
+    private void solveRows(ForkJoinPool pool, int rows, int k, RowTask task) {
+        if (pool == null) {
+            RowSolver solver = new RowSolver(k);
+            for (int row = 0; row < rows; row++) {
+                task.solve(row, solver);
+            }
+            return;
+        }
+        int chunk = Math.max(1, (rows + threads * 4 - 1) / (threads * 4));
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int from = 0; from < rows; from += chunk) {
+            int lo = from;
+            int hi = Math.min(rows, from + chunk);
+            tasks.add(pool.submit(() -> {
+                // 每个任务使用自己的正规方程缓冲区
+                RowSolver solver = new RowSolver(k);
+                for (int row = lo; row < hi; row++) {
+                    task.solve(row, solver);
+                }
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+    }
+
+    // 计算 YᵀY，所有行共用，每轮只算一次
+    private double[] gram(double[] factors, int rows, int k) {
+        double[] gram = new double[k * k];
+        for (int r = 0; r < rows; r++) {
+            int base = r * k;
+            for (int i = 0; i < k; i++) {
+                double fi = factors[base + i];
+                for (int j = i; j < k; j++) {
+                    gram[i * k + j] += fi * factors[base + j];
+                }
+            }
+        }
+        for (int i = 0; i < k; i++) {
+            for (int j = 0; j < i; j++) {
+                gram[i * k + j] = gram[j * k + i];
+            }
+        }
+        return gram;
+    }
+
+    private double preferenceRmse(SparseRatingMatrix ratings, FactorModel model) {
+        double squaredError = 0.0;
+        int nnz = ratings.getNonZeroCount();
+        for (int e = 0; e < nnz; e++) {
+            double error = 1.0 - model.predict(ratings.rowIndex(e), ratings.columnIndex(e));
+            squaredError += error * error;
+        }
+        return Math.sqrt(squaredError / nnz);
+    }
+
+    @FunctionalInterface
+    private interface RowTask {
+        void solve(int row, RowSolver solver);
+    }
+
+    private class RowSolver {
+        private final int k;
+        private final double[] a;
+        private final double[] b;
+
+        RowSolver(int k) {
+            this.k = k;
+            this.a = new double[k * k];
+            this.b = new double[k];
+        }
+
+        void solveUser(SparseRatingMatrix ratings, int user, double[] songFactors, double[] songGram,
+                double[] userFactors) {
+            reset(songGram);
+            for (int e = ratings.rowStart(user); e < ratings.rowEnd(user); e++) {
+                accumulate(songFactors, ratings.columnIndex(e) * k, ratings.value(e));
+            }
+            solveInto(userFactors, user * k);
+        }
+
+        void solveSong(SparseRatingMatrix ratings, int song, double[] userFactors, double[] userGram,
+                double[] songFactors) {
+            reset(userGram);
+            for (int i = ratings.columnStart(song); i < ratings.columnEnd(song); i++) {
+                int e = ratings.columnEntry(i);
+                accumulate(userFactors, ratings.rowIndex(e) * k, ratings.value(e));
+            }
+            solveInto(songFactors, song * k);
+        }
+
+        private void reset(double[] gram) {
+            System.arraycopy(gram, 0, a, 0, a.length);
+            for (int i = 0; i < k; i++) {
+                a[i * k + i] += regularization;
+                b[i] = 0.0;
+            }
+        }
+
+        // A += (c - 1) y yᵀ，b += c y
+        private void accumulate(double[] factors, int base, float rating) {
+            double confidence = 1.0 + alpha * rating;
+            double weight = confidence - 1.0;
+            for (int i = 0; i < k; i++) {
+                double yi = factors[base + i];
+                b[i] += confidence * yi;
+                double wyi = weight * yi;
+                for (int j = 0; j < k; j++) {
+                    a[i * k + j] += wyi * factors[base + j];
+                }
+            }
+        }
+
+        // A 对称正定，Cholesky 分解后前代、回代求解
+        private void solveInto(double[] target, int base) {
+            for (int i = 0; i < k; i++) {
+                for (int j = 0; j <= i; j++) {
+                    double sum = a[i * k + j];
+                    for (int p = 0; p < j; p++) {
+                        sum -= a[i * k + p] * a[j * k + p];
+                    }
+                    if (i == j) {
+                        a[i * k + i] = Math.sqrt(Math.max(sum, 1e-12));
+                    } else {
+                        a[i * k + j] = sum / a[j * k + j];
+                    }
+                }
+            }
+            for (int i = 0; i < k; i++) {
+                double sum = b[i];
+                for (int p = 0; p < i; p++) {
+                    sum -= a[i * k + p] * b[p];
+                }
+                b[i] = sum / a[i * k + i];
+            }
+            for (int i = k - 1; i >= 0; i--) {
+                double sum = b[i];
+                for (int p = i + 1; p < k; p++) {
+                    sum -= a[p * k + i] * b[p];
+                }
+                b[i] = sum / a[i * k + i];
+            }
+            System.arraycopy(b, 0, target, base, k);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.devops26.music.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// 矩阵分解模型的隐因子，按行连续存放在一维 double[] 中：第 row 行位于 [row * numFactors, (row + 1) * numFactors)
+// userIds / songIds 记录每一行对应的用户、歌曲 id，模型脱离训练时的列表后（如从快照加载）仍能还原映射
+public class FactorModel {
+    private final int[] userIds;
+    private final int[] songIds;
+    // id → 行号，构建模型时生成一次，之后只读；不存在时返回 -1
+    private final IntIntMap userRows;
+    private final IntIntMap songRows;
+    private final int numUsers;
+    private final int numSongs;
+    private final int numTags;
+    private final int numFactors;
+    private final double[] userFactors;
+    private final double[] songFactors;
+    private final double[] tagFactors;
+
+    public FactorModel(int[] userIds, int[] songIds, int numTags, int numFactors,
+            double[] userFactors, double[] songFactors, double[] tagFactors) {
+        this.userIds = userIds;
+        this.songIds = songIds;
+        this.userRows = IntIntMap.indexOf(userIds);
+        this.songRows = IntIntMap.indexOf(songIds);
+        this.numUsers = userIds.length;
+        this.numSongs = songIds.length;
+        this.numTags = numTags;
+        this.numFactors = numFactors;
+        this.userFactors = userFactors;
+        this.songFactors = songFactors;
+        this.tagFactors = tagFactors;
+    }
+
+    public static FactorModel random(int[] userIds, int[] songIds, int numTags, int numFactors, Random random) {
+        return new FactorModel(userIds, songIds, numTags, numFactors,
+                randomFactors(userIds.length * numFactors, random),
+                randomFactors(songIds.length * numFactors, random),
+                randomFactors(numTags * numFactors, random));
+    }
+
+    private static double[] randomFactors(int length, Random random) {
+        double[] factors = new double[length];
+        for (int i = 0; i < length; i++) {
+            factors[i] = random.nextDouble() * 0.1;
+        }
+        return factors;
+    }
+
+    public double predict(int userRow, int songRow) {
+        if (userRow < 0 || userRow >= numUsers || songRow < 0 || songRow >= numSongs) {
+            return 0.0;
+        }
+        double prediction = 0.0;
+        int u = userRow * numFactors;
+        int s = songRow * numFactors;
+        for (int f = 0; f < numFactors; f++) {
+            prediction += userFactors[u + f] * songFactors[s + f];
+        }
+        return prediction;
+    }
+
+    // 用同一个用户向量给一批候选歌曲打分，out[i] 对应 songRows[i]；无效行记 0
+    public void predictBatch(int userRow, int[] songRows, float[] out) {
+        if (userRow < 0 || userRow >= numUsers) {
+            Arrays.fill(out, 0, songRows.length, 0f);
+            return;
+        }
+        int u = userRow * numFactors;
+        for (int i = 0; i < songRows.length; i++) {
+            int songRow = songRows[i];
+            if (songRow < 0 || songRow >= numSongs) {
+                out[i] = 0f;
+                continue;
+            }
+            int s = songRow * numFactors;
+            double prediction = 0.0;
+            for (int f = 0; f < numFactors; f++) {
+                prediction += userFactors[u + f] * songFactors[s + f];
+            }
+            out[i] = (float) prediction;
+        }
+    }
+
+    public int userRow(int userId) {
+        return userRows.get(userId);
+    }
+
+    public int songRow(int songId) {
+        return songRows.get(songId);
+    }
+
+    public int[] getUserIds() {
+        return userIds;
+    }
+
+    public int[] getSongIds() {
+        return songIds;
+    }
+
+    public int getNumUsers() {
+        return numUsers;
+    }
+
+    public int getNumSongs() {
+        return numSongs;
+    }
+
+    public int getNumTags() {
+        return numTags;
+    }
+
+    public int getNumFactors() {
+        return numFactors;
+    }
+
+    public double[] getUserFactors() {
+        return userFactors;
+    }
+
+    public double[] getSongFactors() {
+        return songFactors;
+    }
+
+    public double[] getTagFactors() {
+        return tagFactors;
+    }
+}
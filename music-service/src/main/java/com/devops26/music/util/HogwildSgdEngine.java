@@ -0,0 +1,143 @@
+package com.devops26.music.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Hogwild 式并行 SGD：每轮打乱非零元素后切分给多个线程，各线程不加锁地直接更新共享的因子数组。
+// 评分矩阵非常稀疏，不同线程同时修改同一行的概率很低，偶发的覆盖写对收敛影响可以忽略。
+// threads 为 1 时在调用线程中按固定种子顺序执行，结果可复现。
+@Slf4j
+public class HogwildSgdEngine {
+    private final int threads;
+    private final long seed;
+    private final double learningRate;
+    private final double regularization;
+    private final int maxEpochs;
+    private final int patience;
+
+    public HogwildSgdEngine(int threads, long seed, double learningRate, double regularization,
+            int maxEpochs, int patience) {
+        this.threads = Math.max(1, threads);
+        this.seed = seed;
+        this.learningRate = learningRate;
+        this.regularization = regularization;
+        this.maxEpochs = maxEpochs;
+        this.patience = patience;
+    }
+
+    public TrainingReport train(SparseRatingMatrix ratings, FactorModel model) {
+        long start = System.currentTimeMillis();
+        int nnz = ratings.getNonZeroCount();
+        if (nnz == 0) {
+            return new TrainingReport("sgd", threads, 0, 0.0, 0);
+        }
+
+        int[] order = new int[nnz];
+        for (int k = 0; k < nnz; k++) {
+            order[k] = k;
+        }
+        double[] userFactors = model.getUserFactors();
+        double[] songFactors = model.getSongFactors();
+        // 只在误差下降时把当前因子拷进预先分配好的数组，不再每次复制整个矩阵对象
+        double[] bestUserFactors = userFactors.clone();
+        double[] bestSongFactors = songFactors.clone();
+        double bestRmse = Double.MAX_VALUE;
+
+        Random random = new Random(seed);
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        int epoch = 0;
+        try {
+            int noImprovement = 0;
+            for (; epoch < maxEpochs && noImprovement < patience; epoch++) {
+                shuffle(order, random);
+                double squaredError = pool == null
+                        ? runPartition(ratings, model, order, 0, nnz)
+                        : runParallel(pool, ratings, model, order);
+                double rmse = Math.sqrt(squaredError / nnz);
+
+                if (rmse < bestRmse) {
+                    bestRmse = rmse;
+                    System.arraycopy(userFactors, 0, bestUserFactors, 0, userFactors.length);
+                    System.arraycopy(songFactors, 0, bestSongFactors, 0, songFactors.length);
+                    noImprovement = 0;
+                } else {
+                    noImprovement++;
+                }
+                if ((epoch + 1) % 10 == 0) {
+                    log.info("Iteration {}: RMSE = {}", epoch + 1, rmse);
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        System.arraycopy(bestUserFactors, 0, userFactors, 0, userFactors.length);
+        System.arraycopy(bestSongFactors, 0, songFactors, 0, songFactors.length);
+
+        TrainingReport report = new TrainingReport("sgd", threads, epoch, bestRmse, System.currentTimeMillis() - start);
+        log.info("SGD finished {} epochs on {} threads in {} ms ({} epochs/s), RMSE = {}",
+                report.getEpochs(), threads, report.getMillis(),
+                String.format("%.2f", report.getEpochsPerSecond()), bestRmse);
+        return report;
+    }
+
+    private double runParallel(ForkJoinPool pool, SparseRatingMatrix ratings, FactorModel model, int[] order) {
+        int nnz = order.length;
+        int chunk = (nnz + threads - 1) / threads;
+        List<ForkJoinTask<Double>> tasks = new ArrayList<>(threads);
+        for (int from = 0; from < nnz; from += chunk) {
+            int lo = from;
+            int hi = Math.min(nnz, from + chunk);
+            tasks.add(pool.submit(() -> runPartition(ratings, model, order, lo, hi)));
+        }
+        double squaredError = 0.0;
+        for (ForkJoinTask<Double> task : tasks) {
+            squaredError += task.join();
+        }
+        return squaredError;
+    }
+
+    private double runPartition(SparseRatingMatrix ratings, FactorModel model, int[] order, int from, int to) {
+        double[] userFactors = model.getUserFactors();
+        double[] songFactors = model.getSongFactors();
+        int numFactors = model.getNumFactors();
+        double squaredError = 0.0;
+
+        for (int i = from; i < to; i++) {
+            int k = order[i];
+            int u = ratings.rowIndex(k) * numFactors;
+            int s = ratings.columnIndex(k) * numFactors;
+
+            double prediction = 0.0;
+            for (int f = 0; f < numFactors; f++) {
+                prediction += userFactors[u + f] * songFactors[s + f];
+            }
+            double error = ratings.value(k) - prediction;
+            squaredError += error * error;
+
+            for (int f = 0; f < numFactors; f++) {
+                double userFactor = userFactors[u + f];
+                double songFactor = songFactors[s + f];
+                userFactors[u + f] = userFactor + learningRate * (error * songFactor - regularization * userFactor);
+                songFactors[s + f] = songFactor + learningRate * (error * userFactor - regularization * songFactor);
+            }
+        }
+        return squaredError;
+    }
+
+    private void shuffle(int[] order, Random random) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.devops26.music.util;
+
+import java.util.Arrays;
+
+// int → int 的开放寻址哈希表（线性探测），键值都存放在原始类型数组里，查询时没有装箱。
+// 用于 用户/歌曲 id → 因子矩阵行号 这类构建一次、之后只读的映射；不支持删除。
+public class IntIntMap {
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private final int missingValue;
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public IntIntMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        // 负载因子不超过 0.5，探测链很短
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    // keys[i] → i，即数组下标就是行号
+    public static IntIntMap indexOf(int[] keys) {
+        IntIntMap map = new IntIntMap(keys.length, -1);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        return map;
+    }
+
+    public int get(int key) {
+        if (key == FREE) {
+            return missingValue;
+        }
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == FREE) {
+                return missingValue;
+            }
+        }
+    }
+
+    public void put(int key, int value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int k = keys[slot];
+            if (k == key) {
+                values[slot] = value;
+                return;
+            }
+            if (k == FREE) {
+                keys[slot] = key;
+                values[slot] = value;
+                size++;
+                return;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    // 自增主键是连续整数，打散后再取低位，避免聚集
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,14 @@
+package com.devops26.music.util;
+
+import java.util.function.Supplier;
+
+import com.devops26.music.entity.LockStats;
+
+// 按键互斥执行：同一个键的操作串行，不同键之间尽量互不阻塞。
+// 实现不保证可重入，持锁期间不要再对同一个键加锁。
+public interface KeyedLockProvider {
+    // 等锁超时抛出 TuneIslandException，action 不会执行
+    <T> T withLock(String key, Supplier<T> action);
+
+    LockStats getStats();
+}
@@ -2,11 +2,12 @@ package com.devops26.music.util;
 
 import com.devops26.music.entity.Song;
 import com.devops26.music.entity.User;
+import com.devops26.music.enums.MembershipKind;
 import com.devops26.music.enums.SongTag;
-import com.devops26.music.repository.SongRepository;
-import com.devops26.music.repository.SonglistRepository;
+import com.devops26.music.repository.MembershipRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -30,10 +31,13 @@ public class LLMRecommendationEngine {
     private String llmApiKey;
     
     @Autowired
-    private SongRepository songRepository;
+    private MembershipRepository membershipRepository;
     
     @Autowired
-    private SonglistRepository songlistRepository;
+    private SongCatalogReader songCatalogReader;
+    
+    @Autowired
+    private LikedSongsLoader likedSongsLoader;
     
     @Autowired
     private RestTemplate restTemplate;
@@ -47,10 +51,7 @@ public class LLMRecommendationEngine {
             List<Integer> recommendedSongIds = callLLMAPI(prompt, numRecommendations);
             log.info("Parsed song IDs from LLM response: {}", recommendedSongIds);
             
-            List<Song> recommendedSongs = recommendedSongIds.stream()
-                .map(songRepository::findBySongId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+            List<Song> recommendedSongs = songCatalogReader.findAllInOrder(recommendedSongIds);
                 
             log.info("Final recommended songs count: {}", recommendedSongs.size());
             log.info("========== Recommendation Process End ============");
@@ -72,32 +73,24 @@ public class LLMRecommendationEngine {
         // 添加用户播放历史
         if (user.getHistory() != null && !user.getHistory().isEmpty()) {
             prompt.append("用户最近播放的歌曲：\n");
-            user.getHistory().stream()
-                .limit(10)
-                .map(songId -> songRepository.findBySongId(songId))
-                .filter(Objects::nonNull)
+            songCatalogReader.findAllInOrder(user.getHistory().stream().limit(10).collect(Collectors.toList()))
                 .forEach(song -> prompt.append("- ").append(song.getName())
                     .append("(").append(song.getSinger()).append(")\n"));
         }
         
         // 添加用户喜欢的歌曲
-        Set<Integer> likedSongs = getUserLikedSongs(user);
-        if (!likedSongs.isEmpty()) {
+        int[] likedSongs = likedSongsLoader.load(user);
+        if (likedSongs.length > 0) {
             prompt.append("\n用户喜欢的歌曲：\n");
-            likedSongs.stream()
-                .limit(10)
-                .map(songRepository::findBySongId)
-                .filter(Objects::nonNull)
+            songCatalogReader.findAllInOrder(Arrays.stream(likedSongs).limit(10).boxed().collect(Collectors.toList()))
                 .forEach(song -> prompt.append("- ").append(song.getName())
                     .append("(").append(song.getSinger()).append(")\n"));
         }
         
         // 添加用户评分信息
         prompt.append("\n用户评分过的歌曲：\n");
-        allSongs.stream()
-            .filter(song -> song.getRateUserList() != null && 
-                    song.getRateUserList().contains(user.getUserId()))
-            .limit(10)
+        songCatalogReader.findAllInOrder(membershipRepository.findEntityIds(MembershipKind.SONG_RATER,
+                user.getUserId(), PageRequest.of(0, 10)))
             .forEach(song -> prompt.append("- ").append(song.getName())
                 .append("(").append(song.getSinger()).append(") - 评分：")
                 .append(song.getRate()).append("\n"));
@@ -214,16 +207,6 @@ public class LLMRecommendationEngine {
         }
     }
     
-    private Set<Integer> getUserLikedSongs(User user) {
-        return Optional.ofNullable(user.getSonglistList())
-            .map(lists -> lists.stream()
-                .map(songlistRepository::findBySonglistId)
-                .filter(songlist -> songlist != null && songlist.getSongs() != null)
-                .flatMap(songlist -> songlist.getSongs().stream())
-                .collect(Collectors.toSet()))
-            .orElse(Set.of());
-    }
-    
     private String getTagsString(List<SongTag> tags) {
         if (tags == null || tags.isEmpty()) {
             return "无";
@@ -0,0 +1,63 @@
+package com.devops26.music.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// 无锁耗时直方图：桶上界按 1, 2, 4 … 32768 毫秒翻倍，另有一个溢出桶
+public class LatencyHistogram {
+    private static final int BOUNDED_BUCKETS = 16;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDED_BUCKETS + 1);
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    public void record(long nanos) {
+        long millis = Math.max(0, nanos) / 1_000_000;
+        // 第 i 个桶统计 [2^(i-1), 2^i) 毫秒，第 0 个桶统计不足 1 毫秒
+        int bucket = millis == 0 ? 0 : 64 - Long.numberOfLeadingZeros(millis);
+        counts.incrementAndGet(Math.min(bucket, BOUNDED_BUCKETS));
+        maxNanos.accumulate(nanos);
+    }
+
+    public static List<Long> boundsMillis() {
+        List<Long> bounds = new ArrayList<>();
+        for (int i = 0; i < BOUNDED_BUCKETS; i++) {
+            bounds.add(1L << i);
+        }
+        return bounds;
+    }
+
+    public List<Long> counts() {
+        List<Long> snapshot = new ArrayList<>();
+        for (int i = 0; i < counts.length(); i++) {
+            snapshot.add(counts.get(i));
+        }
+        return snapshot;
+    }
+
+    // 返回分位点所在桶的上界；落在溢出桶时返回最大值
+    public long percentileMillis(double quantile) {
+        List<Long> snapshot = counts();
+        long total = 0;
+        for (long count : snapshot) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BOUNDED_BUCKETS; i++) {
+            seen += snapshot.get(i);
+            if (seen >= target) {
+                return 1L << i;
+            }
+        }
+        return maxMillis();
+    }
+
+    public long maxMillis() {
+        return maxNanos.get() / 1_000_000;
+    }
+}
@@ -0,0 +1,36 @@
+package com.devops26.music.util;
+
+import java.util.Arrays;
+
+// 每个用户收藏歌单里的歌曲 id，按 id 升序去重后存成 int[]，判断是否喜欢用二分查找
+public class LikedSongs {
+    public static final int[] NONE = new int[0];
+
+    private final IntIntMap userSlots;
+    private final int[][] songsBySlot;
+
+    LikedSongs(IntIntMap userSlots, int[][] songsBySlot) {
+        this.userSlots = userSlots;
+        this.songsBySlot = songsBySlot;
+    }
+
+    public int[] get(Integer userId) {
+        if (userId == null) {
+            return NONE;
+        }
+        int slot = userSlots.get(userId);
+        return slot < 0 ? NONE : songsBySlot[slot];
+    }
+
+    public boolean contains(Integer userId, Integer songId) {
+        return contains(get(userId), songId);
+    }
+
+    public static boolean contains(int[] sortedSongIds, Integer songId) {
+        return songId != null && Arrays.binarySearch(sortedSongIds, songId) >= 0;
+    }
+
+    public int getUserCount() {
+        return userSlots.size();
+    }
+}
@@ -0,0 +1,114 @@
+package com.devops26.music.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.devops26.music.entity.User;
+import com.devops26.music.repository.SonglistTrackRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 批量加载用户收藏歌单中的歌曲：所有用户涉及的歌单合并后按批 join 查询，
+// 取代逐个 findBySonglistId 的 N+1 查询。一次训练只加载一次，预处理和推荐共用
+@Slf4j
+@Component
+public class LikedSongsLoader {
+    @Autowired
+    private SonglistTrackRepository songlistTrackRepository;
+
+    // IN 列表过长时分批查询
+    @Value("${ml.liked-songs.batch-size:1000}")
+    private int batchSize = 1000;
+
+    public LikedSongs load(List<User> users) {
+        long start = System.currentTimeMillis();
+        Set<Integer> songlistIds = new LinkedHashSet<>();
+        for (User user : users) {
+            if (user.getSonglistList() != null) {
+                songlistIds.addAll(user.getSonglistList());
+            }
+        }
+        Map<Integer, int[]> songsBySonglist = loadSonglistSongs(songlistIds);
+
+        IntIntMap userSlots = new IntIntMap(users.size(), -1);
+        int[][] songsBySlot = new int[users.size()][];
+        int slots = 0;
+        for (User user : users) {
+            if (user.getUserId() == null || userSlots.get(user.getUserId()) >= 0) {
+                continue;
+            }
+            userSlots.put(user.getUserId(), slots);
+            songsBySlot[slots++] = merge(user.getSonglistList(), songsBySonglist);
+        }
+
+        log.info("Loaded liked songs for {} users from {} songlists in {} ms",
+                slots, songlistIds.size(), System.currentTimeMillis() - start);
+        return new LikedSongs(userSlots, Arrays.copyOf(songsBySlot, slots));
+    }
+
+    public int[] load(User user) {
+        if (user.getSonglistList() == null || user.getSonglistList().isEmpty()) {
+            return LikedSongs.NONE;
+        }
+        return merge(user.getSonglistList(), loadSonglistSongs(new LinkedHashSet<>(user.getSonglistList())));
+    }
+
+    private Map<Integer, int[]> loadSonglistSongs(Set<Integer> songlistIds) {
+        Map<Integer, List<Integer>> songs = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(songlistIds);
+        ids.remove(null);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Integer> batch = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            for (Object[] row : songlistTrackRepository.findSongIdsBySonglistIds(batch)) {
+                if (row[1] != null) {
+                    songs.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((Integer) row[1]);
+                }
+            }
+        }
+
+        Map<Integer, int[]> result = new HashMap<>();
+        songs.forEach((songlistId, songIds) ->
+                result.put(songlistId, songIds.stream().mapToInt(Integer::intValue).toArray()));
+        return result;
+    }
+
+    // 合并用户所有收藏歌单的歌曲，排序去重
+    private int[] merge(List<Integer> songlistIds, Map<Integer, int[]> songsBySonglist) {
+        if (songlistIds == null || songlistIds.isEmpty()) {
+            return LikedSongs.NONE;
+        }
+        int total = 0;
+        for (Integer songlistId : songlistIds) {
+            int[] songs = songsBySonglist.get(songlistId);
+            total += songs == null ? 0 : songs.length;
+        }
+        if (total == 0) {
+            return LikedSongs.NONE;
+        }
+        int[] merged = new int[total];
+        int count = 0;
+        for (Integer songlistId : songlistIds) {
+            int[] songs = songsBySonglist.get(songlistId);
+            if (songs != null) {
+                System.arraycopy(songs, 0, merged, count, songs.length);
+                count += songs.length;
+            }
+        }
+        Arrays.sort(merged);
+        int unique = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (i == 0 || merged[i] != merged[i - 1]) {
+                merged[unique++] = merged[i];
+            }
+        }
+        return Arrays.copyOf(merged, unique);
+    }
+}
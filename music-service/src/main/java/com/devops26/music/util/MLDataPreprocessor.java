@@ -1,115 +1,113 @@
 package com.devops26.music.util;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 
 import com.devops26.music.entity.Song;
 import com.devops26.music.entity.User;
-import com.devops26.music.repository.SonglistRepository;
-import org.apache.commons.math3.linear.MatrixUtils;
-import org.apache.commons.math3.linear.RealMatrix;
+import com.devops26.music.enums.MembershipKind;
+import com.devops26.music.repository.MembershipRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Component
 public class MLDataPreprocessor {
     @Autowired
-    private SonglistRepository songlistRepository;
-    
-    public RealMatrix buildRatingMatrix(List<User> users, List<Song> songs) {
-        RealMatrix matrix = MatrixUtils.createRealMatrix(users.size(), songs.size());
-        Map<Integer, Integer> songIdToIndex = createSongIdToIndexMap(songs);
-        
+    private MembershipRepository membershipRepository;
+
+    public SparseRatingMatrix buildRatingMatrix(List<User> users, List<Song> songs, LikedSongs likedSongs) {
+        SparseRatingMatrix.Builder builder = SparseRatingMatrix.builder(users.size(), songs.size());
+        IntIntMap songIdToIndex = IntIntMap.indexOf(songs.stream().mapToInt(Song::getSongId).toArray());
+        Map<Integer, Set<Integer>> ratedSongs = loadRatedSongs();
+
+        // 逐个用户流式写入，不分配 用户数 × 歌曲数 的稠密矩阵
         for (int userIndex = 0; userIndex < users.size(); userIndex++) {
-            processUserIfHasHistory(matrix, new UserRatingContext(
-                userIndex, users.get(userIndex), songs, songIdToIndex));
+            User user = users.get(userIndex);
+            if (user.getHistory() != null) {
+                processUserRatings(builder, userIndex, user, songs, songIdToIndex, likedSongs.get(user.getUserId()),
+                        ratedSongs.getOrDefault(user.getUserId(), Collections.emptySet()));
+            }
         }
-        
+
+        SparseRatingMatrix matrix = builder.build();
+        log.info("Built rating matrix {} x {} with {} interactions",
+                matrix.getRowDimension(), matrix.getColumnDimension(), matrix.getNonZeroCount());
         return matrix;
     }
-    
-    private Map<Integer, Integer> createSongIdToIndexMap(List<Song> songs) {
-        Map<Integer, Integer> songIdToIndex = new HashMap<>();
-        for (int i = 0; i < songs.size(); i++) {
-            songIdToIndex.put(songs.get(i).getSongId(), i);
+
+    private void processUserRatings(SparseRatingMatrix.Builder builder, int userIndex, User user,
+            List<Song> songs, IntIntMap songIdToIndex, int[] userLikedSongs, Set<Integer> userRatedSongs) {
+        int[] songIndexes = toSortedSongIndexes(user.getHistory(), songIdToIndex);
+        int maxPlays = getMaxPlayCount(songIndexes);
+
+        // 排序后相同歌曲相邻，游程长度即播放次数
+        int start = 0;
+        while (start < songIndexes.length) {
+            int end = start;
+            while (end < songIndexes.length && songIndexes[end] == songIndexes[start]) {
+                end++;
+            }
+            Song song = songs.get(songIndexes[start]);
+            double rating = calculateRating(song, end - start, maxPlays, userLikedSongs, userRatedSongs);
+            builder.add(userIndex, songIndexes[start], (float) rating);
+            start = end;
         }
-        return songIdToIndex;
     }
-    
-    private void processUserIfHasHistory(RealMatrix matrix, UserRatingContext context) {
-        if (context.getUser().getHistory() != null) {
-            processUserRatings(matrix, context);
+
+    private int[] toSortedSongIndexes(List<Integer> history, IntIntMap songIdToIndex) {
+        int[] songIndexes = new int[history.size()];
+        int count = 0;
+        for (Integer songId : history) {
+            int songIndex = songId == null ? -1 : songIdToIndex.get(songId);
+            if (songIndex >= 0) {
+                songIndexes[count++] = songIndex;
+            }
         }
+        songIndexes = Arrays.copyOf(songIndexes, count);
+        Arrays.sort(songIndexes);
+        return songIndexes;
     }
-    
-    public void processUserRatings(RealMatrix matrix, UserRatingContext context) {
-        Map<Integer, Integer> playCounts = calculatePlayCounts(context.getUser());
-        int maxPlays = getMaxPlayCount(playCounts);
-        
-        playCounts.forEach((songId, playCount) -> 
-            Optional.ofNullable(context.getSongIdToIndex().get(songId))
-                .ifPresent(songIndex -> 
-                    setMatrixEntry(matrix, context, songIndex, playCount, maxPlays)));
-    }
-    
-    private void setMatrixEntry(RealMatrix matrix, UserRatingContext context, 
-            int songIndex, int playCount, int maxPlays) {
-        Song song = context.getSongs().get(songIndex);
-        double rating = calculateRating(context.getUser(), song, playCount, maxPlays);
-        matrix.setEntry(context.getUserIndex(), songIndex, rating);
-    }
-    
-    public Map<Integer, Integer> calculatePlayCounts(User user) {
-        Map<Integer, Integer> songPlayCounts = new HashMap<>();
-        if (user.getHistory() != null) {
-            user.getHistory().forEach(songId -> 
-                songPlayCounts.merge(songId, 1, Integer::sum));
+
+    private int getMaxPlayCount(int[] sortedSongIndexes) {
+        int max = 1;
+        int run = 0;
+        for (int i = 0; i < sortedSongIndexes.length; i++) {
+            run = i > 0 && sortedSongIndexes[i] == sortedSongIndexes[i - 1] ? run + 1 : 1;
+            max = Math.max(max, run);
         }
-        return songPlayCounts;
+        return max;
     }
-    
-    private int getMaxPlayCount(Map<Integer, Integer> songPlayCounts) {
-        return songPlayCounts.values().stream()
-                .mapToInt(Integer::intValue)
-                .max()
-                .orElse(1);
-    }
-    
-    private double calculateRating(User user, Song song, int playCount, int maxPlays) {
+
+    private double calculateRating(Song song, int playCount, int maxPlays, int[] userLikedSongs,
+            Set<Integer> userRatedSongs) {
         double baseScore = (double) playCount / maxPlays;
-        double likeBonus = isUserLikedSong(user, song.getSongId()) ? 0.3 : 0;
-        double rateBonus = calculateRateBonus(user, song);
-        
+        double likeBonus = LikedSongs.contains(userLikedSongs, song.getSongId()) ? 0.3 : 0;
+        double rateBonus = calculateRateBonus(song, userRatedSongs);
+
         return Math.min(baseScore + likeBonus + rateBonus, 1.0);
     }
-    
-    private boolean isUserLikedSong(User user, Integer songId) {
-        return Optional.ofNullable(user.getSonglistList())
-            .map(lists -> lists.stream()
-                .map(songlistRepository::findBySonglistId)
-                .filter(songlist -> songlist != null && songlist.getSongs() != null)
-                .anyMatch(songlist -> songlist.getSongs().contains(songId)))
-            .orElse(false);
-    }
-    
-    private double calculateRateBonus(User user, Song song) {
-        return Optional.ofNullable(song.getRateUserList())
-            .filter(list -> list.contains(user.getUserId()))
-            .map(list -> (song.getRate() / 5.0) * 0.2)
-            .orElse(0.0);
+
+    private double calculateRateBonus(Song song, Set<Integer> userRatedSongs) {
+        if (song.getRate() == null || !userRatedSongs.contains(song.getSongId())) {
+            return 0.0;
+        }
+        return (song.getRate() / 5.0) * 0.2;
     }
-    
-    @Value
-    public static class UserRatingContext {
-        int userIndex;
-        User user;
-        List<Song> songs;
-        Map<Integer, Integer> songIdToIndex;
+
+    // 评分关系一次查出，按用户分组，不再逐首加载歌曲的评分用户列表
+    private Map<Integer, Set<Integer>> loadRatedSongs() {
+        Map<Integer, Set<Integer>> ratedSongs = new HashMap<>();
+        for (Object[] row : membershipRepository.findAllPairs(MembershipKind.SONG_RATER)) {
+            ratedSongs.computeIfAbsent((Integer) row[0], id -> new HashSet<>()).add((Integer) row[1]);
+        }
+        return ratedSongs;
     }
-} 
\ No newline at end of file
+}
@@ -1,23 +1,21 @@
 package com.devops26.music.util;
 
-import java.util.Collections;
-import java.util.Date;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import com.devops26.music.entity.Song;
 import com.devops26.music.entity.User;
 import com.devops26.music.enums.SongTag;
-import org.apache.commons.math3.linear.MatrixUtils;
-import org.apache.commons.math3.linear.RealMatrix;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -28,151 +26,136 @@ public class MLModelTrainer {
     private static final double REGULARIZATION = 0.015;
     private static final int MAX_ITERATIONS = 1000;
     private static final int PATIENCE = 10;
-    
-    private RealMatrix userFactors;
-    private RealMatrix songFactors;
-    private RealMatrix tagFactors;
-    
-    public void trainModel(RealMatrix ratingMatrix, List<User> users, List<Song> songs) {
-        initializeFactorMatrices(users.size(), songs.size(), SongTag.values().length);
-        trainWithSGD(ratingMatrix);
-    }
-    
-    private void initializeFactorMatrices(int numUsers, int numSongs, int numTags) {
-        Random random = new Random(new Date().getTime());
-        userFactors = initializeMatrix(numUsers, LATENT_FACTORS, random);
-        songFactors = initializeMatrix(numSongs, LATENT_FACTORS, random);
-        tagFactors = initializeMatrix(numTags, LATENT_FACTORS, random);
-    }
-    
-    private void trainWithSGD(RealMatrix ratingMatrix) {
-        ModelState bestState = new ModelState(Double.MAX_VALUE);
-        int noImprovement = 0;
-        
-        for (int iter = 0; iter < MAX_ITERATIONS && noImprovement < PATIENCE; iter++) {
-            TrainingResult result = performOneIteration(ratingMatrix);
-            
-            if (result.rmse < bestState.rmse) {
-                bestState.update(result.rmse, userFactors, songFactors, tagFactors);
-                noImprovement = 0;
-            } else {
-                noImprovement++;
-            }
-            
-            logProgress(iter, result.rmse);
+
+    // sgd 或 als；als 适合播放次数这类隐式反馈，通常 10 到 20 轮即收敛
+    @Value("${ml.trainer:sgd}")
+    private String trainer;
+
+    // 0 表示使用全部 CPU 核心
+    @Value("${ml.sgd.threads:0}")
+    private int threads;
+
+    // 0 表示按当前时间取随机种子；threads 为 1 且指定种子时训练结果可复现
+    @Value("${ml.sgd.seed:0}")
+    private long seed;
+
+    @Value("${ml.als.threads:0}")
+    private int alsThreads;
+
+    @Value("${ml.als.iterations:15}")
+    private int alsIterations;
+
+    // 置信度 c = 1 + alpha * r
+    @Value("${ml.als.alpha:40}")
+    private double alsAlpha;
+
+    @Value("${ml.als.regularization:0.1}")
+    private double alsRegularization;
+
+    // 多个副本挂载同一路径即可共享训练结果；留空则不落盘
+    @Value("${ml.snapshot.path:}")
+    private String snapshotPath;
+
+    // 模型、版本和训练指标放在同一个不可变对象里，整体替换，预测线程读取时无需加锁
+    private volatile ModelSnapshot snapshot;
+
+    // 配置写错时启动失败，而不是悄悄按 sgd 训练
+    @PostConstruct
+    public void checkTrainer() {
+        if (!"sgd".equalsIgnoreCase(trainer) && !"als".equalsIgnoreCase(trainer)) {
+            throw new IllegalStateException("Unknown ml.trainer '" + trainer + "', expected sgd or als");
         }
-        
-        restoreBestState(bestState);
     }
-    
-    private TrainingResult performOneIteration(RealMatrix ratingMatrix) {
-        List<int[]> trainingPairs = getTrainingPairs(ratingMatrix);
-        Collections.shuffle(trainingPairs);
-        
-        double totalError = 0.0;
-        int numRatings = trainingPairs.size();
-        
-        for (int[] pair : trainingPairs) {
-            double error = updateFactorsForPair(pair, ratingMatrix);
-            totalError += error * error;
+
+    public void trainModel(SparseRatingMatrix ratingMatrix, List<User> users, List<Song> songs) {
+        long trainingSeed = seed != 0 ? seed : System.nanoTime();
+        Random random = new Random(trainingSeed);
+        int[] userIds = users.stream().mapToInt(User::getUserId).toArray();
+        int[] songIds = songs.stream().mapToInt(Song::getSongId).toArray();
+        FactorModel newModel = FactorModel.random(userIds, songIds, SongTag.values().length,
+                LATENT_FACTORS, random);
+
+        TrainingReport report;
+        if ("als".equalsIgnoreCase(trainer)) {
+            AlsEngine engine = new AlsEngine(resolveThreads(alsThreads), alsIterations, alsAlpha, alsRegularization);
+            report = engine.train(ratingMatrix, newModel);
+        } else {
+            HogwildSgdEngine engine = new HogwildSgdEngine(resolveThreads(threads), random.nextLong(),
+                    LEARNING_RATE, REGULARIZATION, MAX_ITERATIONS, PATIENCE);
+            report = engine.train(ratingMatrix, newModel);
         }
-        
-        return new TrainingResult(Math.sqrt(totalError / numRatings));
-    }
-    
-    private double updateFactorsForPair(int[] pair, RealMatrix ratingMatrix) {
-        double actualRating = ratingMatrix.getEntry(pair[0], pair[1]);
-        double predictedRating = predict(pair[0], pair[1]);
-        double error = actualRating - predictedRating;
-        
-        updateFactors(pair[0], pair[1], error);
-        return error;
+
+        ModelSnapshot trained = new ModelSnapshot(System.currentTimeMillis(), newModel, report);
+        install(trained);
+        saveSnapshot(trained);
     }
-    
-    public double predict(int userId, int songId) {
+
+    private void saveSnapshot(ModelSnapshot trained) {
+        if (snapshotPath.isBlank()) {
+            return;
+        }
         try {
-            double prediction = 0.0;
-            for (int f = 0; f < LATENT_FACTORS; f++) {
-                prediction += userFactors.getEntry(userId, f) * songFactors.getEntry(songId, f);
-            }
-            return prediction;
-        } catch (Exception e) {
-            return 0.0;
+            trained.write(Paths.get(snapshotPath));
+            log.info("Saved model snapshot version {} to {}", trained.getVersion(), snapshotPath);
+        } catch (IOException e) {
+            log.error("Failed to save model snapshot to {}: {}", snapshotPath, e.getMessage());
         }
     }
-    
-    private void updateFactors(int userId, int songId, double error) {
-        for (int f = 0; f < LATENT_FACTORS; f++) {
-            double userFactor = userFactors.getEntry(userId, f);
-            double songFactor = songFactors.getEntry(songId, f);
-            
-            userFactors.setEntry(userId, f, userFactor + LEARNING_RATE * 
-                (error * songFactor - REGULARIZATION * userFactor));
-            songFactors.setEntry(songId, f, songFactor + LEARNING_RATE * 
-                (error * userFactor - REGULARIZATION * songFactor));
+
+    // 启动后在调度线程里加载已有快照，之后定期检查文件头中的版本号，有更新的版本就整体切换
+    @Scheduled(initialDelayString = "${ml.snapshot.initial-delay-ms:0}",
+            fixedDelayString = "${ml.snapshot.poll-interval-ms:60000}")
+    public void refreshSnapshot() {
+        if (snapshotPath.isBlank()) {
+            return;
         }
-    }
-    
-    private List<int[]> getTrainingPairs(RealMatrix ratingMatrix) {
-        return IntStream.range(0, ratingMatrix.getRowDimension())
-            .boxed()
-            .flatMap(u -> IntStream.range(0, ratingMatrix.getColumnDimension())
-                .filter(s -> ratingMatrix.getEntry(u, s) > 0)
-                .mapToObj(s -> new int[]{u, s}))
-            .collect(Collectors.toList());
-    }
-    
-    private RealMatrix initializeMatrix(int rows, int cols, Random random) {
-        RealMatrix matrix = MatrixUtils.createRealMatrix(rows, cols);
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                matrix.setEntry(i, j, random.nextDouble() * 0.1);
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            ModelSnapshot current = snapshot;
+            if (current != null && ModelSnapshot.readVersion(path) <= current.getVersion()) {
+                return;
+            }
+            ModelSnapshot loaded = ModelSnapshot.read(path);
+            if (install(loaded)) {
+                log.info("Loaded model snapshot version {} ({} users, {} songs) from {}", loaded.getVersion(),
+                        loaded.getModel().getNumUsers(), loaded.getModel().getNumSongs(), snapshotPath);
             }
+        } catch (IOException e) {
+            log.error("Failed to load model snapshot from {}: {}", snapshotPath, e.getMessage());
         }
-        return matrix;
     }
-    
-    private void logProgress(int iteration, double rmse) {
-        if ((iteration + 1) % 10 == 0) {
-            log.info("Iteration {}: RMSE = {}", iteration + 1, rmse);
+
+    // 只接受更新的版本，避免加载到的旧快照覆盖刚训练好的模型
+    private synchronized boolean install(ModelSnapshot candidate) {
+        ModelSnapshot current = snapshot;
+        if (current != null && candidate.getVersion() <= current.getVersion()) {
+            return false;
         }
+        snapshot = candidate;
+        return true;
     }
-    
-    private void restoreBestState(ModelState bestState) {
-        if (bestState.hasValidState()) {
-            userFactors = bestState.userFactors;
-            songFactors = bestState.songFactors;
-            tagFactors = bestState.tagFactors;
-        }
+
+    private int resolveThreads(int configured) {
+        return configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
     }
-    
-    @Data
-    @AllArgsConstructor
-    private static class ModelState {
-        private double rmse;
-        private RealMatrix userFactors;
-        private RealMatrix songFactors;
-        private RealMatrix tagFactors;
-        
-        public ModelState(double rmse) {
-            this.rmse = rmse;
-        }
-        
-        public void update(double rmse, RealMatrix userFactors, 
-                RealMatrix songFactors, RealMatrix tagFactors) {
-            this.rmse = rmse;
-            this.userFactors = userFactors.copy();
-            this.songFactors = songFactors.copy();
-            this.tagFactors = tagFactors.copy();
-        }
-        
-        public boolean hasValidState() {
-            return userFactors != null && songFactors != null && tagFactors != null;
-        }
+
+    // 参数是用户、歌曲 id，先换算成因子矩阵的行号；模型中没有的用户或歌曲记 0
+    public double predict(int userId, int songId) {
+        FactorModel model = getModel();
+        return model == null ? 0.0 : model.predict(model.userRow(userId), model.songRow(songId));
+    }
+
+    // 需要连续调用时先取出当前模型，避免中途切换到新快照
+    public FactorModel getModel() {
+        ModelSnapshot current = snapshot;
+        return current == null ? null : current.getModel();
     }
-    
-    @Value
-    private static class TrainingResult {
-        double rmse;
+
+    public TrainingReport getLastReport() {
+        ModelSnapshot current = snapshot;
+        return current == null ? null : current.getReport();
     }
-} 
\ No newline at end of file
+}
@@ -1,17 +1,16 @@
 package com.devops26.music.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
+import com.devops26.music.entity.CatalogStats;
 import com.devops26.music.entity.Song;
 import com.devops26.music.entity.User;
 import com.devops26.music.enums.SongTag;
-import com.devops26.music.repository.SongRepository;
-import com.devops26.music.repository.SonglistRepository;
+import com.devops26.music.service.CatalogStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -29,16 +28,18 @@ public class MLRecommendationEngine {
     private static final double POPULARITY_WEIGHT = 0.10;
     private static final double RATING_WEIGHT = 0.01;
     
-    @Autowired
-    private SongRepository songRepository;
-    @Autowired
-    private SonglistRepository songlistRepository;
     @Autowired
     private MLModelTrainer modelTrainer;
+    @Autowired
+    private CatalogStatsService catalogStatsService;
+
+    // 每个线程复用自己的打分缓冲区，并行生成推荐时不必为每个用户重新分配
+    private final ThreadLocal<ScoringScratch> scratch = ThreadLocal.withInitial(ScoringScratch::new);
     
-    public List<Song> recommendSongsForUser(User user, List<Song> allSongs, int numRecommendations) {
+    public List<Song> recommendSongsForUser(User user, List<Song> allSongs, int numRecommendations,
+            int[] likedSongs) {
         try {
-            RecommendationContext context = createRecommendationContext(user, allSongs);
+            RecommendationContext context = createRecommendationContext(user, allSongs, likedSongs);
             return generateRecommendations(context, numRecommendations);
         } catch (Exception e) {
             log.error("Error generating recommendations for user {}: {}", 
@@ -47,71 +48,82 @@ public class MLRecommendationEngine {
         }
     }
     
-    private RecommendationContext createRecommendationContext(User user, List<Song> allSongs) {
+    // 释放当前线程的打分缓冲区（其中引用了曲库列表和模型）
+    public void releaseBuffers() {
+        scratch.remove();
+    }
+
+    private RecommendationContext createRecommendationContext(User user, List<Song> allSongs, int[] likedSongs) {
+        ScoringScratch buffers = scratch.get();
+        buffers.prepare(allSongs, modelTrainer.getModel());
         return new RecommendationContext(
             user,
             allSongs,
-            calculateUserTagPreferences(user),
-            getUserLikedSongs(user)
+            calculateMLScores(user, buffers),
+            catalogStatsService.getStats(),
+            calculateUserTagPreferences(user, allSongs, buffers.songIndex),
+            likedSongs
         );
     }
-    
-    private List<Song> generateRecommendations(RecommendationContext context, int numRecommendations) {
-        Map<Song, Double> songScores = calculateSongScores(context);
-        return selectTopSongs(songScores, numRecommendations);
+
+    // 一次性算出所有候选歌曲的模型分，mlScores[i] 对应 allSongs.get(i)
+    private float[] calculateMLScores(User user, ScoringScratch buffers) {
+        FactorModel model = buffers.model;
+        if (model == null || user.getUserId() == null) {
+            Arrays.fill(buffers.mlScores, 0f);
+        } else {
+            model.predictBatch(model.userRow(user.getUserId()), buffers.songRows, buffers.mlScores);
+        }
+        return buffers.mlScores;
     }
     
-    private Map<Song, Double> calculateSongScores(RecommendationContext context) {
-        return context.getAllSongs().stream()
-            .collect(Collectors.toMap(
-                song -> song,
-                song -> calculateComprehensiveScore(context, song)
-            ));
+    // 逐首打分后直接放进大小为 numRecommendations 的堆，不为整个曲库建 Map 再排序
+    private List<Song> generateRecommendations(RecommendationContext context, int numRecommendations) {
+        List<Song> allSongs = context.getAllSongs();
+        float[] mlScores = context.getMlScores();
+        TopKSelector selector = scratch.get().selector(numRecommendations);
+        for (int i = 0; i < allSongs.size(); i++) {
+            selector.offer(i, (float) calculateComprehensiveScore(context, allSongs.get(i), mlScores[i]));
+        }
+        return toSongs(allSongs, selector);
     }
-    
-    private List<Song> selectTopSongs(Map<Song, Double> songScores, int numRecommendations) {
-        return songScores.entrySet().stream()
-            .sorted(Map.Entry.<Song, Double>comparingByValue().reversed())
-            .limit(numRecommendations)
-            .map(Map.Entry::getKey)
-            .collect(Collectors.toList());
+
+    private List<Song> toSongs(List<Song> allSongs, TopKSelector selector) {
+        int[] indexes = selector.drainDescending();
+        List<Song> songs = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            songs.add(allSongs.get(index));
+        }
+        return songs;
     }
     
-    private double calculateComprehensiveScore(RecommendationContext context, Song song) {
-        return ML_WEIGHT * getMLScore(context.getUser(), song) +
+    private double calculateComprehensiveScore(RecommendationContext context, Song song, float mlScore) {
+        return ML_WEIGHT * mlScore +
                TAG_WEIGHT * calculateTagMatchingScore(song, context.getTagPreferences()) +
                LIKE_WEIGHT * getLikeScore(song, context.getLikedSongs()) +
-               POPULARITY_WEIGHT * calculatePopularityScore(song) +
+               POPULARITY_WEIGHT * calculatePopularityScore(song, context.getCatalogStats()) +
                RATING_WEIGHT * calculateRatingScore(song);
     }
     
-    private double getMLScore(User user, Song song) {
-        try {
-            return modelTrainer.predict(user.getUserId(), song.getSongId());
-        } catch (Exception e) {
-            return 0.0;
-        }
-    }
-    
-    private double getLikeScore(Song song, Set<Integer> likedSongs) {
-        return likedSongs.contains(song.getSongId()) ? 1.0 : 0.0;
+    private double getLikeScore(Song song, int[] likedSongs) {
+        return LikedSongs.contains(likedSongs, song.getSongId()) ? 1.0 : 0.0;
     }
     
-    private Map<SongTag, Double> calculateUserTagPreferences(User user) {
+    // 历史中的歌曲直接从本次打分的曲库里取，不再逐首查询数据库
+    private Map<SongTag, Double> calculateUserTagPreferences(User user, List<Song> allSongs, IntIntMap songIndex) {
         Map<SongTag, Integer> tagCounts = new HashMap<>();
-        int[] totalSongs = {0}; // 使用数组来在lambda中修改
-        
-        Optional.ofNullable(user.getHistory())
-            .ifPresent(history -> history.forEach(songId -> 
-                Optional.ofNullable(songRepository.findBySongId(songId))
-                    .filter(song -> song.getTags() != null)
-                    .ifPresent(song -> {
-                        song.getTags().forEach(tag -> 
-                            tagCounts.merge(tag, 1, Integer::sum));
-                        totalSongs[0]++;
-                    })));
-        
-        return calculateTagPreferences(tagCounts, totalSongs[0]);
+        int totalSongs = 0;
+        if (user.getHistory() != null) {
+            for (Integer songId : user.getHistory()) {
+                int index = songId == null ? -1 : songIndex.get(songId);
+                if (index < 0 || allSongs.get(index).getTags() == null) {
+                    continue;
+                }
+                allSongs.get(index).getTags().forEach(tag -> tagCounts.merge(tag, 1, Integer::sum));
+                totalSongs++;
+            }
+        }
+        return calculateTagPreferences(tagCounts, totalSongs);
     }
     
     private Map<SongTag, Double> calculateTagPreferences(Map<SongTag, Integer> tagCounts, int totalSongs) {
@@ -130,54 +142,87 @@ public class MLRecommendationEngine {
             return 0.0;
         }
         
-        return song.getTags().stream()
-            .mapToDouble(tag -> tagPreferences.getOrDefault(tag, 0.0))
-            .average()
-            .orElse(0.0);
-    }
-    
-    private Set<Integer> getUserLikedSongs(User user) {
-        return Optional.ofNullable(user.getSonglistList())
-            .map(lists -> lists.stream()
-                .map(songlistRepository::findBySonglistId)
-                .filter(songlist -> songlist != null && songlist.getSongs() != null)
-                .flatMap(songlist -> songlist.getSongs().stream())
-                .collect(Collectors.toSet()))
-            .orElse(Set.of());
+        double sum = 0.0;
+        for (SongTag tag : song.getTags()) {
+            sum += tagPreferences.getOrDefault(tag, 0.0);
+        }
+        return sum / song.getTags().size();
     }
     
-    private double calculatePopularityScore(Song song) {
-        return Optional.ofNullable(song.getPlayAmount())
-            .map(amount -> {
-                int maxPlayAmount = songRepository.findAllByOrderByPlayAmountDesc()
-                    .stream()
-                    .findFirst()
-                    .map(Song::getPlayAmount)
-                    .orElse(1);
-                return (double) amount / maxPlayAmount;
-            })
-            .orElse(0.0);
+    // 最大播放量取自曲库统计快照，整个打分过程只读一次
+    private double calculatePopularityScore(Song song, CatalogStats catalogStats) {
+        if (song.getPlayAmount() == null) {
+            return 0.0;
+        }
+        return (double) song.getPlayAmount() / Math.max(1, catalogStats.getMaxPlayAmount());
     }
     
     private double calculateRatingScore(Song song) {
-        return Optional.of(song)
-            .filter(s -> s.getRate() != null && s.getRateNum() != null && s.getRateNum() > 0)
-            .map(s -> (s.getRate() / 5.0) * Math.min(1.0, s.getRateNum() / 10.0))
-            .orElse(0.0);
+        Double rate = song.getRate();
+        Integer rateNum = song.getRateNum();
+        if (rate == null || rateNum == null || rateNum <= 0) {
+            return 0.0;
+        }
+        return (rate / 5.0) * Math.min(1.0, rateNum / 10.0);
     }
     
     private List<Song> getPopularSongs(List<Song> allSongs, int numRecommendations) {
-        return allSongs.stream()
-            .sorted((s1, s2) -> s2.getPlayAmount().compareTo(s1.getPlayAmount()))
-            .limit(numRecommendations)
-            .collect(Collectors.toList());
+        TopKSelector selector = new TopKSelector(numRecommendations);
+        for (int i = 0; i < allSongs.size(); i++) {
+            Integer playAmount = allSongs.get(i).getPlayAmount();
+            selector.offer(i, playAmount == null ? 0f : playAmount);
+        }
+        return toSongs(allSongs, selector);
     }
     
+    private static class ScoringScratch {
+        private List<Song> songs;
+        private FactorModel model;
+        private IntIntMap songIndex;
+        private int[] songRows = new int[0];
+        private float[] mlScores = new float[0];
+        private TopKSelector selector;
+        private int selectorSize = -1;
+
+        // 同一批歌曲、同一个模型下 歌曲 → 下标/行号 的映射对所有用户都一样，只在切换时重新计算
+        void prepare(List<Song> allSongs, FactorModel currentModel) {
+            if (allSongs == songs && currentModel == model && songRows.length == allSongs.size()) {
+                return;
+            }
+            songIndex = new IntIntMap(allSongs.size(), -1);
+            for (int i = 0; i < allSongs.size(); i++) {
+                Integer songId = allSongs.get(i).getSongId();
+                if (songId != null) {
+                    songIndex.put(songId, i);
+                }
+            }
+            songRows = new int[allSongs.size()];
+            mlScores = new float[allSongs.size()];
+            for (int i = 0; i < songRows.length; i++) {
+                Integer songId = allSongs.get(i).getSongId();
+                songRows[i] = currentModel == null || songId == null ? -1 : currentModel.songRow(songId);
+            }
+            songs = allSongs;
+            model = currentModel;
+        }
+
+        TopKSelector selector(int k) {
+            if (selector == null || selectorSize != k) {
+                selector = new TopKSelector(k);
+                selectorSize = k;
+            }
+            selector.clear();
+            return selector;
+        }
+    }
+
     @Value
     private static class RecommendationContext {
         User user;
         List<Song> allSongs;
+        float[] mlScores;
+        CatalogStats catalogStats;
         Map<SongTag, Double> tagPreferences;
-        Set<Integer> likedSongs;
+        int[] likedSongs;
     }
 } 
\ No newline at end of file
@@ -1,12 +1,22 @@
 package com.devops26.music.util;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import com.devops26.music.entity.Song;
+import com.devops26.music.entity.TrainingProgress;
 import com.devops26.music.entity.User;
-import org.apache.commons.math3.linear.RealMatrix;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
@@ -22,34 +32,139 @@ public class MLRecommenderUtil {
     private MLDataPreprocessor dataPreprocessor;
     @Autowired
     private MLRecommendationEngine recommendationEngine;
+    @Autowired
+    private LikedSongsLoader likedSongsLoader;
+
+    // 生成推荐的并发线程数，0 表示使用全部 CPU 核心
+    @Value("${ml.recommend.threads:0}")
+    private int threads;
+
+    // 每生成这么多用户的推荐就写出一次
+    @Value("${ml.recommend.chunk-size:500}")
+    private int chunkSize = 500;
+
+    private final AtomicInteger processedUsers = new AtomicInteger();
+    private final AtomicInteger failedUsers = new AtomicInteger();
+    private final AtomicInteger writtenChunks = new AtomicInteger();
+    private final AtomicInteger failedChunks = new AtomicInteger();
+    private volatile boolean running;
+    private volatile int totalUsers;
+    private volatile Date startTime;
+    private volatile Date finishTime;
     
-    public void trainModel(List<User> users, List<Song> songs) {
+    public void trainModel(List<User> users, List<Song> songs, Consumer<List<User>> chunkWriter) {
         if (users.isEmpty() || songs.isEmpty()) {
             return;
         }
         
         try {
-            RealMatrix ratingMatrix = dataPreprocessor.buildRatingMatrix(users, songs);
+            // 收藏歌曲一次性批量加载，构建评分矩阵和生成推荐共用
+            LikedSongs likedSongs = likedSongsLoader.load(users);
+            SparseRatingMatrix ratingMatrix = dataPreprocessor.buildRatingMatrix(users, songs, likedSongs);
             modelTrainer.trainModel(ratingMatrix, users, songs);
-            
-            for (User user : users) {
-                try {
-                    List<Song> recommendations = recommendationEngine
-                        .recommendSongsForUser(user, songs, DEFAULT_RECOMMENDATIONS);
-                    user.setRecommendedSongs(
-                        recommendations.stream()
-                            .map(Song::getSongId)
-                            .collect(Collectors.toList())
-                    );
-                } catch (Exception e) {
-                    log.error("Error generating recommendations for user {}: {}", 
-                            user.getUserId(), e.getMessage());
-                    user.setRecommendedSongs(null);
-                }
-            }
+            generateRecommendations(users, songs, likedSongs, chunkWriter);
         } catch (Exception e) {
             log.error("Error during model training: {}", e.getMessage());
             throw e;
         }
     }
-} 
\ No newline at end of file
+
+    // 按块分发到有界线程池，每块生成完立即写出；队列满时由调用线程自己执行，内存占用有上限
+    private void generateRecommendations(List<User> users, List<Song> songs, LikedSongs likedSongs,
+            Consumer<List<User>> chunkWriter) {
+        // 标签是懒加载集合，必须在持有 Session 的调用线程里先初始化，工作线程只做只读访问
+        for (Song song : songs) {
+            if (song.getTags() != null) {
+                song.getTags().size();
+            }
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        startProgress(users.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < users.size(); from += chunkSize) {
+                List<User> chunk = users.subList(from, Math.min(users.size(), from + chunkSize));
+                futures.add(executor.submit(() -> processChunk(chunk, songs, likedSongs, chunkWriter)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Recommendation generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Recommendation generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            recommendationEngine.releaseBuffers();
+            finishProgress();
+        }
+    }
+
+    private void processChunk(List<User> chunk, List<Song> songs, LikedSongs likedSongs,
+            Consumer<List<User>> chunkWriter) {
+        for (User user : chunk) {
+            try {
+                List<Song> recommendations = recommendationEngine
+                    .recommendSongsForUser(user, songs, DEFAULT_RECOMMENDATIONS,
+                            likedSongs.get(user.getUserId()));
+                user.setRecommendedSongs(
+                    recommendations.stream()
+                        .map(Song::getSongId)
+                        .collect(Collectors.toList())
+                );
+            } catch (Exception e) {
+                log.error("Error generating recommendations for user {}: {}", 
+                        user.getUserId(), e.getMessage());
+                user.setRecommendedSongs(null);
+                failedUsers.incrementAndGet();
+            }
+            processedUsers.incrementAndGet();
+        }
+
+        try {
+            chunkWriter.accept(chunk);
+            writtenChunks.incrementAndGet();
+        } catch (Exception e) {
+            // 单块写入失败不影响其他块
+            failedChunks.incrementAndGet();
+            log.error("Failed to write recommendations for {} users: {}", chunk.size(), e.getMessage());
+        }
+    }
+
+    private void startProgress(int users) {
+        processedUsers.set(0);
+        failedUsers.set(0);
+        writtenChunks.set(0);
+        failedChunks.set(0);
+        totalUsers = users;
+        startTime = new Date();
+        finishTime = null;
+        running = true;
+    }
+
+    private void finishProgress() {
+        finishTime = new Date();
+        running = false;
+        TrainingProgress progress = getProgress();
+        log.info("Generated recommendations for {} users ({} failed) at {} users/s, {} chunks written, {} failed",
+                progress.getProcessedUsers(), progress.getFailedUsers(),
+                String.format("%.1f", progress.getUsersPerSecond()),
+                progress.getWrittenChunks(), progress.getFailedChunks());
+    }
+
+    public TrainingProgress getProgress() {
+        Date start = startTime;
+        Date finish = finishTime;
+        int processed = processedUsers.get();
+        double usersPerSecond = 0.0;
+        if (start != null) {
+            long millis = (finish != null ? finish.getTime() : System.currentTimeMillis()) - start.getTime();
+            usersPerSecond = millis > 0 ? processed * 1000.0 / millis : processed;
+        }
+        return new TrainingProgress(running, totalUsers, processed, failedUsers.get(),
+                writtenChunks.get(), failedChunks.get(), usersPerSecond, start, finish);
+    }
+}
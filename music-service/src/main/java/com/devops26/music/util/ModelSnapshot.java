@@ -0,0 +1,146 @@
+package com.devops26.music.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import lombok.Value;
+
+// 训练好的模型连同版本号和训练指标一起落盘，重启或其他副本可以直接加载，不必等下一次训练。
+// 文件格式（大端序）：
+//   头部  magic, 格式版本, 模型版本, 用户数, 歌曲数, 标签数, 隐因子数, 训练指标, 算法名
+//   映射  userIds[用户数], songIds[歌曲数]（行号 → id）
+//   因子  userFactors, songFactors, tagFactors（double，按 8 字节对齐）
+@Value
+public class ModelSnapshot {
+    private static final int MAGIC = 0x544D4653;
+    private static final int FORMAT_VERSION = 1;
+
+    long version;
+    FactorModel model;
+    TrainingReport report;
+
+    // 先写同目录下的临时文件，再原子替换，读取方不会看到写了一半的快照
+    public void write(Path path) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            byte[] algorithm = report.getAlgorithm().getBytes(StandardCharsets.UTF_8);
+            long factorsOffset = align(idsOffset(algorithm.length)
+                    + 4L * (model.getNumUsers() + model.getNumSongs()));
+            long size = factorsOffset + 8L * (model.getUserFactors().length
+                    + model.getSongFactors().length + model.getTagFactors().length);
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Model snapshot too large: " + size + " bytes");
+            }
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(version)
+                        .putInt(model.getNumUsers()).putInt(model.getNumSongs())
+                        .putInt(model.getNumTags()).putInt(model.getNumFactors())
+                        .putInt(report.getThreads()).putInt(report.getEpochs())
+                        .putDouble(report.getRmse()).putLong(report.getMillis())
+                        .putShort((short) algorithm.length).put(algorithm);
+                buffer.position((int) idsOffset(algorithm.length));
+                buffer.asIntBuffer().put(model.getUserIds()).put(model.getSongIds());
+                buffer.position((int) factorsOffset);
+                buffer.asDoubleBuffer().put(model.getUserFactors()).put(model.getSongFactors())
+                        .put(model.getTagFactors());
+                buffer.force();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // 只读头部的模型版本，用于判断是否需要加载
+    public static long readVersion(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // 读满头部
+            }
+            header.flip();
+            checkHeader(header, path);
+            return header.getLong();
+        }
+    }
+
+    // 映射整个文件后批量拷贝到堆上的数组，预测时不再访问文件
+    public static ModelSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < idsOffset(0)) {
+                throw new IOException("Truncated model snapshot: " + path);
+            }
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Model snapshot too large: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            checkHeader(buffer, path);
+            long version = buffer.getLong();
+            int numUsers = buffer.getInt();
+            int numSongs = buffer.getInt();
+            int numTags = buffer.getInt();
+            int numFactors = buffer.getInt();
+            int threads = buffer.getInt();
+            int epochs = buffer.getInt();
+            double rmse = buffer.getDouble();
+            long millis = buffer.getLong();
+            byte[] algorithm = new byte[buffer.getShort()];
+            buffer.get(algorithm);
+
+            long factorsOffset = align(idsOffset(algorithm.length) + 4L * (numUsers + numSongs));
+            long expectedSize = factorsOffset + 8L * numFactors * ((long) numUsers + numSongs + numTags);
+            if (fileSize != expectedSize) {
+                throw new IOException("Model snapshot " + path + " has " + fileSize
+                        + " bytes, expected " + expectedSize);
+            }
+
+            int[] userIds = new int[numUsers];
+            int[] songIds = new int[numSongs];
+            buffer.position((int) idsOffset(algorithm.length));
+            buffer.asIntBuffer().get(userIds).get(songIds);
+
+            double[] userFactors = new double[numUsers * numFactors];
+            double[] songFactors = new double[numSongs * numFactors];
+            double[] tagFactors = new double[numTags * numFactors];
+            buffer.position((int) factorsOffset);
+            buffer.asDoubleBuffer().get(userFactors).get(songFactors).get(tagFactors);
+
+            FactorModel model = new FactorModel(userIds, songIds, numTags, numFactors,
+                    userFactors, songFactors, tagFactors);
+            TrainingReport report = new TrainingReport(new String(algorithm, StandardCharsets.UTF_8),
+                    threads, epochs, rmse, millis);
+            return new ModelSnapshot(version, model, report);
+        }
+    }
+
+    private static void checkHeader(ByteBuffer buffer, Path path) throws IOException {
+        if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a model snapshot: " + path);
+        }
+        int format = buffer.getInt();
+        if (format != FORMAT_VERSION) {
+            throw new IOException("Unsupported model snapshot format " + format + ": " + path);
+        }
+    }
+
+    // 定长头部 58 字节 + 算法名
+    private static long idsOffset(int algorithmLength) {
+        return 58L + algorithmLength;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
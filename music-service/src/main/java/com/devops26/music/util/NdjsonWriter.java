@@ -0,0 +1,35 @@
+package com.devops26.music.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// 逐行写出 JSON（NDJSON），每 FLUSH_INTERVAL 行刷新一次，客户端可以边收边解析，服务端不必攒下整个结果
+public class NdjsonWriter {
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private static final int FLUSH_INTERVAL = 100;
+
+    private final ObjectMapper objectMapper;
+    private final OutputStream out;
+    private long count;
+
+    public NdjsonWriter(ObjectMapper objectMapper, OutputStream out) {
+        this.objectMapper = objectMapper;
+        this.out = out;
+    }
+
+    public void write(Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+        if (++count % FLUSH_INTERVAL == 0) {
+            out.flush();
+        }
+    }
+
+    public long finish() throws IOException {
+        out.flush();
+        return count;
+    }
+}
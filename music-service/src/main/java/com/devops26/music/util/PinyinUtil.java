@@ -0,0 +1,51 @@
+package com.devops26.music.util;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+
+// 汉字转拼音：多音字取第一个读音，不带声调；字母数字保留并转小写，其余字符忽略
+public final class PinyinUtil {
+
+    private PinyinUtil() {
+    }
+
+    // "七里香" → "qilixiang"
+    public static String full(String text) {
+        return convert(text, false);
+    }
+
+    // "七里香" → "qlx"
+    public static String initials(String text) {
+        return convert(text, true);
+    }
+
+    private static String convert(String text, boolean initialsOnly) {
+        StringBuilder result = new StringBuilder();
+        if (text == null) {
+            return "";
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 128) {
+                if (Character.isLetterOrDigit(c)) {
+                    result.append(Character.toLowerCase(c));
+                }
+                continue;
+            }
+            String[] pinyin = PinyinHelper.toHanyuPinyinStringArray(c);
+            if (pinyin == null || pinyin.length == 0) {
+                continue;
+            }
+            // 读音形如 "qi1"、"lu:4"，只取字母部分
+            for (int j = 0; j < pinyin[0].length(); j++) {
+                char p = pinyin[0].charAt(j);
+                if (p >= 'a' && p <= 'z') {
+                    result.append(p);
+                    if (initialsOnly) {
+                        break;
+                    }
+                }
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.devops26.music.util;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 多副本使用：SET NX PX 加锁，值为本次加锁的随机令牌，释放时只删除自己的令牌。
+// 锁带租约，持锁的副本宕机后最多 lease 毫秒自动释放。
+// 同一副本内先经过本地分段锁，只有各线程中抢到本地锁的那个去轮询 Redis。
+@Slf4j
+public class RedisKeyedLockProvider extends AbstractKeyedLockProvider {
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final long MIN_BACKOFF_MILLIS = 5;
+    private static final long MAX_BACKOFF_MILLIS = 100;
+
+    private final StringRedisTemplate redisTemplate;
+    private final StripedKeyedLockProvider local;
+    private final String keyPrefix;
+    private final Duration lease;
+
+    public RedisKeyedLockProvider(StringRedisTemplate redisTemplate, StripedKeyedLockProvider local,
+            String keyPrefix, long leaseMillis, long waitTimeoutMillis) {
+        super(waitTimeoutMillis);
+        this.redisTemplate = redisTemplate;
+        this.local = local;
+        this.keyPrefix = keyPrefix;
+        this.lease = Duration.ofMillis(leaseMillis);
+    }
+
+    @Override
+    protected Lease acquire(String key, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        Lease localLease = local.acquire(key, timeoutNanos);
+        if (localLease == null) {
+            return null;
+        }
+        String redisKey = keyPrefix + ":" + key;
+        String token = UUID.randomUUID().toString();
+        try {
+            long backoff = MIN_BACKOFF_MILLIS;
+            while (true) {
+                if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(redisKey, token, lease))) {
+                    return () -> release(redisKey, token, localLease);
+                }
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    localLease.release();
+                    return null;
+                }
+                Thread.sleep(Math.min(backoff, remaining));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            localLease.release();
+            throw e;
+        }
+    }
+
+    @Override
+    protected String name() {
+        return "redis";
+    }
+
+    private void release(String redisKey, String token, Lease localLease) {
+        try {
+            Long deleted = redisTemplate.execute(RELEASE_SCRIPT, List.of(redisKey), token);
+            if (deleted == null || deleted == 0) {
+                // 持锁时间超过了租约，期间其他副本可能已经进入临界区
+                expiredLeases.increment();
+                log.warn("Lock {} lease expired before release", redisKey);
+            }
+        } catch (Exception e) {
+            log.error("Failed to release lock {}: {}", redisKey, e.getMessage());
+        } finally {
+            localLease.release();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.devops26.music.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+
+import com.devops26.music.exception.TuneIslandException;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 乐观锁冲突和数据库瞬时故障的重试：指数退避加全抖动，第 n 次重试前等待 [0, min(max, initial × 2^n)) 毫秒，
+// 并发冲突的请求错开重试，单个请求最多只阻塞几百毫秒。
+// action 每次都要重新读取数据；不要在外层事务里调用，回滚过的事务不能重试。
+@Slf4j
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public RetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    // 重试用尽时，乐观锁冲突转换为 TuneIslandException，其他异常原样抛出
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (TransientDataAccessException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("{} failed after {} attempts: {}", operation, attempt, e.getMessage());
+                    if (e instanceof OptimisticLockingFailureException) {
+                        throw TuneIslandException.concurrentModification();
+                    }
+                    throw e;
+                }
+                long backoff = backoffMillis(attempt);
+                log.warn("{} failed on attempt {}, retrying in {} ms: {}", operation, attempt, backoff,
+                        e.getMessage());
+                sleep(backoff);
+            }
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw TuneIslandException.interrupted();
+        }
+    }
+}
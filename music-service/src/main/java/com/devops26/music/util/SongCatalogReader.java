@@ -0,0 +1,170 @@
+package com.devops26.music.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.devops26.music.entity.CatalogCacheStats;
+import com.devops26.music.entity.Song;
+import com.devops26.music.repository.SongRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 本地曲库缓存（按歌曲 id，读穿透）：未命中时查库并放入缓存，多个 id 的未命中合并成一条 IN 查询。
+// 歌曲只在管理员上传/修改时变化，写操作通过 Redis 频道广播失效消息，所有副本各自清除本地条目；
+// 过期时间兜底播放量、评分等非管理员写入带来的陈旧数据。
+@Slf4j
+@Component
+public class SongCatalogReader implements MessageListener {
+    private final Cache<Integer, Song> nearCache;
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${music.catalog.invalidation-channel:music:catalog:invalidate}")
+    private String invalidationChannel;
+
+    public SongCatalogReader(@Value("${music.catalog.near-cache.max-size:10000}") long maxSize,
+            @Value("${music.catalog.near-cache.expire-after-write-ms:60000}") long expireAfterWriteMs) {
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public Song findById(Integer songId) {
+        if (songId == null) {
+            return null;
+        }
+        // 不存在的歌曲不会被缓存，返回 null
+        return nearCache.get(songId, id -> initialize(songRepository.findBySongId(id)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Song> findAllInOrder(List<Integer> songIds) {
+        if (songIds == null || songIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> keys = new ArrayList<>(songIds.size());
+        for (Integer songId : songIds) {
+            if (songId != null) {
+                keys.add(songId);
+            }
+        }
+        Map<Integer, Song> found = nearCache.getAll(keys, this::loadAll);
+
+        // 已删除的歌曲直接跳过
+        List<Song> songs = new ArrayList<>(songIds.size());
+        for (Integer songId : songIds) {
+            Song song = songId == null ? null : found.get(songId);
+            if (song != null) {
+                songs.add(song);
+            }
+        }
+        return songs;
+    }
+
+    // 只查询播放量最高的 limit 首，不加载整个曲库
+    @Transactional(readOnly = true)
+    public List<Song> findTopPlayed(int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Song> songs = songRepository.findAllByOrderByPlayAmountDesc(PageRequest.of(0, limit));
+        songs.forEach(song -> nearCache.put(song.getSongId(), initialize(song)));
+        return songs;
+    }
+
+    // 清除本地条目并通知其他副本；发布失败只影响其他副本，由过期时间兜底。
+    // 在事务中调用时等提交后再清除，避免提交前被重新读入旧数据
+    public void invalidate(Integer songId) {
+        if (songId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishInvalidation(songId);
+                }
+            });
+            return;
+        }
+        publishInvalidation(songId);
+    }
+
+    private void publishInvalidation(Integer songId) {
+        nearCache.invalidate(songId);
+        try {
+            redisTemplate.convertAndSend(invalidationChannel, songId);
+        } catch (Exception e) {
+            log.error("Failed to publish catalog invalidation for song {}: {}", songId, e.getMessage());
+        }
+    }
+
+    // 收到其他副本（也包括本副本自己）发布的失效消息
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object songId = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (songId instanceof Number) {
+                evict(((Number) songId).intValue());
+            }
+        } catch (Exception e) {
+            log.error("Ignoring malformed catalog invalidation message: {}", e.getMessage());
+        }
+    }
+
+    public CatalogCacheStats getStats() {
+        CacheStats stats = nearCache.stats();
+        return new CatalogCacheStats(nearCache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.loadSuccessCount(), stats.loadFailureCount(),
+                stats.averageLoadPenalty() / 1_000_000.0, stats.evictionCount(), invalidations.sum());
+    }
+
+    private void evict(Integer songId) {
+        nearCache.invalidate(songId);
+        invalidations.increment();
+    }
+
+    private Map<Integer, Song> loadAll(Iterable<? extends Integer> songIds) {
+        List<Integer> missing = new ArrayList<>();
+        songIds.forEach(missing::add);
+        Map<Integer, Song> loaded = new HashMap<>();
+        for (Song song : songRepository.findAllById(missing)) {
+            loaded.put(song.getSongId(), initialize(song));
+        }
+        return loaded;
+    }
+
+    // 缓存中的实体会脱离 Session 使用，放入前先把懒加载集合初始化
+    private Song initialize(Song song) {
+        if (song != null) {
+            Hibernate.initialize(song.getTags());
+        }
+        return song;
+    }
+}
@@ -0,0 +1,52 @@
+package com.devops26.music.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.devops26.music.entity.Song;
+import com.devops26.music.repository.SongRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 订阅曲库失效频道：歌曲在任一副本上传、修改后，各副本（包括发布者自己）从数据库重新读出该歌曲，
+// 单条更新本地的搜索索引和输入联想增量，不必等下一次全量重建
+@Slf4j
+@Component
+public class SongIndexRefresher implements MessageListener {
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private SongSearchIndex songSearchIndex;
+
+    @Autowired
+    private SongSuggester songSuggester;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object songId = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (songId instanceof Number) {
+                refresh(((Number) songId).intValue());
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh search entries from catalog message: {}", e.getMessage());
+        }
+    }
+
+    public void refresh(Integer songId) {
+        Song song = songRepository.findBySongId(songId);
+        if (song == null) {
+            return;
+        }
+        songSearchIndex.index(song);
+        songSuggester.onSongChanged(song);
+    }
+}
@@ -0,0 +1,220 @@
+package com.devops26.music.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.devops26.music.entity.Song;
+import com.devops26.music.enums.RankWindow;
+import com.devops26.music.enums.SongTag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 实时榜单：全站一个、每个标签一个 Redis 有序集合，按 热度 / 当日 / 当周 三种窗口各存一份，
+// 由播放量定时写回时批量 ZINCRBY，读取只需 ZREVRANGE。
+// 热度用前向衰减：t 时刻的一次播放加 2^((t - L) / 半衰期) 分，L 为当前周期起点。分数只增不减，
+// 排名等价于按播放时间指数衰减后求和。每个周期 16 个半衰期，周期切换时旧榜整体乘 2^-16 并入新榜，
+// 周期起点由时间直接算出，各副本不需要共享状态。
+@Slf4j
+@Component
+public class SongLeaderboard {
+    private static final String ALL = "all";
+    private static final int HALF_LIVES_PER_PERIOD = 16;
+    private static final Duration DAY_TTL = Duration.ofDays(2);
+    private static final Duration WEEK_TTL = Duration.ofDays(8);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private SongCatalogReader songCatalogReader;
+
+    @Value("${music.rank.key-prefix:music:rank}")
+    private String keyPrefix;
+
+    @Value("${music.rank.half-life-hours:24}")
+    private long halfLifeHours;
+
+    // 折算进新周期时每个榜单只保留前 maxSize 首
+    @Value("${music.rank.max-size:10000}")
+    private int maxSize;
+
+    // 当日、当周按此时区划分
+    @Value("${music.rank.zone:Asia/Shanghai}")
+    private String zone;
+
+    // 本副本已确认折算过的周期起点
+    private volatile long carriedPeriod = -1;
+
+    // plays 为本次写回的 歌曲 id → 播放次数；榜单只是展示用途，写入失败只记日志
+    public void recordPlays(Map<Integer, Long> plays) {
+        if (plays == null || plays.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            long period = periodStart(now);
+            carryForward(period);
+            double weight = Math.pow(2, (double) (now - period) / halfLifeMillis());
+            LocalDate date = today(now);
+            // 标签从本地曲库缓存读取，未命中的歌曲合并成一条 IN 查询
+            List<Song> songs = songCatalogReader.findAllInOrder(new ArrayList<>(plays.keySet()));
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    write((RedisOperations<String, Object>) operations, songs, plays, period, weight, date);
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.error("Failed to update leaderboards for {} songs: {}", plays.size(), e.getMessage());
+        }
+    }
+
+    // 返回榜单前 limit 首的歌曲 id；Redis 不可用时返回空列表，由调用方回退
+    public List<Integer> top(RankWindow window, SongTag tag, int limit) {
+        List<Integer> songIds = new ArrayList<>();
+        if (limit <= 0) {
+            return songIds;
+        }
+        long now = System.currentTimeMillis();
+        String scope = tag == null ? ALL : tag.name();
+        try {
+            String key;
+            if (window == RankWindow.DAY) {
+                key = dayKey(today(now), scope);
+            } else if (window == RankWindow.WEEK) {
+                key = weekKey(today(now), scope);
+            } else {
+                long period = periodStart(now);
+                carryForward(period);
+                key = trendingKey(period, scope);
+            }
+            Set<Object> members = redisTemplate.opsForZSet().reverseRange(key, 0, limit - 1);
+            if (members != null) {
+                for (Object member : members) {
+                    if (member instanceof Number) {
+                        songIds.add(((Number) member).intValue());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to read {} leaderboard for {}: {}", window, scope, e.getMessage());
+        }
+        return songIds;
+    }
+
+    private void write(RedisOperations<String, Object> operations, List<Song> songs, Map<Integer, Long> plays,
+            long period, double weight, LocalDate date) {
+        Map<String, Duration> touched = new HashMap<>();
+        Duration trendingTtl = Duration.ofMillis(2 * periodMillis());
+        for (Song song : songs) {
+            Long count = plays.get(song.getSongId());
+            if (count == null || count <= 0) {
+                continue;
+            }
+            for (String scope : scopes(song)) {
+                String trending = trendingKey(period, scope);
+                String day = dayKey(date, scope);
+                String week = weekKey(date, scope);
+                operations.opsForZSet().incrementScore(trending, song.getSongId(), count * weight);
+                operations.opsForZSet().incrementScore(day, song.getSongId(), count);
+                operations.opsForZSet().incrementScore(week, song.getSongId(), count);
+                touched.put(trending, trendingTtl);
+                touched.put(day, DAY_TTL);
+                touched.put(week, WEEK_TTL);
+            }
+        }
+        touched.forEach(operations::expire);
+    }
+
+    // 新周期第一次写入或读取时，由抢到标记的副本把上一周期的榜单按 2^-16 折算后加进新榜；
+    // 新榜在此之前已有的分数一并保留（ZUNIONSTORE 求和）
+    private void carryForward(long period) {
+        if (carriedPeriod == period) {
+            return;
+        }
+        Duration ttl = Duration.ofMillis(2 * periodMillis());
+        Boolean first = redisTemplate.opsForValue().setIfAbsent(keyPrefix + ":carried:" + period, 1, ttl);
+        if (Boolean.TRUE.equals(first)) {
+            long previous = period - periodMillis();
+            Weights weights = Weights.of(1, Math.pow(2, -HALF_LIVES_PER_PERIOD));
+            for (String scope : allScopes()) {
+                String target = trendingKey(period, scope);
+                redisTemplate.opsForZSet().unionAndStore(target, List.of(trendingKey(previous, scope)), target,
+                        Aggregate.SUM, weights);
+                redisTemplate.opsForZSet().removeRange(target, 0, -(maxSize + 1L));
+                redisTemplate.expire(target, ttl);
+            }
+            log.info("Carried trending leaderboards into period starting at {}", Instant.ofEpochMilli(period));
+        }
+        carriedPeriod = period;
+    }
+
+    private List<String> scopes(Song song) {
+        List<String> scopes = new ArrayList<>();
+        scopes.add(ALL);
+        if (song.getTags() != null) {
+            for (SongTag tag : song.getTags()) {
+                scopes.add(tag.name());
+            }
+        }
+        return scopes;
+    }
+
+    private List<String> allScopes() {
+        List<String> scopes = new ArrayList<>();
+        scopes.add(ALL);
+        for (SongTag tag : SongTag.values()) {
+            scopes.add(tag.name());
+        }
+        return scopes;
+    }
+
+    private long halfLifeMillis() {
+        return Duration.ofHours(halfLifeHours).toMillis();
+    }
+
+    private long periodMillis() {
+        return halfLifeMillis() * HALF_LIVES_PER_PERIOD;
+    }
+
+    private long periodStart(long millis) {
+        return Math.floorDiv(millis, periodMillis()) * periodMillis();
+    }
+
+    private LocalDate today(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.of(zone)).toLocalDate();
+    }
+
+    private String trendingKey(long period, String scope) {
+        return keyPrefix + ":trending:" + period + ":" + scope;
+    }
+
+    private String dayKey(LocalDate date, String scope) {
+        return keyPrefix + ":day:" + date.format(DateTimeFormatter.BASIC_ISO_DATE) + ":" + scope;
+    }
+
+    // 如 2026W42
+    private String weekKey(LocalDate date, String scope) {
+        return keyPrefix + ":week:" + date.get(IsoFields.WEEK_BASED_YEAR) + "W"
+                + date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR) + ":" + scope;
+    }
+}
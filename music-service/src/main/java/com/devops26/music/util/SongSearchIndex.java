@@ -0,0 +1,338 @@
+package com.devops26.music.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.devops26.music.entity.Song;
+import com.devops26.music.entity.SongSearchPage;
+import com.devops26.music.entity.SongSummary;
+import com.devops26.music.repository.SongRepository;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.cjk.CJKBigramFilter;
+import org.apache.lucene.analysis.cjk.CJKWidthFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FeatureField;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// 歌名、歌手、歌词的倒排索引（Lucene，存放在本地目录）。
+// 中文按 CJK 二元组切分：索引时同时保留单字，查询时连续的字只取二元组，单字查询也能命中。
+// 每个查询词至少在一个字段中出现（歌名 > 歌手 > 歌词），相关度再加上 权重 × ln(2 + 播放量)。
+// 歌名、歌手另存全拼和拼音首字母（如 "qilixiang"、"qlx"），纯字母的输入也按拼音匹配，全拼可只输入前缀。
+// 启动后在后台全量构建，之后定时全量刷新播放量；上传、修改歌曲时各副本收到曲库失效消息后单条更新。
+@Slf4j
+@Component
+public class SongSearchIndex {
+    private static final String ID = "id";
+    private static final String SONG_ID = "songId";
+    private static final String NAME = "name";
+    private static final String SINGER = "singer";
+    private static final String LYRIC = "lyric";
+    private static final String URL = "url";
+    private static final String IMAGE_URL = "imageUrl";
+    private static final String PLAY_AMOUNT = "playAmount";
+    private static final String RATE = "rate";
+    private static final String FEATURES = "features";
+    private static final String POPULARITY = "popularity";
+    private static final String PINYIN = "pinyin";
+
+    private static final float NAME_BOOST = 3.0f;
+    private static final float SINGER_BOOST = 2.0f;
+    private static final float LYRIC_BOOST = 1.0f;
+    private static final float PINYIN_BOOST = 2.5f;
+    private static final float PINYIN_PREFIX_BOOST = 1.5f;
+    private static final int MAX_QUERY_TERMS = 32;
+
+    private final Analyzer indexAnalyzer = cjkAnalyzer(true);
+    private final Analyzer queryAnalyzer = cjkAnalyzer(false);
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Value("${music.search.index-path:data/search-index}")
+    private String indexPath;
+
+    @Value("${music.search.reindex-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${music.search.popularity-weight:0.5}")
+    private float popularityWeight;
+
+    // 最多能翻到第 maxWindow 条结果
+    @Value("${music.search.max-window:1000}")
+    private int maxWindow;
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path path = Paths.get(indexPath);
+        directory = FSDirectory.open(path);
+        // 索引每次启动都从数据库重建，旧文件直接覆盖
+        IndexWriterConfig config = new IndexWriterConfig(indexAnalyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+        writer = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Scheduled(initialDelayString = "${music.search.initial-delay-ms:0}",
+            fixedDelayString = "${music.search.reindex-interval-ms:3600000}")
+    public void reindex() {
+        long start = System.currentTimeMillis();
+        int indexed = 0;
+        try {
+            int lastId = 0;
+            List<Song> batch;
+            do {
+                batch = songRepository.findBySongIdGreaterThanOrderBySongIdAsc(lastId, PageRequest.of(0, batchSize));
+                for (Song song : batch) {
+                    writer.updateDocument(new Term(ID, String.valueOf(song.getSongId())), toDocument(song));
+                    lastId = song.getSongId();
+                }
+                indexed += batch.size();
+            } while (batch.size() == batchSize);
+            writer.commit();
+            searcherManager.maybeRefresh();
+            ready = true;
+            log.info("Indexed {} songs for search in {} ms", indexed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to rebuild song search index after {} songs: {}", indexed, e.getMessage());
+        }
+    }
+
+    // 单条更新失败不影响歌曲写入，等下一次全量刷新补上
+    public void index(Song song) {
+        if (song == null || song.getSongId() == null) {
+            return;
+        }
+        try {
+            writer.updateDocument(new Term(ID, String.valueOf(song.getSongId())), toDocument(song));
+            searcherManager.maybeRefresh();
+        } catch (Exception e) {
+            log.error("Failed to index song {}: {}", song.getSongId(), e.getMessage());
+        }
+    }
+
+    public SongSearchPage search(String keyword, int page, int size) throws IOException {
+        int from = page * size;
+        List<SongSummary> songs = new ArrayList<>();
+        Query query = buildQuery(keyword);
+        if (query == null || from >= maxWindow) {
+            return new SongSearchPage(0L, page, size, songs);
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, Math.min(from + size, maxWindow));
+            StoredFields storedFields = searcher.storedFields();
+            ScoreDoc[] hits = topDocs.scoreDocs;
+            for (int i = from; i < hits.length; i++) {
+                songs.add(toSummary(storedFields.document(hits[i].doc)));
+            }
+            // 命中超过 1000 条时 Lucene 只给出下界
+            return new SongSearchPage(topDocs.totalHits.value, page, size, songs);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    // 返回全部命中，不受 maxWindow 限制，供不分页的旧搜索接口使用
+    public List<SongSummary> searchAll(String keyword) throws IOException {
+        List<SongSummary> songs = new ArrayList<>();
+        Query query = buildQuery(keyword);
+        if (query == null) {
+            return songs;
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            int count = searcher.count(query);
+            if (count == 0) {
+                return songs;
+            }
+            StoredFields storedFields = searcher.storedFields();
+            for (ScoreDoc hit : searcher.search(query, count).scoreDocs) {
+                songs.add(toSummary(storedFields.document(hit.doc)));
+            }
+            return songs;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    // 按词匹配与按拼音匹配满足其一即可
+    private Query buildQuery(String keyword) throws IOException {
+        Set<String> terms = analyze(keyword);
+        String pinyin = pinyinKey(keyword);
+        if (terms.isEmpty() && pinyin == null) {
+            return null;
+        }
+        BooleanQuery.Builder match = new BooleanQuery.Builder();
+        if (!terms.isEmpty()) {
+            BooleanQuery.Builder allTerms = new BooleanQuery.Builder();
+            for (String term : terms) {
+                BooleanQuery anyField = new BooleanQuery.Builder()
+                        .add(new BoostQuery(new TermQuery(new Term(NAME, term)), NAME_BOOST), BooleanClause.Occur.SHOULD)
+                        .add(new BoostQuery(new TermQuery(new Term(SINGER, term)), SINGER_BOOST), BooleanClause.Occur.SHOULD)
+                        .add(new BoostQuery(new TermQuery(new Term(LYRIC, term)), LYRIC_BOOST), BooleanClause.Occur.SHOULD)
+                        .build();
+                allTerms.add(anyField, BooleanClause.Occur.MUST);
+            }
+            match.add(allTerms.build(), BooleanClause.Occur.SHOULD);
+        }
+        if (pinyin != null) {
+            match.add(new BoostQuery(new TermQuery(new Term(PINYIN, pinyin)), PINYIN_BOOST), BooleanClause.Occur.SHOULD);
+            match.add(new BoostQuery(new PrefixQuery(new Term(PINYIN, pinyin)), PINYIN_PREFIX_BOOST),
+                    BooleanClause.Occur.SHOULD);
+        }
+        return new BooleanQuery.Builder()
+                .add(match.build(), BooleanClause.Occur.MUST)
+                .add(FeatureField.newLogQuery(FEATURES, POPULARITY, popularityWeight, 1f), BooleanClause.Occur.SHOULD)
+                .build();
+    }
+
+    // 只由字母、数字和空格组成且含字母的输入才按拼音查，去掉空格后整体作为一个词，如 "qi li xiang" → "qilixiang"
+    private static String pinyinKey(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        String key = keyword.replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+        if (key.length() < 2 || !key.matches("[a-z0-9]+") || !key.matches(".*[a-z].*")) {
+            return null;
+        }
+        return key;
+    }
+
+    private Set<String> analyze(String keyword) throws IOException {
+        Set<String> terms = new LinkedHashSet<>();
+        try (TokenStream stream = queryAnalyzer.tokenStream(NAME, keyword)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        }
+        return terms;
+    }
+
+    private Document toDocument(Song song) {
+        int playAmount = song.getPlayAmount() == null ? 0 : song.getPlayAmount();
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(song.getSongId()), Field.Store.NO));
+        document.add(new StoredField(SONG_ID, song.getSongId()));
+        document.add(new TextField(NAME, nullToEmpty(song.getName()), Field.Store.YES));
+        document.add(new TextField(SINGER, nullToEmpty(song.getSinger()), Field.Store.YES));
+        document.add(new TextField(LYRIC, nullToEmpty(song.getLyric()), Field.Store.NO));
+        for (String pinyin : pinyinTerms(song)) {
+            document.add(new StringField(PINYIN, pinyin, Field.Store.NO));
+        }
+        if (song.getUrl() != null) {
+            document.add(new StoredField(URL, song.getUrl()));
+        }
+        if (song.getImageUrl() != null) {
+            document.add(new StoredField(IMAGE_URL, song.getImageUrl()));
+        }
+        if (song.getRate() != null) {
+            document.add(new StoredField(RATE, song.getRate()));
+        }
+        document.add(new StoredField(PLAY_AMOUNT, playAmount));
+        document.add(new FeatureField(FEATURES, POPULARITY, Math.max(0, playAmount) + 1f));
+        return document;
+    }
+
+    // 结果直接由存储字段组装，不再回表
+    private SongSummary toSummary(Document document) {
+        IndexableField rate = document.getField(RATE);
+        return new SongSummary(
+                document.getField(SONG_ID).numericValue().intValue(),
+                document.get(NAME),
+                document.get(SINGER),
+                document.get(URL),
+                document.get(IMAGE_URL),
+                document.getField(PLAY_AMOUNT).numericValue().intValue(),
+                rate == null ? null : rate.numericValue().doubleValue());
+    }
+
+    private static Set<String> pinyinTerms(Song song) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String text : new String[]{song.getName(), song.getSinger()}) {
+            terms.add(PinyinUtil.full(text));
+            terms.add(PinyinUtil.initials(text));
+        }
+        terms.remove("");
+        return terms;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    // 标准分词 → 全角/半角归一 → 小写 → CJK 二元组
+    private static Analyzer cjkAnalyzer(boolean outputUnigrams) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new StandardTokenizer();
+                TokenStream result = new CJKWidthFilter(source);
+                result = new LowerCaseFilter(result);
+                result = new CJKBigramFilter(result, CJKBigramFilter.HAN | CJKBigramFilter.HIRAGANA
+                        | CJKBigramFilter.KATAKANA | CJKBigramFilter.HANGUL, outputUnigrams);
+                return new TokenStreamComponents(source, result);
+            }
+        };
+    }
+}
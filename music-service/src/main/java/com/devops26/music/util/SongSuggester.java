@@ -0,0 +1,217 @@
+package com.devops26.music.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.devops26.music.entity.Song;
+import com.devops26.music.entity.SongSuggestion;
+import com.devops26.music.entity.SongSummary;
+import com.devops26.music.enums.SuggestionType;
+import com.devops26.music.repository.SongRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 搜索框输入联想：歌名、歌手名及其拼音首字母都作为键放进 SuggestTrie，每个前缀预先排好播放量最高的候选。
+// 查询只读内存，不访问数据库。字典树定时在后台整体重建；两次重建之间任一副本上传、修改的歌曲
+// 经曲库失效消息（SongIndexRefresher）记在每个副本的增量表里，查询时与字典树结果合并（字典树中这些歌曲的旧条目被忽略）。
+@Slf4j
+@Component
+public class SongSuggester {
+    @Autowired
+    private SongRepository songRepository;
+
+    // 每个前缀预存的候选数，也是单次查询能返回的上限
+    @Value("${music.suggest.top-k:10}")
+    private int topK;
+
+    private volatile Snapshot snapshot;
+
+    private final Map<Integer, DeltaSong> delta = new ConcurrentHashMap<>();
+    private final AtomicLong deltaSequence = new AtomicLong();
+
+    public List<SongSuggestion> suggest(String prefix, int limit) {
+        List<SongSuggestion> suggestions = new ArrayList<>();
+        String key = normalize(prefix);
+        Snapshot current = snapshot;
+        if (key.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+
+        Set<String> singers = new HashSet<>();
+        if (current != null) {
+            for (int entry : current.trie.complete(key)) {
+                Integer songId = current.songIds[entry];
+                if (songId != null && delta.containsKey(songId)) {
+                    continue;
+                }
+                if (current.types[entry] == SuggestionType.SINGER) {
+                    singers.add(current.texts[entry]);
+                }
+                suggestions.add(new SongSuggestion(current.types[entry], current.texts[entry], songId,
+                        current.playAmounts[entry]));
+            }
+        }
+        for (DeltaSong song : delta.values()) {
+            if (song.matchesName(key)) {
+                suggestions.add(new SongSuggestion(SuggestionType.SONG, song.name, song.songId, song.playAmount));
+            }
+            if (song.matchesSinger(key) && singers.add(song.singer)) {
+                suggestions.add(new SongSuggestion(SuggestionType.SINGER, song.singer, null, song.playAmount));
+            }
+        }
+        if (!delta.isEmpty()) {
+            suggestions.sort((a, b) -> Long.compare(b.getPlayAmount(), a.getPlayAmount()));
+        }
+        int size = Math.min(limit, topK);
+        return suggestions.size() > size ? new ArrayList<>(suggestions.subList(0, size)) : suggestions;
+    }
+
+    // 歌曲上传或修改后立即可被联想到，下一次重建后从增量表中移除
+    public void onSongChanged(Song song) {
+        if (song == null || song.getSongId() == null) {
+            return;
+        }
+        delta.put(song.getSongId(), new DeltaSong(deltaSequence.incrementAndGet(), song.getSongId(),
+                song.getName(), song.getSinger(), song.getPlayAmount() == null ? 0L : song.getPlayAmount()));
+    }
+
+    @Scheduled(initialDelayString = "${music.suggest.initial-delay-ms:0}",
+            fixedDelayString = "${music.suggest.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        // 重建开始之后发生的修改不一定读得到，这些增量要保留到下一次
+        long sequence = deltaSequence.get();
+        try {
+            Snapshot built = build(songRepository.findAllSummaries());
+            snapshot = built;
+            delta.values().removeIf(song -> song.sequence <= sequence);
+            log.info("Rebuilt suggest trie with {} entries and {} nodes in {} ms", built.texts.length,
+                    built.trie.nodeCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to rebuild suggest trie: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot build(List<SongSummary> songs) {
+        List<SuggestionType> types = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        List<Integer> songIds = new ArrayList<>();
+        List<Long> playAmounts = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<Integer> keyEntries = new ArrayList<>();
+        Map<String, Integer> singerEntries = new HashMap<>();
+
+        for (SongSummary song : songs) {
+            long playAmount = song.getPlayAmount() == null ? 0L : song.getPlayAmount();
+            if (song.getName() != null && !song.getName().isBlank()) {
+                int entry = texts.size();
+                types.add(SuggestionType.SONG);
+                texts.add(song.getName());
+                songIds.add(song.getSongId());
+                playAmounts.add(playAmount);
+                addKeys(song.getName(), entry, keys, keyEntries);
+            }
+            if (song.getSinger() != null && !song.getSinger().isBlank()) {
+                Integer entry = singerEntries.get(song.getSinger());
+                if (entry == null) {
+                    entry = texts.size();
+                    singerEntries.put(song.getSinger(), entry);
+                    types.add(SuggestionType.SINGER);
+                    texts.add(song.getSinger());
+                    songIds.add(null);
+                    playAmounts.add(playAmount);
+                    addKeys(song.getSinger(), entry, keys, keyEntries);
+                } else {
+                    playAmounts.set(entry, playAmounts.get(entry) + playAmount);
+                }
+            }
+        }
+
+        float[] weights = new float[texts.size()];
+        long[] amounts = new long[texts.size()];
+        for (int i = 0; i < weights.length; i++) {
+            amounts[i] = playAmounts.get(i);
+            weights[i] = amounts[i];
+        }
+        int[] entries = keyEntries.stream().mapToInt(Integer::intValue).toArray();
+        SuggestTrie trie = SuggestTrie.build(keys.toArray(new String[0]), entries, weights, topK);
+        return new Snapshot(trie, types.toArray(new SuggestionType[0]), texts.toArray(new String[0]),
+                songIds.toArray(new Integer[0]), amounts);
+    }
+
+    private static void addKeys(String text, int entry, List<String> keys, List<Integer> keyEntries) {
+        String normalized = normalize(text);
+        keys.add(normalized);
+        keyEntries.add(entry);
+        String initials = PinyinUtil.initials(text);
+        if (!initials.isEmpty() && !initials.equals(normalized)) {
+            keys.add(initials);
+            keyEntries.add(entry);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Snapshot {
+        private final SuggestTrie trie;
+        private final SuggestionType[] types;
+        private final String[] texts;
+        private final Integer[] songIds;
+        private final long[] playAmounts;
+
+        Snapshot(SuggestTrie trie, SuggestionType[] types, String[] texts, Integer[] songIds, long[] playAmounts) {
+            this.trie = trie;
+            this.types = types;
+            this.texts = texts;
+            this.songIds = songIds;
+            this.playAmounts = playAmounts;
+        }
+    }
+
+    private static class DeltaSong {
+        private final long sequence;
+        private final Integer songId;
+        private final String name;
+        private final String singer;
+        private final long playAmount;
+        private final String nameKey;
+        private final String nameInitials;
+        private final String singerKey;
+        private final String singerInitials;
+
+        DeltaSong(long sequence, Integer songId, String name, String singer, long playAmount) {
+            this.sequence = sequence;
+            this.songId = songId;
+            this.name = name;
+            this.singer = singer;
+            this.playAmount = playAmount;
+            this.nameKey = normalize(name);
+            this.nameInitials = PinyinUtil.initials(name);
+            this.singerKey = normalize(singer);
+            this.singerInitials = PinyinUtil.initials(singer);
+        }
+
+        boolean matchesName(String prefix) {
+            return name != null && !nameKey.isEmpty()
+                    && (nameKey.startsWith(prefix) || nameInitials.startsWith(prefix));
+        }
+
+        boolean matchesSinger(String prefix) {
+            return singer != null && !singerKey.isEmpty()
+                    && (singerKey.startsWith(prefix) || singerInitials.startsWith(prefix));
+        }
+    }
+}
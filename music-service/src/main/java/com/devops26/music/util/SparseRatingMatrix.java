@@ -0,0 +1,229 @@
+package com.devops26.music.util;
+
+import java.util.Arrays;
+
+// 按行压缩（CSR）存储的稀疏评分矩阵，只保存非零交互，内存与交互数量成正比而不是 用户数 × 歌曲数
+public class SparseRatingMatrix {
+    private final int numRows;
+    private final int numColumns;
+
+    // 第 row 行的元素位于 [rowPtr[row], rowPtr[row + 1])，行内按列号递增
+    private final int[] rowPtr;
+    private final int[] entryRows;
+    private final int[] entryColumns;
+    private final float[] values;
+
+    // 按列访问时使用的转置索引（CSC），第一次按列访问时才构建
+    private volatile int[] columnPtr;
+    private volatile int[] columnEntries;
+
+    private SparseRatingMatrix(int numRows, int numColumns, int[] rowPtr,
+            int[] entryRows, int[] entryColumns, float[] values) {
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+        this.rowPtr = rowPtr;
+        this.entryRows = entryRows;
+        this.entryColumns = entryColumns;
+        this.values = values;
+    }
+
+    public static Builder builder(int numRows, int numColumns) {
+        return new Builder(numRows, numColumns);
+    }
+
+    public int getRowDimension() {
+        return numRows;
+    }
+
+    public int getColumnDimension() {
+        return numColumns;
+    }
+
+    public int getNonZeroCount() {
+        return values.length;
+    }
+
+    // 以下按元素下标 k（0 ≤ k < getNonZeroCount()）访问，供训练循环直接遍历
+    public int rowIndex(int k) {
+        return entryRows[k];
+    }
+
+    public int columnIndex(int k) {
+        return entryColumns[k];
+    }
+
+    public float value(int k) {
+        return values[k];
+    }
+
+    public int rowStart(int row) {
+        return rowPtr[row];
+    }
+
+    public int rowEnd(int row) {
+        return rowPtr[row + 1];
+    }
+
+    public float getEntry(int row, int column) {
+        int k = Arrays.binarySearch(entryColumns, rowPtr[row], rowPtr[row + 1], column);
+        return k >= 0 ? values[k] : 0f;
+    }
+
+    public void forEachInRow(int row, EntryConsumer consumer) {
+        for (int k = rowPtr[row]; k < rowPtr[row + 1]; k++) {
+            consumer.accept(row, entryColumns[k], values[k]);
+        }
+    }
+
+    public void forEachInColumn(int column, EntryConsumer consumer) {
+        ensureColumnIndex();
+        for (int i = columnPtr[column]; i < columnPtr[column + 1]; i++) {
+            int k = columnEntries[i];
+            consumer.accept(entryRows[k], column, values[k]);
+        }
+    }
+
+    // 第 column 列的元素下标为 columnEntry(i)，i ∈ [columnStart(column), columnEnd(column))
+    public int columnStart(int column) {
+        ensureColumnIndex();
+        return columnPtr[column];
+    }
+
+    public int columnEnd(int column) {
+        ensureColumnIndex();
+        return columnPtr[column + 1];
+    }
+
+    public int columnEntry(int i) {
+        ensureColumnIndex();
+        return columnEntries[i];
+    }
+
+    private void ensureColumnIndex() {
+        if (columnEntries != null) {
+            return;
+        }
+        synchronized (this) {
+            if (columnEntries != null) {
+                return;
+            }
+            int[] ptr = new int[numColumns + 1];
+            for (int column : entryColumns) {
+                ptr[column + 1]++;
+            }
+            for (int c = 0; c < numColumns; c++) {
+                ptr[c + 1] += ptr[c];
+            }
+            int[] next = Arrays.copyOf(ptr, numColumns);
+            int[] entries = new int[values.length];
+            // 按行顺序写入，列内元素自然按行号递增
+            for (int k = 0; k < values.length; k++) {
+                entries[next[entryColumns[k]]++] = k;
+            }
+            columnPtr = ptr;
+            columnEntries = entries;
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int row, int column, float value);
+    }
+
+    // 以坐标形式（COO）追加元素，build 时一次性转换为 CSR；同一位置重复写入时保留最后一次的值
+    public static class Builder {
+        private final int numRows;
+        private final int numColumns;
+        private int[] rows = new int[16];
+        private int[] columns = new int[16];
+        private float[] values = new float[16];
+        private int size;
+
+        private Builder(int numRows, int numColumns) {
+            this.numRows = numRows;
+            this.numColumns = numColumns;
+        }
+
+        public Builder add(int row, int column, float value) {
+            if (row < 0 || row >= numRows || column < 0 || column >= numColumns) {
+                throw new IndexOutOfBoundsException("(" + row + ", " + column + ") is outside "
+                        + numRows + " x " + numColumns);
+            }
+            if (size == values.length) {
+                int capacity = size + (size >> 1);
+                rows = Arrays.copyOf(rows, capacity);
+                columns = Arrays.copyOf(columns, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            rows[size] = row;
+            columns[size] = column;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        public SparseRatingMatrix build() {
+            // 按行计数排序
+            int[] rowPtr = new int[numRows + 1];
+            for (int i = 0; i < size; i++) {
+                rowPtr[rows[i] + 1]++;
+            }
+            for (int r = 0; r < numRows; r++) {
+                rowPtr[r + 1] += rowPtr[r];
+            }
+            int[] next = Arrays.copyOf(rowPtr, numRows);
+            int[] sortedColumns = new int[size];
+            float[] sortedValues = new float[size];
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                int k = next[rows[i]]++;
+                sortedColumns[k] = columns[i];
+                sortedValues[k] = values[i];
+                order[k] = i;
+            }
+
+            // 行内按列排序并去重，结果原地压紧
+            int[] compactPtr = new int[numRows + 1];
+            int[] entryRows = new int[size];
+            int write = 0;
+            for (int r = 0; r < numRows; r++) {
+                int start = rowPtr[r];
+                int end = rowPtr[r + 1];
+                sortRow(sortedColumns, sortedValues, order, start, end);
+                for (int k = start; k < end; k++) {
+                    if (k + 1 < end && sortedColumns[k + 1] == sortedColumns[k]) {
+                        continue;
+                    }
+                    sortedColumns[write] = sortedColumns[k];
+                    sortedValues[write] = sortedValues[k];
+                    entryRows[write] = r;
+                    write++;
+                }
+                compactPtr[r + 1] = write;
+            }
+            return new SparseRatingMatrix(numRows, numColumns, compactPtr,
+                    Arrays.copyOf(entryRows, write),
+                    Arrays.copyOf(sortedColumns, write),
+                    Arrays.copyOf(sortedValues, write));
+        }
+
+        // 单行元素很少，插入排序即可；列相同时按写入顺序排列，保证去重时保留最后写入的值
+        private static void sortRow(int[] columns, float[] values, int[] order, int start, int end) {
+            for (int i = start + 1; i < end; i++) {
+                int column = columns[i];
+                float value = values[i];
+                int seq = order[i];
+                int j = i - 1;
+                while (j >= start && (columns[j] > column || (columns[j] == column && order[j] > seq))) {
+                    columns[j + 1] = columns[j];
+                    values[j + 1] = values[j];
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                columns[j + 1] = column;
+                values[j + 1] = value;
+                order[j + 1] = seq;
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.devops26.music.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 单副本使用：固定数量的 ReentrantLock，键按哈希分到其中一把。
+// 不同键可能落到同一把锁上互相等待，但锁的数量固定，不会随键的数量增长。
+public class StripedKeyedLockProvider extends AbstractKeyedLockProvider {
+    private final ReentrantLock[] stripes;
+
+    public StripedKeyedLockProvider(int stripes, long waitTimeoutMillis) {
+        super(waitTimeoutMillis);
+        // 取不小于 stripes 的 2 的幂，定位时用位运算代替取模
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    protected Lease acquire(String key, long timeoutNanos) throws InterruptedException {
+        ReentrantLock lock = stripeFor(key);
+        return lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS) ? lock::unlock : null;
+    }
+
+    @Override
+    protected String name() {
+        return "local";
+    }
+
+    private ReentrantLock stripeFor(String key) {
+        int h = key.hashCode();
+        // 高位混入低位，避免相近的键集中在少数几把锁上
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+}
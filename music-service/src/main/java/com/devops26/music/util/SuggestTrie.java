@@ -0,0 +1,196 @@
+package com.devops26.music.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+// 前缀补全用的只读字典树。构建后所有节点压平成几个原始类型数组：
+// 同一节点的子节点连续存放并按字符排序，查询时逐字符二分查找；
+// 每个节点预先存好以它为前缀、权重最高的 k 个条目，查询走到前缀节点后直接返回，不再遍历子树。
+// 只有一个子节点且本身不是词尾的节点与子节点共用候选列表，长名字的单链部分不额外占空间。
+public class SuggestTrie {
+    private static final int[] EMPTY = new int[0];
+
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] topPool;
+
+    private SuggestTrie(Builder builder) {
+        this.labels = Arrays.copyOf(builder.labels, builder.nodes);
+        this.firstChild = Arrays.copyOf(builder.firstChild, builder.nodes);
+        this.childCount = Arrays.copyOf(builder.childCount, builder.nodes);
+        this.topStart = Arrays.copyOf(builder.topStart, builder.nodes);
+        this.topCount = Arrays.copyOf(builder.topCount, builder.nodes);
+        this.topPool = Arrays.copyOf(builder.topPool, builder.poolSize);
+    }
+
+    // keys[i] 指向条目 entries[i]，同一条目可以有多个键（歌名、拼音首字母……）
+    public static SuggestTrie build(String[] keys, int[] entries, float[] weights, int k) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+        Builder builder = new Builder(keys, entries, order, weights, k);
+        builder.build();
+        return new SuggestTrie(builder);
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    // 按权重从高到低返回前缀下的条目；前缀不存在时返回空数组
+    public int[] complete(String prefix) {
+        int node = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = child(node, prefix.charAt(i));
+            if (node < 0) {
+                return EMPTY;
+            }
+        }
+        return Arrays.copyOfRange(topPool, topStart[node], topStart[node] + topCount[node]);
+    }
+
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < c) {
+                low = mid + 1;
+            } else if (labels[mid] > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // 在按键排序的 order 上递归：[from, to) 的键共享长度为 depth 的前缀。
+    // 先为一个节点的全部子节点分配连续的位置，再逐个递归，保证子节点相邻。
+    private static class Builder {
+        private final String[] keys;
+        private final int[] entries;
+        private final Integer[] order;
+        private final float[] weights;
+        private final TopKSelector selector;
+
+        private char[] labels = new char[1024];
+        private int[] firstChild = new int[1024];
+        private int[] childCount = new int[1024];
+        private int[] topStart = new int[1024];
+        private int[] topCount = new int[1024];
+        private int[] topPool = new int[1024];
+        private int nodes;
+        private int poolSize;
+
+        Builder(String[] keys, int[] entries, Integer[] order, float[] weights, int k) {
+            this.keys = keys;
+            this.entries = entries;
+            this.order = order;
+            this.weights = weights;
+            this.selector = new TopKSelector(k);
+        }
+
+        void build() {
+            allocate(1);
+            fill(0, 0, order.length, 0);
+        }
+
+        private void fill(int node, int from, int to, int depth) {
+            // 恰好在此结束的键排在最前面
+            int terminalEnd = from;
+            while (terminalEnd < to && keys[order[terminalEnd]].length() == depth) {
+                terminalEnd++;
+            }
+
+            int children = 0;
+            for (int i = terminalEnd; i < to; i = groupEnd(i, to, depth)) {
+                children++;
+            }
+            int first = allocate(children);
+            firstChild[node] = first;
+            childCount[node] = children;
+
+            int child = first;
+            for (int i = terminalEnd; i < to; ) {
+                int end = groupEnd(i, to, depth);
+                labels[child] = keys[order[i]].charAt(depth);
+                fill(child, i, end, depth + 1);
+                child++;
+                i = end;
+            }
+
+            if (terminalEnd == from && children == 1) {
+                topStart[node] = topStart[first];
+                topCount[node] = topCount[first];
+                return;
+            }
+            collectTop(node, from, terminalEnd, first, children);
+        }
+
+        private int groupEnd(int from, int to, int depth) {
+            char c = keys[order[from]].charAt(depth);
+            int end = from + 1;
+            while (end < to && keys[order[end]].charAt(depth) == c) {
+                end++;
+            }
+            return end;
+        }
+
+        // 本节点的词尾条目与各子节点的候选合并去重后取前 k 个
+        private void collectTop(int node, int terminalFrom, int terminalTo, int first, int children) {
+            int size = terminalTo - terminalFrom;
+            for (int c = first; c < first + children; c++) {
+                size += topCount[c];
+            }
+            int[] candidates = new int[size];
+            int n = 0;
+            for (int i = terminalFrom; i < terminalTo; i++) {
+                candidates[n++] = entries[order[i]];
+            }
+            for (int c = first; c < first + children; c++) {
+                System.arraycopy(topPool, topStart[c], candidates, n, topCount[c]);
+                n += topCount[c];
+            }
+            Arrays.sort(candidates);
+
+            selector.clear();
+            for (int i = 0; i < n; i++) {
+                if (i == 0 || candidates[i] != candidates[i - 1]) {
+                    selector.offer(candidates[i], weights[candidates[i]]);
+                }
+            }
+            int[] top = selector.drainDescending();
+            ensurePool(poolSize + top.length);
+            System.arraycopy(top, 0, topPool, poolSize, top.length);
+            topStart[node] = poolSize;
+            topCount[node] = top.length;
+            poolSize += top.length;
+        }
+
+        private int allocate(int count) {
+            int first = nodes;
+            nodes += count;
+            if (nodes > labels.length) {
+                int capacity = Math.max(nodes, labels.length * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                childCount = Arrays.copyOf(childCount, capacity);
+                topStart = Arrays.copyOf(topStart, capacity);
+                topCount = Arrays.copyOf(topCount, capacity);
+            }
+            return first;
+        }
+
+        private void ensurePool(int capacity) {
+            if (capacity > topPool.length) {
+                topPool = Arrays.copyOf(topPool, Math.max(capacity, topPool.length * 2));
+            }
+        }
+    }
+}
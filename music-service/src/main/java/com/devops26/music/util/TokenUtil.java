@@ -0,0 +1,73 @@
+package com.devops26.music.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.auth0.jwt.JWT;
+import com.devops26.music.entity.ResultVO;
+import com.devops26.music.feign.UserFeign;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+// token 用用户密码签名，music-service 没有密钥，签名交给 user-service 校验；
+// 校验结果按 token 缓存一段时间，同一用户连续播放不会每次都请求 user-service
+@Slf4j
+@Component
+public class TokenUtil {
+    // 伪造的 token 也缓存，避免用同一个 token 反复触发校验请求
+    private static final int INVALID = -1;
+
+    @Autowired
+    private UserFeign userFeign;
+
+    private final Cache<String, Integer> verifiedTokens;
+
+    public TokenUtil(@Value("${music.token.cache.max-size:10000}") long maxSize,
+            @Value("${music.token.cache.expire-after-write-ms:300000}") long expireAfterWriteMs) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public Integer getCurrentUserId() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return getUserId(attributes.getRequest().getHeader("token"));
+    }
+
+    // 签名校验通过时返回 token 中的用户 id，否则返回 null；user-service 不可用时不缓存，下次重新校验
+    public Integer getUserId(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        int userId;
+        try {
+            userId = Integer.parseInt(JWT.decode(token).getAudience().get(0));
+        } catch (Exception e) {
+            return null;
+        }
+        Integer cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            return cached == INVALID ? null : cached;
+        }
+        try {
+            ResultVO<Boolean> result = userFeign.verifyToken(token);
+            boolean valid = result != null && Boolean.TRUE.equals(result.getResult());
+            verifiedTokens.put(token, valid ? userId : INVALID);
+            return valid ? userId : null;
+        } catch (Exception e) {
+            log.warn("Failed to verify token for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+}
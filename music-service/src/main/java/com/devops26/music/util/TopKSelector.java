@@ -0,0 +1,96 @@
+package com.devops26.music.util;
+
+// 从一串 (下标, 分数) 中选出分数最高的 k 个：大小为 k 的小顶堆，堆顶是目前入选的最低分，
+// 新分数不高于堆顶就直接丢弃。整个过程只用两个定长原始类型数组，offer 不分配内存。
+// 分数相同时保留下标较小的元素，结果与按分数稳定排序后取前 k 个一致。
+public class TopKSelector {
+    private final int[] indexes;
+    private final float[] scores;
+    private int size;
+
+    public TopKSelector(int k) {
+        this.indexes = new int[Math.max(0, k)];
+        this.scores = new float[Math.max(0, k)];
+    }
+
+    public void offer(int index, float score) {
+        if (indexes.length == 0 || Float.isNaN(score)) {
+            return;
+        }
+        if (size < indexes.length) {
+            indexes[size] = index;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (less(indexes[0], scores[0], index, score)) {
+            indexes[0] = index;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // 按分数从高到低返回入选的下标，并清空选择器以便复用
+    public int[] drainDescending() {
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = indexes[0];
+            size--;
+            indexes[0] = indexes[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    private void siftUp(int i) {
+        int index = indexes[i];
+        float score = scores[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(index, score, indexes[parent], scores[parent])) {
+                break;
+            }
+            indexes[i] = indexes[parent];
+            scores[i] = scores[parent];
+            i = parent;
+        }
+        indexes[i] = index;
+        scores[i] = score;
+    }
+
+    private void siftDown(int i) {
+        if (size == 0) {
+            return;
+        }
+        int index = indexes[i];
+        float score = scores[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && less(indexes[right], scores[right], indexes[child], scores[child])) {
+                child = right;
+            }
+            if (!less(indexes[child], scores[child], index, score)) {
+                break;
+            }
+            indexes[i] = indexes[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        indexes[i] = index;
+        scores[i] = score;
+    }
+
+    // 排名更靠后：分数更低，或分数相同但下标更大
+    private static boolean less(int indexA, float scoreA, int indexB, float scoreB) {
+        return scoreA < scoreB || (scoreA == scoreB && indexA > indexB);
+    }
+}
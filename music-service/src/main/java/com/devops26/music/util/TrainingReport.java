@@ -0,0 +1,16 @@
+package com.devops26.music.util;
+
+import lombok.Value;
+
+@Value
+public class TrainingReport {
+    String algorithm;
+    int threads;
+    int epochs;
+    double rmse;
+    long millis;
+
+    public double getEpochsPerSecond() {
+        return millis == 0 ? epochs : epochs * 1000.0 / millis;
+    }
+}
@@ -1,5 +1,7 @@
 package com.devops26.music.controller;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
 
@@ -8,14 +10,22 @@ import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.devops26.music.entity.CursorPage;
 import com.devops26.music.entity.ResultVO;
 import com.devops26.music.entity.Song;
+import com.devops26.music.entity.SongSearchPage;
+import com.devops26.music.entity.SongSuggestion;
+import com.devops26.music.entity.SongSummary;
 import com.devops26.music.service.SongService;
+import com.devops26.music.util.NdjsonWriter;
 
 class SongControllerTest {
 
@@ -67,50 +77,80 @@ class SongControllerTest {
 
     @Test
     void getAllSongs_ShouldReturnSongList() {
-        List<Song> songs = Arrays.asList(new Song(), new Song());
+        List<SongSummary> songs = Arrays.asList(new SongSummary(), new SongSummary());
         when(songService.getAllSongs()).thenReturn(songs);
 
-        ResultVO<List<Song>> result = songController.getAllSongs();
+        ResultVO<List<SongSummary>> result = songController.getAllSongs();
         assert result.getCode().equals("000");
         assert result.getResult().size() == 2;
     }
 
     @Test
     void searchByName_ShouldReturnSongList() {
-        List<Song> songs = Arrays.asList(new Song(), new Song());
+        List<SongSummary> songs = Arrays.asList(new SongSummary(), new SongSummary());
         when(songService.searchSongsByName("test")).thenReturn(songs);
 
-        ResultVO<List<Song>> result = songController.searchSongsByName("test");
+        ResultVO<List<SongSummary>> result = songController.searchSongsByName("test");
         assert result.getCode().equals("000");
         assert result.getResult().size() == 2;
     }
 
     @Test
     void searchBySinger_ShouldReturnSongList() {
-        List<Song> songs = Arrays.asList(new Song(), new Song());
+        List<SongSummary> songs = Arrays.asList(new SongSummary(), new SongSummary());
         when(songService.searchSongsBySinger("singer")).thenReturn(songs);
 
-        ResultVO<List<Song>> result = songController.searchSongsBySinger("singer");
+        ResultVO<List<SongSummary>> result = songController.searchSongsBySinger("singer");
         assert result.getCode().equals("000");
         assert result.getResult().size() == 2;
     }
 
     @Test
     void search_ShouldReturnSongList() {
-        List<Song> songs = Arrays.asList(new Song(), new Song());
+        List<SongSummary> songs = Arrays.asList(new SongSummary(), new SongSummary());
         when(songService.searchSongs("keyword")).thenReturn(songs);
 
-        ResultVO<List<Song>> result = songController.searchSongs("keyword");
+        ResultVO<List<SongSummary>> result = songController.searchSongs("keyword");
+        assert result.getCode().equals("000");
+        assert result.getResult().size() == 2;
+    }
+
+    @Test
+    void searchPage_ShouldReturnPage() {
+        SongSearchPage page = new SongSearchPage(1L, 0, 20, Arrays.asList(new SongSummary()));
+        when(songService.searchSongs("keyword", 0, 20)).thenReturn(page);
+
+        ResultVO<SongSearchPage> result = songController.searchSongsPage("keyword", 0, 20);
+        assert result.getCode().equals("000");
+        assert result.getResult().getSongs().size() == 1;
+    }
+
+    @Test
+    void suggest_ShouldReturnSuggestions() {
+        List<SongSuggestion> suggestions = Arrays.asList(new SongSuggestion(), new SongSuggestion());
+        when(songService.suggest("zj", 10)).thenReturn(suggestions);
+
+        ResultVO<List<SongSuggestion>> result = songController.suggest("zj", 10);
         assert result.getCode().equals("000");
         assert result.getResult().size() == 2;
     }
 
     @Test
     void getByTag_ShouldReturnSongList() {
-        List<Song> songs = Arrays.asList(new Song(), new Song());
+        List<SongSummary> songs = Arrays.asList(new SongSummary(), new SongSummary());
         when(songService.getSongsByTag("POP")).thenReturn(songs);
 
-        ResultVO<List<Song>> result = songController.getSongsByTag("POP");
+        ResultVO<List<SongSummary>> result = songController.getSongsByTag("POP");
+        assert result.getCode().equals("000");
+        assert result.getResult().size() == 2;
+    }
+
+    @Test
+    void getChart_ShouldReturnSongList() {
+        List<SongSummary> songs = Arrays.asList(new SongSummary(), new SongSummary());
+        when(songService.getChart("week", "POP")).thenReturn(songs);
+
+        ResultVO<List<SongSummary>> result = songController.getChart("week", "POP");
         assert result.getCode().equals("000");
         assert result.getResult().size() == 2;
     }
@@ -124,6 +164,15 @@ class SongControllerTest {
         assert result.getResult();
     }
 
+    @Test
+    void hasRated_ShouldReturnSuccess() {
+        when(songService.hasRated(1)).thenReturn(true);
+
+        ResultVO<Boolean> result = songController.hasRated(1);
+        assert result.getCode().equals("000");
+        assert result.getResult();
+    }
+
     @Test
     void play_ShouldReturnSuccess() {
         when(songService.play(1)).thenReturn(true);
@@ -169,4 +218,24 @@ class SongControllerTest {
         assert result.getCode().equals("000");
         assert result.getResult().size() == 2;
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getSongsPage_ShouldReturnPage() {
+        CursorPage<SongSummary> page = new CursorPage<>(Arrays.asList(new SongSummary(), new SongSummary()), "2");
+        when(songService.getSongsPage(null, 2, "id")).thenReturn(page);
+
+        ResultVO<CursorPage<SongSummary>> result = songController.getSongsPage(null, 2, "id");
+        assert result.getCode().equals("000");
+        assert result.getResult().getItems().size() == 2;
+        assert result.getResult().getNextCursor().equals("2");
+    }
+
+    @Test
+    void exportSongs_ShouldStreamNdjson() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = songController.exportSongs();
+        assert response.getHeaders().getContentType().toString().equals(NdjsonWriter.CONTENT_TYPE);
+
+        response.getBody().writeTo(new ByteArrayOutputStream());
+        verify(songService).exportSongs(any(OutputStream.class));
+    }
+}
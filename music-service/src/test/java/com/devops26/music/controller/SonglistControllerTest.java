@@ -1,25 +1,34 @@
 package com.devops26.music.controller;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.devops26.music.entity.CursorPage;
 import com.devops26.music.entity.ResultVO;
 import com.devops26.music.entity.Songlist;
 import com.devops26.music.entity.User;
 import com.devops26.music.service.SonglistService;
+import com.devops26.music.util.NdjsonWriter;
 
 class SonglistControllerTest {
 
@@ -172,4 +181,61 @@ class SonglistControllerTest {
         assertEquals("000", result.getCode());
         assertTrue(result.getResult());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void hasRated_ShouldReturnSuccess() {
+        when(songlistService.hasRated(1)).thenReturn(false);
+
+        ResultVO<Boolean> result = songlistController.hasRated(1);
+        assertEquals("000", result.getCode());
+        assertFalse(result.getResult());
+    }
+
+    @Test
+    void addSongs_ShouldReturnAddedCount() {
+        when(songlistService.addSongs(1, Arrays.asList(3, 4))).thenReturn(2);
+
+        ResultVO<Integer> result = songlistController.addSongs(1, Arrays.asList(3, 4));
+        assertEquals("000", result.getCode());
+        assertEquals(2, result.getResult());
+    }
+
+    @Test
+    void removeSongs_ShouldReturnRemovedCount() {
+        when(songlistService.removeSongs(1, Arrays.asList(3, 4))).thenReturn(1);
+
+        ResultVO<Integer> result = songlistController.removeSongs(1, Arrays.asList(3, 4));
+        assertEquals("000", result.getCode());
+        assertEquals(1, result.getResult());
+    }
+
+    @Test
+    void moveSong_ShouldReturnSuccess() {
+        when(songlistService.moveSong(1, 3, null)).thenReturn(true);
+
+        ResultVO<Boolean> result = songlistController.moveSong(1, 3, null);
+        assertEquals("000", result.getCode());
+        assertTrue(result.getResult());
+    }
+
+    @Test
+    void getPublicSonglistsPage_ShouldReturnPage() {
+        CursorPage<Songlist> page = new CursorPage<>(Arrays.asList(new Songlist()), null);
+        when(songlistService.getPublicSonglistsPage("5", 20)).thenReturn(page);
+
+        ResultVO<CursorPage<Songlist>> result = songlistController.getPublicSonglistsPage("5", 20);
+        assertEquals("000", result.getCode());
+        assertEquals(1, result.getResult().getItems().size());
+        assertNull(result.getResult().getNextCursor());
+    }
+
+    @Test
+    void exportPublicSonglists_ShouldStreamNdjson() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = songlistController.exportPublicSonglists();
+        assertEquals(NdjsonWriter.CONTENT_TYPE, response.getHeaders().getContentType().toString());
+        assertNotNull(response.getBody());
+
+        response.getBody().writeTo(new ByteArrayOutputStream());
+        verify(songlistService).exportPublicSonglists(any(OutputStream.class));
+    }
+}
@@ -0,0 +1,120 @@
+package com.devops26.music.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+import com.devops26.music.entity.CatalogCacheStats;
+import com.devops26.music.entity.CatalogStats;
+import com.devops26.music.entity.HistoryQueueStats;
+import com.devops26.music.entity.LockStats;
+import com.devops26.music.entity.PlayCounterStats;
+import com.devops26.music.entity.ResultVO;
+import com.devops26.music.entity.TrainingProgress;
+import com.devops26.music.service.CatalogStatsService;
+import com.devops26.music.service.ListeningHistoryService;
+import com.devops26.music.service.PlayCountService;
+import com.devops26.music.service.SongService;
+import com.devops26.music.util.KeyedLockProvider;
+import com.devops26.music.util.SongCatalogReader;
+
+class StatsControllerTest {
+
+    @Mock
+    private PlayCountService playCountService;
+
+    @Mock
+    private ListeningHistoryService listeningHistoryService;
+
+    @Mock
+    private CatalogStatsService catalogStatsService;
+
+    @Mock
+    private SongService songService;
+
+    @Mock
+    private SongCatalogReader songCatalogReader;
+
+    @Mock
+    private KeyedLockProvider keyedLockProvider;
+
+    @InjectMocks
+    private StatsController statsController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void getPlayCounterStats_ShouldReturnStats() {
+        PlayCounterStats stats = new PlayCounterStats();
+        stats.setPendingPlays(3L);
+        when(playCountService.getStats()).thenReturn(stats);
+
+        ResultVO<PlayCounterStats> result = statsController.getPlayCounterStats();
+        assertEquals("000", result.getCode());
+        assertEquals(3L, result.getResult().getPendingPlays());
+    }
+
+    @Test
+    void getHistoryQueueStats_ShouldReturnStats() {
+        HistoryQueueStats stats = new HistoryQueueStats();
+        stats.setQueuedEvents(5);
+        when(listeningHistoryService.getStats()).thenReturn(stats);
+
+        ResultVO<HistoryQueueStats> result = statsController.getHistoryQueueStats();
+        assertEquals("000", result.getCode());
+        assertEquals(5, result.getResult().getQueuedEvents());
+    }
+
+    @Test
+    void getCatalogStats_ShouldReturnStats() {
+        CatalogStats stats = new CatalogStats();
+        stats.setMaxPlayAmount(100);
+        when(catalogStatsService.getStats()).thenReturn(stats);
+
+        ResultVO<CatalogStats> result = statsController.getCatalogStats();
+        assertEquals("000", result.getCode());
+        assertEquals(100, result.getResult().getMaxPlayAmount());
+    }
+
+    @Test
+    void getCatalogCacheStats_ShouldReturnStats() {
+        CatalogCacheStats stats = new CatalogCacheStats();
+        stats.setHitRate(0.75);
+        when(songCatalogReader.getStats()).thenReturn(stats);
+
+        ResultVO<CatalogCacheStats> result = statsController.getCatalogCacheStats();
+        assertEquals("000", result.getCode());
+        assertEquals(0.75, result.getResult().getHitRate());
+    }
+
+    @Test
+    void getLockStats_ShouldReturnStats() {
+        LockStats stats = new LockStats();
+        stats.setProvider("redis");
+        stats.setTimeouts(2L);
+        when(keyedLockProvider.getStats()).thenReturn(stats);
+
+        ResultVO<LockStats> result = statsController.getLockStats();
+        assertEquals("000", result.getCode());
+        assertEquals("redis", result.getResult().getProvider());
+        assertEquals(2L, result.getResult().getTimeouts());
+    }
+
+    @Test
+    void getTrainingProgress_ShouldReturnProgress() {
+        TrainingProgress progress = new TrainingProgress();
+        progress.setProcessedUsers(42);
+        when(songService.getTrainingProgress()).thenReturn(progress);
+
+        ResultVO<TrainingProgress> result = statsController.getTrainingProgress();
+        assertEquals("000", result.getCode());
+        assertEquals(42, result.getResult().getProcessedUsers());
+    }
+}
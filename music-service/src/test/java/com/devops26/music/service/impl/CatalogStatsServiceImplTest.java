@@ -0,0 +1,85 @@
+package com.devops26.music.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+import com.devops26.music.entity.CatalogStats;
+import com.devops26.music.enums.SongTag;
+import com.devops26.music.repository.SongRepository;
+
+class CatalogStatsServiceImplTest {
+
+    @Mock
+    private SongRepository songRepository;
+
+    @InjectMocks
+    private CatalogStatsServiceImpl catalogStatsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void refresh_ComputesStats() {
+        List<Integer> playAmounts = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            playAmounts.add(i);
+        }
+        List<Object[]> tagRows = new ArrayList<>();
+        tagRows.add(new Object[]{SongTag.POP, 3L});
+        when(songRepository.findAllPlayAmounts()).thenReturn(playAmounts);
+        when(songRepository.findAllRates()).thenReturn(Arrays.asList(4.5, 5.0, 2.0));
+        when(songRepository.countSongsByTag()).thenReturn(tagRows);
+
+        CatalogStats stats = catalogStatsService.refresh();
+
+        assertEquals(100, stats.getSongCount());
+        assertEquals(5050L, stats.getTotalPlayAmount());
+        assertEquals(100, stats.getMaxPlayAmount());
+        assertEquals(50, stats.getP50PlayAmount());
+        assertEquals(90, stats.getP90PlayAmount());
+        assertEquals(3, stats.getRatedSongCount());
+        assertEquals(Arrays.asList(0L, 0L, 1L, 0L, 2L), stats.getRateHistogram());
+        assertEquals(3L, stats.getTagCounts().get(SongTag.POP));
+    }
+
+    @Test
+    void getStats_ComputesOnceAndCaches() {
+        when(songRepository.findAllPlayAmounts()).thenReturn(Collections.emptyList());
+        when(songRepository.findAllRates()).thenReturn(Collections.emptyList());
+        when(songRepository.countSongsByTag()).thenReturn(Collections.emptyList());
+
+        CatalogStats first = catalogStatsService.getStats();
+        CatalogStats second = catalogStatsService.getStats();
+
+        assertSame(first, second);
+        assertEquals(0, first.getMaxPlayAmount());
+        verify(songRepository, times(1)).findAllPlayAmounts();
+    }
+
+    @Test
+    void refresh_FailureKeepsPreviousStats() {
+        when(songRepository.findAllPlayAmounts()).thenReturn(Arrays.asList(1, 2));
+        when(songRepository.findAllRates()).thenReturn(Collections.emptyList());
+        when(songRepository.countSongsByTag()).thenReturn(Collections.emptyList());
+        CatalogStats previous = catalogStatsService.refresh();
+
+        when(songRepository.findAllPlayAmounts()).thenThrow(new RuntimeException("db down"));
+
+        assertSame(previous, catalogStatsService.refresh());
+    }
+}
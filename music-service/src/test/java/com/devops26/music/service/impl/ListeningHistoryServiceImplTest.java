@@ -0,0 +1,80 @@
+package com.devops26.music.service.impl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devops26.music.entity.HistoryQueueStats;
+import com.devops26.music.entity.PlayEvent;
+import com.devops26.music.entity.ResultVO;
+import com.devops26.music.feign.UserFeign;
+
+class ListeningHistoryServiceImplTest {
+
+    @Mock
+    private UserFeign userFeign;
+
+    private ListeningHistoryServiceImpl listeningHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        listeningHistoryService = new ListeningHistoryServiceImpl(2);
+        ReflectionTestUtils.setField(listeningHistoryService, "userFeign", userFeign);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_SendsQueuedEventsInOneBatch() {
+        when(userFeign.appendHistory(any())).thenReturn(ResultVO.buildSuccess(true));
+        listeningHistoryService.publish(1, 10);
+        listeningHistoryService.publish(1, 11);
+
+        listeningHistoryService.flush();
+
+        ArgumentCaptor<List<PlayEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userFeign).appendHistory(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(0, listeningHistoryService.getStats().getQueuedEvents());
+    }
+
+    @Test
+    void publish_DropsWhenQueueFull() {
+        listeningHistoryService.publish(1, 10);
+        listeningHistoryService.publish(1, 11);
+        listeningHistoryService.publish(1, 12);
+
+        HistoryQueueStats stats = listeningHistoryService.getStats();
+        assertEquals(2, stats.getQueuedEvents());
+        assertEquals(1L, stats.getDroppedEvents());
+    }
+
+    @Test
+    void flush_FailureRequeuesEvents() {
+        when(userFeign.appendHistory(any())).thenThrow(new RuntimeException("user-service down"));
+        listeningHistoryService.publish(1, 10);
+
+        listeningHistoryService.flush();
+
+        HistoryQueueStats stats = listeningHistoryService.getStats();
+        assertEquals(1, stats.getQueuedEvents());
+        assertEquals(1L, stats.getFailedBatches());
+    }
+
+    @Test
+    void flush_EmptyQueue() {
+        listeningHistoryService.flush();
+
+        verify(userFeign, never()).appendHistory(any());
+    }
+}
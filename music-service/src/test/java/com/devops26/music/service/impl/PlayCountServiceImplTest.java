@@ -0,0 +1,120 @@
+package com.devops26.music.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devops26.music.entity.PlayCounterStats;
+import com.devops26.music.repository.SongRepository;
+import com.devops26.music.util.SongLeaderboard;
+
+class PlayCountServiceImplTest {
+
+    @Mock
+    private SongRepository songRepository;
+
+    @Mock
+    private SongLeaderboard songLeaderboard;
+
+    @InjectMocks
+    private PlayCountServiceImpl playCountService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void flush_MergesPlaysPerSong() {
+        playCountService.recordPlay(1);
+        playCountService.recordPlay(1);
+        playCountService.recordPlay(1);
+        playCountService.recordPlay(2);
+
+        playCountService.flush();
+
+        verify(songRepository).incrementPlayAmount(1, 3);
+        verify(songRepository).incrementPlayAmount(2, 1);
+        PlayCounterStats stats = playCountService.getStats();
+        assertEquals(0L, stats.getPendingPlays());
+        assertEquals(4L, stats.getFlushedPlays());
+    }
+
+    @Test
+    void flush_NothingPending() {
+        playCountService.flush();
+
+        verify(songRepository, never()).incrementPlayAmount(anyInt(), anyInt());
+    }
+
+    @Test
+    void flush_FailureKeepsDelta() {
+        playCountService.recordPlay(1);
+        playCountService.recordPlay(1);
+        when(songRepository.incrementPlayAmount(1, 2)).thenThrow(new RuntimeException("db down"));
+
+        playCountService.flush();
+
+        PlayCounterStats stats = playCountService.getStats();
+        assertEquals(2L, stats.getPendingPlays());
+        assertEquals(1L, stats.getFailedFlushes());
+
+        doReturn(1).when(songRepository).incrementPlayAmount(1, 2);
+        playCountService.flush();
+
+        verify(songRepository, times(2)).incrementPlayAmount(eq(1), eq(2));
+        assertEquals(0L, playCountService.getStats().getPendingPlays());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_KeepsPlaysAboveIntRange() {
+        LongAdder plays = new LongAdder();
+        plays.add(Integer.MAX_VALUE + 5L);
+        ((Map<Integer, LongAdder>) ReflectionTestUtils.getField(playCountService, "pendingPlays")).put(1, plays);
+
+        playCountService.flush();
+
+        verify(songRepository).incrementPlayAmount(1, Integer.MAX_VALUE);
+        assertEquals(5L, playCountService.getStats().getPendingPlays());
+
+        playCountService.flush();
+
+        verify(songRepository).incrementPlayAmount(1, 5);
+    }
+
+    @Test
+    void flush_UpdatesLeaderboardWithWrittenDeltasOnly() {
+        playCountService.recordPlay(1);
+        playCountService.recordPlay(1);
+        playCountService.recordPlay(2);
+        when(songRepository.incrementPlayAmount(2, 1)).thenThrow(new RuntimeException("db down"));
+
+        playCountService.flush();
+
+        verify(songLeaderboard).recordPlays(Map.of(1, 2L));
+    }
+
+    @Test
+    void shutdown_FlushesPendingPlays() {
+        playCountService.recordPlay(5);
+
+        playCountService.shutdown();
+
+        verify(songRepository).incrementPlayAmount(5, 1);
+    }
+}
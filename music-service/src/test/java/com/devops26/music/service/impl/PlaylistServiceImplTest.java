@@ -13,17 +13,26 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.devops26.music.entity.Playlist;
 import com.devops26.music.enums.PlayStrategy;
 import com.devops26.music.exception.TuneIslandException;
 import com.devops26.music.repository.PlaylistRepository;
 import com.devops26.music.repository.SongRepository;
+import com.devops26.music.util.KeyedLockProvider;
+import com.devops26.music.util.RetryPolicy;
+import com.devops26.music.util.StripedKeyedLockProvider;
 
 class PlaylistServiceImplTest {
 
@@ -39,6 +48,8 @@ class PlaylistServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(playlistService, "keyedLockProvider", new StripedKeyedLockProvider(16, 1000));
+        ReflectionTestUtils.setField(playlistService, "retryPolicy", new RetryPolicy(3, 0, 0));
     }
 
     @Test
@@ -165,6 +176,55 @@ class PlaylistServiceImplTest {
         assertThrows(RuntimeException.class, () -> playlistService.updatePlaylist(playlist));
     }
 
+    @Test
+    void updatePlaylist_RetriesOnVersionConflict() {
+        Playlist playlist = new Playlist();
+        playlist.setPlaylistId(1);
+        playlist.setUserId(1);
+        playlist.setVersion(5L);
+
+        when(playlistRepository.findByUserId(1)).thenReturn(playlist);
+        when(playlistRepository.save(any(Playlist.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Playlist.class, 1))
+            .thenReturn(playlist);
+
+        assertTrue(playlistService.updatePlaylist(playlist));
+        verify(playlistRepository, times(2)).save(playlist);
+    }
+
+    @Test
+    void updatePlaylist_StaleVersion() {
+        Playlist current = new Playlist();
+        current.setPlaylistId(1);
+        current.setUserId(1);
+        current.setVersion(5L);
+
+        Playlist edited = new Playlist();
+        edited.setPlaylistId(1);
+        edited.setUserId(1);
+        edited.setVersion(4L);
+
+        when(playlistRepository.findByUserId(1)).thenReturn(current);
+
+        assertThrows(TuneIslandException.class, () -> playlistService.updatePlaylist(edited));
+        verify(playlistRepository, never()).save(any(Playlist.class));
+    }
+
+    @Test
+    void updatePlaylist_LockTimeout() {
+        KeyedLockProvider lockProvider = mock(KeyedLockProvider.class);
+        when(lockProvider.withLock(eq("playlist:1"), any())).thenThrow(TuneIslandException.lockTimeout());
+        ReflectionTestUtils.setField(playlistService, "keyedLockProvider", lockProvider);
+
+        Playlist playlist = new Playlist();
+        playlist.setPlaylistId(1);
+        playlist.setUserId(1);
+        when(playlistRepository.findByUserId(1)).thenReturn(playlist);
+
+        assertThrows(TuneIslandException.class, () -> playlistService.updatePlaylist(playlist));
+        verify(playlistRepository, never()).save(any(Playlist.class));
+    }
+
     @Test
     void createPlaylist_Success() {
         Playlist playlist = new Playlist();
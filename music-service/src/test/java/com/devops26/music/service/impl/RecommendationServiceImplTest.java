@@ -0,0 +1,74 @@
+package com.devops26.music.service.impl;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+import com.devops26.music.entity.User;
+import com.devops26.music.entity.UserRecommendation;
+import com.devops26.music.repository.UserRecommendationRepository;
+
+class RecommendationServiceImplTest {
+
+    @Mock
+    private UserRecommendationRepository userRecommendationRepository;
+
+    @InjectMocks
+    private RecommendationServiceImpl recommendationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void saveRecommendations_PacksSongIds() {
+        User user = new User();
+        user.setUserId(1);
+        user.setRecommendedSongs(Arrays.asList(3, 1, 2));
+
+        recommendationService.saveRecommendations(Arrays.asList(user));
+
+        ArgumentCaptor<byte[]> packed = ArgumentCaptor.forClass(byte[].class);
+        verify(userRecommendationRepository).upsert(eq(1), packed.capture(), any(Date.class));
+        assertEquals(12, packed.getValue().length);
+
+        when(userRecommendationRepository.findByUserId(1))
+                .thenReturn(new UserRecommendation(1, packed.getValue(), new Date()));
+        assertEquals(Arrays.asList(3, 1, 2), recommendationService.getRecommendations(1));
+    }
+
+    @Test
+    void saveRecommendations_SkipsFailedUsers() {
+        User user = new User();
+        user.setUserId(1);
+
+        recommendationService.saveRecommendations(Arrays.asList(user));
+
+        verify(userRecommendationRepository, never()).upsert(anyInt(), any(), any());
+    }
+
+    @Test
+    void getRecommendations_NotFound() {
+        when(userRecommendationRepository.findByUserId(2)).thenReturn(null);
+
+        List<Integer> result = recommendationService.getRecommendations(2);
+
+        assertTrue(result.isEmpty());
+    }
+}
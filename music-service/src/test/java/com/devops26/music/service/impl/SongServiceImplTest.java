@@ -1,35 +1,74 @@
 package com.devops26.music.service.impl;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
-
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.devops26.music.entity.CursorPage;
 import com.devops26.music.entity.ResultVO;
 import com.devops26.music.entity.Song;
+import com.devops26.music.entity.SongSearchPage;
+import com.devops26.music.entity.SongSuggestion;
+import com.devops26.music.entity.SongSummary;
 import com.devops26.music.entity.Songlist;
+import com.devops26.music.entity.SonglistTrack;
 import com.devops26.music.entity.User;
+import com.devops26.music.enums.MembershipKind;
+import com.devops26.music.enums.RankWindow;
 import com.devops26.music.enums.UserRole;
 import com.devops26.music.enums.SongTag;
+import com.devops26.music.enums.SuggestionType;
 import com.devops26.music.exception.TuneIslandException;
 import com.devops26.music.feign.UserFeign;
+import com.devops26.music.repository.MembershipRepository;
 import com.devops26.music.repository.SongRepository;
 import com.devops26.music.repository.SonglistRepository;
+import com.devops26.music.repository.SonglistTrackRepository;
+import com.devops26.music.service.CatalogStatsService;
+import com.devops26.music.service.ListeningHistoryService;
+import com.devops26.music.service.PlayCountService;
+import com.devops26.music.service.RecommendationService;
 import com.devops26.music.service.SonglistService;
 import com.devops26.music.util.MLRecommenderUtil;
+import com.devops26.music.util.SongCatalogReader;
+import com.devops26.music.util.SongLeaderboard;
+import com.devops26.music.util.SongSearchIndex;
+import com.devops26.music.util.SongSuggester;
+import com.devops26.music.util.TokenUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 class SongServiceImplTest {
 
@@ -48,12 +87,49 @@ class SongServiceImplTest {
     @Mock
     private SongRepository songRepository;
 
+    @Mock
+    private PlayCountService playCountService;
+
+    @Mock
+    private ListeningHistoryService listeningHistoryService;
+
+    @Mock
+    private TokenUtil tokenUtil;
+
+    @Mock
+    private CatalogStatsService catalogStatsService;
+
+    @Mock
+    private RecommendationService recommendationService;
+
+    @Mock
+    private SongCatalogReader songCatalogReader;
+
+    @Mock
+    private SongSearchIndex songSearchIndex;
+
+    @Mock
+    private SongSuggester songSuggester;
+
+    @Mock
+    private SongLeaderboard songLeaderboard;
+
+    @Mock
+    private MembershipRepository membershipRepository;
+
+    @Mock
+    private SonglistTrackRepository songlistTrackRepository;
+
     @InjectMocks
     private SongServiceImpl songService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(songService, "defaultSearchPageSize", 50);
+        ReflectionTestUtils.setField(songService, "maxSearchPageSize", 100);
+        ReflectionTestUtils.setField(songService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(songService, "objectMapper", new ObjectMapper());
     }
 
     @Test
@@ -101,27 +177,91 @@ class SongServiceImplTest {
         Song song = new Song();
         song.setSongId(1);
         
-        when(songRepository.findBySongId(1)).thenReturn(song);
+        when(songCatalogReader.findById(1)).thenReturn(song);
 
         Song result = songService.getSongById(1);
         
         assertNotNull(result);
         assertEquals(1, result.getSongId());
+        verify(songRepository, never()).findBySongId(any());
     }
 
     @Test
     void getAllSongs_Success() {
-        List<Song> songs = Arrays.asList(new Song(), new Song());
-        when(songRepository.findAll()).thenReturn(songs);
+        List<SongSummary> songs = Arrays.asList(new SongSummary(), new SongSummary());
+        when(songRepository.findAllSummaries()).thenReturn(songs);
 
-        List<Song> result = songService.getAllSongs();
+        List<SongSummary> result = songService.getAllSongs();
         
         assertEquals(2, result.size());
     }
 
+    @Test
+    void getSongsPage_ById() {
+        when(songRepository.findSummariesAfterId(eq(10), any())).thenReturn(Arrays.asList(
+            createSummary(11, 5), createSummary(12, 3), createSummary(13, 9)));
+
+        CursorPage<SongSummary> page = songService.getSongsPage("10", 2, "id");
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("12", page.getNextCursor());
+    }
+
+    @Test
+    void getSongsPage_ByPlayAmount() {
+        when(songRepository.findSummariesAfterPlayAmount(eq(50), eq(7), any())).thenReturn(Arrays.asList(
+            createSummary(3, 40), createSummary(1, 30)));
+
+        CursorPage<SongSummary> page = songService.getSongsPage("50_7", 1, "playAmount");
+
+        assertEquals(1, page.getItems().size());
+        assertEquals("40_3", page.getNextCursor());
+    }
+
+    @Test
+    void getSongsPage_ByPlayAmountFirstPage() {
+        when(songRepository.findFirstSummariesByPlayAmount(PageRequest.of(0, 3))).thenReturn(Arrays.asList(
+            createSummary(4, 50), createSummary(7, 50), createSummary(2, 50)));
+
+        CursorPage<SongSummary> page = songService.getSongsPage(null, 2, "playAmount");
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("50_7", page.getNextCursor());
+        verify(songRepository, never()).findTopSummaries(any());
+    }
+
+    @Test
+    void getSongsPage_LastPage() {
+        when(songRepository.findSummariesAfterId(eq(0), any())).thenReturn(Arrays.asList(createSummary(1, 0)));
+
+        CursorPage<SongSummary> page = songService.getSongsPage(null, 20, null);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getSongsPage_InvalidCursor() {
+        assertThrows(TuneIslandException.class, () -> songService.getSongsPage("abc", 20, "id"));
+        assertThrows(TuneIslandException.class, () -> songService.getSongsPage("50", 20, "playAmount"));
+    }
+
+    @Test
+    void exportSongs_WritesOneLinePerSong() throws Exception {
+        when(songRepository.streamAllSummaries()).thenReturn(Stream.of(createSummary(1, 10), createSummary(2, 20)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        songService.exportSongs(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"songId\":2"));
+    }
+
     @Test
     void updateSong_Success() {
         Song song = new Song();
+        song.setSongId(1);
         User admin = new User();
         admin.setRole(UserRole.ADMIN);
         
@@ -132,6 +272,9 @@ class SongServiceImplTest {
         
         assertTrue(result);
         verify(songRepository).save(any(Song.class));
+        verify(songCatalogReader).invalidate(1);
+        verify(songSearchIndex).index(song);
+        verify(songSuggester).onSongChanged(song);
     }
 
     @Test
@@ -147,241 +290,324 @@ class SongServiceImplTest {
 
     @Test
     void searchSongsByName_Success() {
-        List<Song> songs = Arrays.asList(new Song(), new Song());
-        when(songRepository.findByNameContainingIgnoreCaseOrderByPlayAmountDesc("test"))
-            .thenReturn(songs);
+        List<SongSummary> songs = Arrays.asList(new SongSummary(), new SongSummary());
+        when(songRepository.findSummariesByName("test")).thenReturn(songs);
 
-        List<Song> result = songService.searchSongsByName("test");
+        List<SongSummary> result = songService.searchSongsByName("test");
         
         assertEquals(2, result.size());
     }
 
     @Test
     void searchSongsByName_EmptyKeyword() {
-        List<Song> result = songService.searchSongsByName("");
+        List<SongSummary> result = songService.searchSongsByName("");
         assertTrue(result.isEmpty());
     }
 
     @Test
     void searchSongsBySinger_Success() {
-        List<Song> songs = Arrays.asList(new Song(), new Song());
-        when(songRepository.findBySingerContainingIgnoreCaseOrderByPlayAmountDesc("singer"))
-            .thenReturn(songs);
+        List<SongSummary> songs = Arrays.asList(new SongSummary(), new SongSummary());
+        when(songRepository.findSummariesBySinger("singer")).thenReturn(songs);
 
-        List<Song> result = songService.searchSongsBySinger("singer");
+        List<SongSummary> result = songService.searchSongsBySinger("singer");
         
         assertEquals(2, result.size());
     }
 
     @Test
     void searchSongsBySinger_EmptyKeyword() {
-        List<Song> result = songService.searchSongsBySinger("");
+        List<SongSummary> result = songService.searchSongsBySinger("");
         assertTrue(result.isEmpty());
     }
 
     @Test
-    void searchSongs_Success() {
-        List<Song> songs = Arrays.asList(new Song(), new Song());
-        when(songRepository.findByNameContainingIgnoreCaseOrSingerContainingIgnoreCaseOrderByPlayAmountDesc(
-                anyString(), anyString())).thenReturn(songs);
+    void searchSongs_ReturnsEveryHit() throws Exception {
+        List<SongSummary> songs = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            songs.add(new SongSummary());
+        }
+        when(songSearchIndex.isReady()).thenReturn(true);
+        when(songSearchIndex.searchAll("keyword")).thenReturn(songs);
 
-        List<Song> result = songService.searchSongs("keyword");
+        List<SongSummary> result = songService.searchSongs("keyword");
         
-        assertEquals(2, result.size());
+        assertEquals(60, result.size());
+        verify(songSearchIndex, never()).search(anyString(), anyInt(), anyInt());
+        verify(songRepository, never()).findSummariesByKeyword(anyString());
+    }
+
+    @Test
+    void searchSongs_IndexNotReadyFallsBackToDatabase() {
+        List<SongSummary> songs = Arrays.asList(new SongSummary(), new SongSummary(), new SongSummary());
+        when(songSearchIndex.isReady()).thenReturn(false);
+        when(songRepository.findSummariesByKeyword("keyword")).thenReturn(songs);
+
+        SongSearchPage result = songService.searchSongs("keyword", 1, 2);
+
+        assertEquals(3L, result.getTotal());
+        assertEquals(1, result.getSongs().size());
+    }
+
+    @Test
+    void searchSongs_IndexFailureFallsBackToDatabase() throws Exception {
+        when(songSearchIndex.isReady()).thenReturn(true);
+        when(songSearchIndex.searchAll(anyString())).thenThrow(new IOException("index closed"));
+        when(songRepository.findSummariesByKeyword("keyword")).thenReturn(Arrays.asList(new SongSummary()));
+
+        List<SongSummary> result = songService.searchSongs("keyword");
+
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void suggest_DelegatesToSuggester() {
+        List<SongSuggestion> suggestions = Arrays.asList(
+            new SongSuggestion(SuggestionType.SONG, "晴天", 1, 100L));
+        when(songSuggester.suggest("qt", 5)).thenReturn(suggestions);
+
+        List<SongSuggestion> result = songService.suggest("qt", 5);
+
+        assertEquals(1, result.size());
+        verify(songRepository, never()).findSummariesByName(anyString());
+    }
+
+    @Test
+    void suggest_EmptyPrefix() {
+        List<SongSuggestion> result = songService.suggest(" ", 5);
+        assertTrue(result.isEmpty());
+        verify(songSuggester, never()).suggest(anyString(), anyInt());
     }
 
     @Test
     void searchSongs_EmptyKeyword() {
-        List<Song> result = songService.searchSongs("");
+        List<SongSummary> result = songService.searchSongs("");
         assertTrue(result.isEmpty());
     }
 
     @Test
     void rateSong_Success() {
-        Song song = new Song();
-        song.setSongId(1);
-        song.setRate(4.0);
-        song.setRateNum(1);
-        song.setRateUserList(new ArrayList<>());
         User user = new User();
         user.setUserId(1);
         
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
-        when(songRepository.findBySongId(1)).thenReturn(song);
-        when(songRepository.save(any())).thenReturn(song);
+        when(songRepository.existsById(1)).thenReturn(true);
+        when(membershipRepository.add("SONG_RATER", 1, 1)).thenReturn(1);
 
         Boolean result = songService.rateSong(1, 4.5);
         
         assertTrue(result);
-        verify(songRepository).save(any(Song.class));
+        verify(songRepository).addRating(1, 4.5);
+        verify(songRepository, never()).save(any(Song.class));
+        verify(songCatalogReader).invalidate(1);
+    }
+
+    @Test
+    void rateSong_SongNotFound() {
+        User user = new User();
+        user.setUserId(1);
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+        when(songRepository.existsById(1)).thenReturn(false);
+
+        assertThrows(TuneIslandException.class, () -> songService.rateSong(1, 4.5));
+        verify(songRepository, never()).addRating(anyInt(), any());
     }
 
     @Test
     void rateSong_AlreadyRated() {
-        Song song = new Song();
-        song.setSongId(1);
-        song.setRate(4.0);
-        song.setRateNum(1);
-        List<Integer> rateUserList = new ArrayList<>();
-        rateUserList.add(1);
-        song.setRateUserList(rateUserList);
         User user = new User();
         user.setUserId(1);
         
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
-        when(songRepository.findBySongId(1)).thenReturn(song);
+        when(songRepository.existsById(1)).thenReturn(true);
+        when(membershipRepository.add("SONG_RATER", 1, 1)).thenReturn(0);
 
         assertThrows(TuneIslandException.class, () -> songService.rateSong(1, 4.5));
+        verify(songRepository, never()).addRating(anyInt(), any());
     }
 
     @Test
     void rateSong_InvalidRate() {
-        Song song = new Song();
-        song.setSongId(1);
-        song.setRateUserList(new ArrayList<>());
         User user = new User();
         user.setUserId(1);
         
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
-        when(songRepository.findBySongId(1)).thenReturn(song);
+        when(songRepository.existsById(1)).thenReturn(true);
 
         assertThrows(TuneIslandException.class, () -> songService.rateSong(1, 6.0));
+        verify(membershipRepository, never()).add(anyString(), anyInt(), anyInt());
+        verify(songRepository, never()).addRating(anyInt(), any());
+    }
+
+    @Test
+    void hasRated_ChecksMembership() {
+        when(tokenUtil.getCurrentUserId()).thenReturn(2);
+        when(membershipRepository.existsByKindAndEntityIdAndUserId(MembershipKind.SONG_RATER, 1, 2)).thenReturn(true);
+
+        assertTrue(songService.hasRated(1));
+    }
+
+    @Test
+    void hasRated_Anonymous() {
+        when(tokenUtil.getCurrentUserId()).thenReturn(null);
+
+        assertFalse(songService.hasRated(1));
     }
 
     @Test
     void play_Success() {
-        Song song = new Song();
-        song.setSongId(1);
-        song.setPlayAmount(0);
-        User user = new User();
-        user.setUserId(1);
-        user.setHistory(new ArrayList<>());
-        
-        when(songRepository.findBySongId(1)).thenReturn(song);
-        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
-        when(songRepository.save(any())).thenReturn(song);
-        when(userFeign.save(any())).thenReturn(ResultVO.buildSuccess(user));
+        when(songRepository.existsById(1)).thenReturn(true);
+        when(tokenUtil.getCurrentUserId()).thenReturn(2);
 
         Boolean result = songService.play(1);
         
         assertTrue(result);
-        verify(songRepository).save(any(Song.class));
-        verify(userFeign).save(any(User.class));
+        verify(playCountService).recordPlay(1);
+        verify(listeningHistoryService).publish(2, 1);
+        verify(songRepository, never()).save(any(Song.class));
+        verify(userFeign, never()).save(any(User.class));
+    }
+
+    @Test
+    void play_Anonymous() {
+        when(songRepository.existsById(1)).thenReturn(true);
+        when(tokenUtil.getCurrentUserId()).thenReturn(null);
+
+        Boolean result = songService.play(1);
+
+        assertTrue(result);
+        verify(playCountService).recordPlay(1);
+        verify(listeningHistoryService, never()).publish(any(), any());
+    }
+
+    @Test
+    void play_ForgedTokenPublishesNothing() {
+        TokenUtil realTokenUtil = new TokenUtil(100, 60000);
+        ReflectionTestUtils.setField(realTokenUtil, "userFeign", userFeign);
+        ReflectionTestUtils.setField(songService, "tokenUtil", realTokenUtil);
+        String forged = JWT.create().withAudience("2").sign(Algorithm.HMAC256("not-the-password"));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("token", forged);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        when(songRepository.existsById(1)).thenReturn(true);
+        when(userFeign.verifyToken(forged)).thenReturn(ResultVO.buildSuccess(false));
+
+        try {
+            assertTrue(songService.play(1));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        verify(playCountService).recordPlay(1);
+        verify(listeningHistoryService, never()).publish(any(), any());
     }
 
     @Test
     void play_SongNotFound() {
-        when(songRepository.findBySongId(1)).thenReturn(null);
+        when(songRepository.existsById(1)).thenReturn(false);
 
         assertThrows(TuneIslandException.class, () -> songService.play(1));
+        verify(playCountService, never()).recordPlay(any());
     }
 
     @Test
     void collectSong_Success() {
-        Song song = new Song();
-        song.setSongId(1);
         Songlist songlist = new Songlist();
-        songlist.setSongs(new ArrayList<>());
         songlist.setOwnerId(1);
         User user = new User();
         user.setUserId(1);
         
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
         when(songlistRepository.findBySonglistId(1)).thenReturn(songlist);
-        when(songlistRepository.save(any())).thenReturn(songlist);
+        when(songlistTrackRepository.append(1, 1, SonglistTrack.POSITION_GAP)).thenReturn(1);
 
         Boolean result = songService.collectSong(1, 1);
         
         assertTrue(result);
-        verify(songlistRepository).save(any(Songlist.class));
+        verify(songlistTrackRepository).append(1, 1, SonglistTrack.POSITION_GAP);
+        verify(songlistRepository).incrementVersion(1);
+        verify(songlistRepository, never()).save(any(Songlist.class));
     }
 
     @Test
     void collectSong_AlreadyCollected() {
-        Song song = new Song();
-        song.setSongId(1);
         Songlist songlist = new Songlist();
-        List<Integer> songs = new ArrayList<>();
-        songs.add(1);
-        songlist.setSongs(songs);
         songlist.setOwnerId(1);
         User user = new User();
         user.setUserId(1);
         
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
         when(songlistRepository.findBySonglistId(1)).thenReturn(songlist);
+        when(songlistTrackRepository.append(1, 1, SonglistTrack.POSITION_GAP)).thenReturn(0);
 
         assertThrows(TuneIslandException.class, () -> songService.collectSong(1, 1));
     }
 
     @Test
-    void likeSong_Success() {
-        Song song = new Song();
-        song.setSongId(1);
+    void collectSong_NotOwner() {
         Songlist songlist = new Songlist();
-        songlist.setSongs(new ArrayList<>());
+        songlist.setOwnerId(2);
+        User user = new User();
+        user.setUserId(1);
+
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+        when(songlistRepository.findBySonglistId(1)).thenReturn(songlist);
+
+        assertThrows(TuneIslandException.class, () -> songService.collectSong(1, 1));
+        verify(songlistTrackRepository, never()).append(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void likeSong_Success() {
         User user = new User();
         user.setUserId(1);
         
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
-        when(songlistService.getMylikeSonglist(1)).thenReturn(songlist);
-        when(songlistRepository.save(any())).thenReturn(songlist);
+        when(songlistService.getMylikeSonglistId(1)).thenReturn(5);
+        when(songlistTrackRepository.append(5, 1, SonglistTrack.POSITION_GAP)).thenReturn(1);
 
         Boolean result = songService.likeSong(1);
         
         assertTrue(result);
-        verify(songlistRepository).save(any(Songlist.class));
+        verify(songlistTrackRepository).append(5, 1, SonglistTrack.POSITION_GAP);
+        verify(songlistRepository).incrementVersion(5);
+        verify(songlistService, never()).getMylikeSonglist(anyInt());
     }
 
     @Test
     void likeSong_AlreadyLiked() {
-        Song song = new Song();
-        song.setSongId(1);
-        Songlist songlist = new Songlist();
-        List<Integer> songs = new ArrayList<>();
-        songs.add(1);
-        songlist.setSongs(songs);
         User user = new User();
         user.setUserId(1);
         
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
-        when(songlistService.getMylikeSonglist(1)).thenReturn(songlist);
+        when(songlistService.getMylikeSonglistId(1)).thenReturn(5);
+        when(songlistTrackRepository.append(5, 1, SonglistTrack.POSITION_GAP)).thenReturn(0);
 
         assertThrows(TuneIslandException.class, () -> songService.likeSong(1));
     }
 
     @Test
     void cancelLikeSong_Success() {
-        Song song = new Song();
-        song.setSongId(1);
-        Songlist songlist = new Songlist();
-        List<Integer> songs = new ArrayList<>();
-        songs.add(1);
-        songlist.setSongs(songs);
         User user = new User();
         user.setUserId(1);
         
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
-        when(songlistService.getMylikeSonglist(1)).thenReturn(songlist);
-        when(songlistRepository.save(any())).thenReturn(songlist);
+        when(songlistService.getMylikeSonglistId(1)).thenReturn(5);
+        when(songlistTrackRepository.removeSongs(5, List.of(1))).thenReturn(1);
 
         Boolean result = songService.cancelLikeSong(1);
         
         assertTrue(result);
-        verify(songlistRepository).save(any(Songlist.class));
+        verify(songlistTrackRepository).removeSongs(5, List.of(1));
     }
 
     @Test
     void cancelLikeSong_NotLiked() {
-        Song song = new Song();
-        song.setSongId(1);
-        Songlist songlist = new Songlist();
-        songlist.setSongs(new ArrayList<>());
         User user = new User();
         user.setUserId(1);
         
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
-        when(songlistService.getMylikeSonglist(1)).thenReturn(songlist);
+        when(songlistService.getMylikeSonglistId(1)).thenReturn(5);
+        when(songlistTrackRepository.removeSongs(5, List.of(1))).thenReturn(0);
 
         assertThrows(TuneIslandException.class, () -> songService.cancelLikeSong(1));
     }
@@ -393,101 +619,216 @@ class SongServiceImplTest {
         song1.setSongId(1);
         Song song2 = new Song();
         song2.setSongId(2);
-        User user = new User();
-        user.setUserId(1);
-        user.setRecommendedSongs(recommendedIds);
         
-        when(userFeign.getUserById(1)).thenReturn(ResultVO.buildSuccess(user));
-        when(songRepository.findBySongId(1)).thenReturn(song1);
-        when(songRepository.findBySongId(2)).thenReturn(song2);
+        when(recommendationService.getRecommendations(1)).thenReturn(recommendedIds);
+        when(songCatalogReader.findAllInOrder(recommendedIds)).thenReturn(Arrays.asList(song1, song2));
 
         List<Song> result = songService.getRecommendedSongs(1, 10);
         
         assertEquals(2, result.size());
+        verify(songRepository, never()).findBySongId(any());
+    }
+
+    @Test
+    void getRecommendedSongs_LimitsResult() {
+        List<Integer> recommendedIds = Arrays.asList(1, 2);
+        Song song1 = new Song();
+        song1.setSongId(1);
+        Song song2 = new Song();
+        song2.setSongId(2);
+
+        when(recommendationService.getRecommendations(1)).thenReturn(recommendedIds);
+        when(songCatalogReader.findAllInOrder(recommendedIds)).thenReturn(Arrays.asList(song1, song2));
+
+        List<Song> result = songService.getRecommendedSongs(1, 1);
+
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0).getSongId());
     }
 
     @Test
     void getRecommendedSongs_NoRecommendations() {
-        User user = new User();
-        user.setUserId(1);
         List<Song> songs = Arrays.asList(new Song(), new Song());
         
-        when(userFeign.getUserById(1)).thenReturn(ResultVO.buildSuccess(user));
-        when(songRepository.findAllByOrderByPlayAmountDesc()).thenReturn(songs);
+        when(recommendationService.getRecommendations(1)).thenReturn(new ArrayList<>());
+        when(songCatalogReader.findTopPlayed(10)).thenReturn(songs);
 
         List<Song> result = songService.getRecommendedSongs(1, 10);
         
         assertEquals(2, result.size());
+        verify(songRepository, never()).findAll();
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     void trainRecommendationModel_Success() {
         List<User> users = Arrays.asList(new User(), new User());
         List<Song> songs = Arrays.asList(new Song(), new Song());
         
-        when(userFeign.findAll()).thenReturn(ResultVO.buildSuccess(users));
+        when(userFeign.findAllProfiles()).thenReturn(ResultVO.buildSuccess(users));
         when(songRepository.findAll()).thenReturn(songs);
-        when(userFeign.saveAll(any())).thenReturn(ResultVO.buildSuccess(users));
 
         songService.trainRecommendationModel();
         
-        verify(mlRecommenderUtil).trainModel(any(), any());
-        verify(userFeign).saveAll(any());
+        verify(catalogStatsService).refresh();
+        ArgumentCaptor<Consumer<List<User>>> writer = ArgumentCaptor.forClass(Consumer.class);
+        verify(mlRecommenderUtil).trainModel(any(), any(), writer.capture());
+
+        writer.getValue().accept(users);
+        verify(recommendationService).saveRecommendations(users);
+        verify(userFeign, never()).saveAll(any());
     }
 
     @Test
     void getSongsByTag_Success() {
-        List<Song> songs = Arrays.asList(new Song(), new Song());
-        when(songRepository.findByTagsContainingOrderByPlayAmountDesc(SongTag.POP)).thenReturn(songs);
+        List<SongSummary> songs = Arrays.asList(new SongSummary(), new SongSummary());
+        when(songRepository.findSummariesByTag(SongTag.POP)).thenReturn(songs);
 
-        List<Song> result = songService.getSongsByTag("POP");
+        List<SongSummary> result = songService.getSongsByTag("POP");
         
         assertEquals(2, result.size());
     }
 
     @Test
     void getSongsByTag_EmptyTag() {
-        List<Song> result = songService.getSongsByTag("");
+        List<SongSummary> result = songService.getSongsByTag("");
         assertTrue(result.isEmpty());
     }
 
     @Test
     void getSongsByTag_NullTag() {
-        List<Song> result = songService.getSongsByTag(null);
+        List<SongSummary> result = songService.getSongsByTag(null);
         assertTrue(result.isEmpty());
     }
 
     @Test
     void getSongsByTag_InvalidTag() {
-        List<Song> result = songService.getSongsByTag("INVALID_TAG");
+        List<SongSummary> result = songService.getSongsByTag("INVALID_TAG");
         assertTrue(result.isEmpty());
     }
 
     @Test
     void getHotSongs_Success() {
-        List<Song> songs = Arrays.asList(
+        List<SongSummary> songs = Arrays.asList(
             createSongWithPlayAmount(100),
             createSongWithPlayAmount(50)
         );
-        when(songRepository.findAllByOrderByPlayAmountDesc()).thenReturn(songs);
+        when(songRepository.findTopSummaries(PageRequest.of(0, 30))).thenReturn(songs);
 
-        List<Song> result = songService.getHotSongs();
+        List<SongSummary> result = songService.getHotSongs();
         
         assertEquals(2, result.size());
         assertTrue(result.get(0).getPlayAmount() >= result.get(1).getPlayAmount());
     }
 
+    @Test
+    void getListByTag_Success() {
+        List<SongSummary> songs = Arrays.asList(createSongWithPlayAmount(100));
+        when(songRepository.findTopSummariesByTag(SongTag.POP, PageRequest.of(0, 30))).thenReturn(songs);
+
+        List<SongSummary> result = songService.getListByTag("POP");
+
+        assertEquals(1, result.size());
+    }
+
     @Test
     void getHotSongs_EmptyList() {
-        when(songRepository.findAllByOrderByPlayAmountDesc()).thenReturn(new ArrayList<>());
+        when(songRepository.findTopSummaries(any())).thenReturn(new ArrayList<>());
 
-        List<Song> result = songService.getHotSongs();
+        List<SongSummary> result = songService.getHotSongs();
         
         assertTrue(result.isEmpty());
     }
 
-    private Song createSongWithPlayAmount(int playAmount) {
+    @Test
+    void getHotSongs_ReadsLeaderboard() {
+        List<Integer> songIds = new ArrayList<>();
+        List<Song> songs = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            songIds.add(i);
+            songs.add(createSong(i));
+        }
+        when(songLeaderboard.top(RankWindow.TRENDING, null, 30)).thenReturn(songIds);
+        when(songCatalogReader.findAllInOrder(songIds)).thenReturn(songs);
+
+        List<SongSummary> result = songService.getHotSongs();
+
+        assertEquals(30, result.size());
+        assertEquals(1, result.get(0).getSongId());
+        assertEquals(30, result.get(29).getSongId());
+        verify(songRepository, never()).findTopSummaries(any());
+    }
+
+    @Test
+    void getListByTag_PadsWithAllTimeTop() {
+        List<Integer> songIds = Arrays.asList(3, 1);
+        when(songLeaderboard.top(RankWindow.TRENDING, SongTag.POP, 30)).thenReturn(songIds);
+        when(songCatalogReader.findAllInOrder(songIds)).thenReturn(Arrays.asList(createSong(3), createSong(1)));
+        when(songRepository.findTopSummariesByTag(SongTag.POP, PageRequest.of(0, 30)))
+                .thenReturn(Arrays.asList(createSummary(1, 100), createSummary(2, 50)));
+
+        List<SongSummary> result = songService.getListByTag("POP");
+
+        assertEquals(3, result.size());
+        assertEquals(3, result.get(0).getSongId());
+        assertEquals(1, result.get(1).getSongId());
+        assertEquals(2, result.get(2).getSongId());
+    }
+
+    @Test
+    void getChart_DayWindow() {
+        List<Integer> songIds = Arrays.asList(5);
+        when(songLeaderboard.top(RankWindow.DAY, null, 30)).thenReturn(songIds);
+        when(songCatalogReader.findAllInOrder(songIds)).thenReturn(Arrays.asList(createSong(5)));
+        when(songRepository.findTopSummaries(PageRequest.of(0, 30))).thenReturn(new ArrayList<>());
+
+        List<SongSummary> result = songService.getChart("day", null);
+
+        assertEquals(1, result.size());
+        assertEquals(5, result.get(0).getSongId());
+    }
+
+    @Test
+    void getChart_InvalidWindow() {
+        assertThrows(TuneIslandException.class, () -> songService.getChart("month", null));
+        assertThrows(TuneIslandException.class, () -> songService.getChart(null, null));
+    }
+
+    @Test
+    void getChart_InvalidTag() {
+        assertThrows(TuneIslandException.class, () -> songService.getChart("day", "NOT_A_TAG"));
+        assertThrows(TuneIslandException.class, () -> songService.getListByTag("NOT_A_TAG"));
+        verify(songLeaderboard, never()).top(any(), any(), anyInt());
+    }
+
+    @Test
+    void getListByTag_CachesFallback() {
+        when(songRepository.findTopSummariesByTag(SongTag.POP, PageRequest.of(0, 30)))
+                .thenReturn(Arrays.asList(createSummary(1, 100)));
+
+        songService.getListByTag("POP");
+        List<SongSummary> result = songService.getListByTag("pop");
+
+        assertEquals(1, result.size());
+        verify(songRepository, times(1)).findTopSummariesByTag(SongTag.POP, PageRequest.of(0, 30));
+    }
+
+    private Song createSong(int songId) {
         Song song = new Song();
+        song.setSongId(songId);
+        song.setName("Song " + songId);
+        return song;
+    }
+
+    private SongSummary createSummary(int songId, int playAmount) {
+        SongSummary song = new SongSummary();
+        song.setSongId(songId);
+        song.setPlayAmount(playAmount);
+        return song;
+    }
+
+    private SongSummary createSongWithPlayAmount(int playAmount) {
+        SongSummary song = new SongSummary();
         song.setPlayAmount(playAmount);
         return song;
     }
@@ -1,11 +1,14 @@
 package com.devops26.music.service.impl;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,20 +17,34 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.devops26.music.constants.DefaultImage;
+import com.devops26.music.entity.CursorPage;
 import com.devops26.music.entity.ResultVO;
 import com.devops26.music.entity.Songlist;
+import com.devops26.music.entity.SonglistTrack;
 import com.devops26.music.entity.User;
+import com.devops26.music.enums.MembershipKind;
 import com.devops26.music.exception.TuneIslandException;
 import com.devops26.music.feign.UserFeign;
+import com.devops26.music.repository.MembershipRepository;
 import com.devops26.music.repository.SonglistRepository;
+import com.devops26.music.repository.SonglistTrackRepository;
+import com.devops26.music.util.RetryPolicy;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 class SonglistServiceImplTest {
 
@@ -37,12 +54,28 @@ class SonglistServiceImplTest {
     @Mock
     private UserFeign userFeign;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MembershipRepository membershipRepository;
+
+    @Mock
+    private SonglistTrackRepository songlistTrackRepository;
+
     @InjectMocks
     private SonglistServiceImpl songlistService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(songlistService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(songlistService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(songlistService, "exportBatchSize", 2);
+        ReflectionTestUtils.setField(songlistService, "retryPolicy", new RetryPolicy(3, 0, 0));
+        ReflectionTestUtils.setField(songlistService, "maxTrackBatchSize", 3);
+        when(transactionTemplate.execute(any())).thenAnswer(
+            invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
@@ -62,6 +95,22 @@ class SonglistServiceImplTest {
         verify(songlistRepository).save(any(Songlist.class));
     }
 
+    @Test
+    void createSonglist_AppendsSubmittedSongs() {
+        Songlist songlist = new Songlist();
+        songlist.setSonglistId(1);
+        songlist.setName("Test Songlist");
+        songlist.setSongs(Arrays.asList(3, 4));
+
+        when(songlistRepository.findByName(anyString())).thenReturn(null);
+        when(songlistRepository.save(any(Songlist.class))).thenReturn(songlist);
+
+        songlistService.createSonglist(songlist);
+
+        verify(songlistTrackRepository).append(1, 3, SonglistTrack.POSITION_GAP);
+        verify(songlistTrackRepository).append(1, 4, SonglistTrack.POSITION_GAP);
+    }
+
     @Test
     void createSonglist_WithDefaultImage() {
         Songlist songlist = new Songlist();
@@ -119,6 +168,8 @@ class SonglistServiceImplTest {
         
         assertTrue(result);
         verify(songlistRepository).deleteBySonglistId(1);
+        verify(songlistTrackRepository).deleteAllBySonglistId(1);
+        verify(membershipRepository).deleteAllByEntity(MembershipKind.SONGLIST_RATER, 1);
     }
 
     @Test
@@ -171,7 +222,7 @@ class SonglistServiceImplTest {
         User user = new User();
         user.setUserId(1);
         
-        when(songlistRepository.findBySonglistId(1)).thenReturn(songlist);
+        when(songlistRepository.findForUpdateBySonglistId(1)).thenReturn(songlist);
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
         when(songlistRepository.save(any(Songlist.class))).thenReturn(songlist);
 
@@ -186,7 +237,7 @@ class SonglistServiceImplTest {
         Songlist songlist = new Songlist();
         songlist.setSonglistId(1);
         
-        when(songlistRepository.findBySonglistId(1)).thenReturn(null);
+        when(songlistRepository.findForUpdateBySonglistId(1)).thenReturn(null);
 
         assertThrows(Exception.class, () -> songlistService.updateSonglist(songlist));
     }
@@ -200,7 +251,7 @@ class SonglistServiceImplTest {
         User user = new User();
         user.setUserId(2);
         
-        when(songlistRepository.findBySonglistId(1)).thenReturn(songlist);
+        when(songlistRepository.findForUpdateBySonglistId(1)).thenReturn(songlist);
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
 
         assertThrows(TuneIslandException.class, () -> songlistService.updateSonglist(songlist));
@@ -215,13 +266,138 @@ class SonglistServiceImplTest {
         User user = new User();
         user.setUserId(1);
         
-        when(songlistRepository.findBySonglistId(1)).thenReturn(songlist);
+        when(songlistRepository.findForUpdateBySonglistId(1)).thenReturn(songlist);
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
         when(songlistRepository.save(any())).thenThrow(new RuntimeException("DB Error"));
 
         assertThrows(RuntimeException.class, () -> songlistService.updateSonglist(songlist));
     }
 
+    @Test
+    void updateSonglist_RemovesAndAppendsChangedSongs() {
+        Songlist songlist = createSonglistWithId(1);
+        songlist.setOwnerId(1);
+        songlist.setSongs(Arrays.asList(1, 3, 4));
+        songlist.setVersion(0L);
+        User user = new User();
+        user.setUserId(1);
+
+        when(songlistRepository.findForUpdateBySonglistId(1)).thenReturn(songlist);
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+        when(songlistTrackRepository.findSongIds(1)).thenReturn(Arrays.asList(1, 2, 3));
+        when(songlistTrackRepository.append(1, 4, SonglistTrack.POSITION_GAP)).thenReturn(1);
+
+        assertTrue(songlistService.updateSonglist(songlist));
+
+        verify(songlistTrackRepository).removeSongs(1, Arrays.asList(2));
+        verify(songlistTrackRepository).append(1, 4, SonglistTrack.POSITION_GAP);
+        verify(songlistTrackRepository, never()).deleteAllBySonglistId(anyInt());
+        verify(songlistRepository).incrementVersion(1);
+    }
+
+    @Test
+    void updateSonglist_RewritesTracksWhenReordered() {
+        Songlist songlist = createSonglistWithId(1);
+        songlist.setOwnerId(1);
+        songlist.setSongs(Arrays.asList(2, 1));
+        songlist.setVersion(0L);
+        User user = new User();
+        user.setUserId(1);
+
+        when(songlistRepository.findForUpdateBySonglistId(1)).thenReturn(songlist);
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+        when(songlistTrackRepository.findSongIds(1)).thenReturn(Arrays.asList(1, 2));
+
+        assertTrue(songlistService.updateSonglist(songlist));
+
+        verify(songlistTrackRepository).deleteAllBySonglistId(1);
+        verify(songlistTrackRepository).saveAll(argThat(tracks -> {
+            List<SonglistTrack> list = new ArrayList<>();
+            tracks.forEach(list::add);
+            return list.size() == 2 && list.get(0).getSongId() == 2
+                && list.get(0).getPosition() < list.get(1).getPosition();
+        }));
+    }
+
+    @Test
+    void updateSonglist_SongsWithoutVersion() {
+        Songlist songlist = createSonglistWithId(1);
+        songlist.setOwnerId(1);
+        songlist.setSongs(Arrays.asList(1, 2));
+        User user = new User();
+        user.setUserId(1);
+
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+
+        assertThrows(TuneIslandException.class, () -> songlistService.updateSonglist(songlist));
+        verify(songlistRepository, never()).save(any());
+        verify(songlistTrackRepository, never()).findSongIds(anyInt());
+    }
+
+    @Test
+    void updateSonglist_UnchangedSongsKeepVersion() {
+        Songlist songlist = createSonglistWithId(1);
+        songlist.setOwnerId(1);
+        songlist.setSongs(Arrays.asList(1, 2));
+        songlist.setVersion(0L);
+        User user = new User();
+        user.setUserId(1);
+
+        when(songlistRepository.findForUpdateBySonglistId(1)).thenReturn(songlist);
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+        when(songlistTrackRepository.findSongIds(1)).thenReturn(Arrays.asList(1, 2));
+
+        assertTrue(songlistService.updateSonglist(songlist));
+
+        verify(songlistRepository, never()).incrementVersion(anyInt());
+    }
+
+    @Test
+    void updateSonglist_StaleVersion() {
+        Songlist current = new Songlist();
+        current.setSonglistId(1);
+        current.setOwnerId(1);
+        current.setVersion(3L);
+
+        Songlist edited = new Songlist();
+        edited.setSonglistId(1);
+        edited.setOwnerId(1);
+        edited.setVersion(2L);
+
+        User user = new User();
+        user.setUserId(1);
+
+        when(songlistRepository.findForUpdateBySonglistId(1)).thenReturn(current);
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+
+        assertThrows(TuneIslandException.class, () -> songlistService.updateSonglist(edited));
+        verify(songlistRepository, never()).save(any());
+    }
+
+    @Test
+    void updateSonglist_KeepsServerCollects() {
+        Songlist current = new Songlist();
+        current.setSonglistId(1);
+        current.setOwnerId(1);
+        current.setCollects(7);
+        current.setVersion(3L);
+
+        Songlist edited = new Songlist();
+        edited.setSonglistId(1);
+        edited.setOwnerId(1);
+        edited.setCollects(0);
+        edited.setVersion(3L);
+
+        User user = new User();
+        user.setUserId(1);
+
+        when(songlistRepository.findForUpdateBySonglistId(1)).thenReturn(current);
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+
+        assertTrue(songlistService.updateSonglist(edited));
+        verify(songlistRepository).save(argThat(s -> s.getCollects() == 7 && s.getVersion() == 3L));
+    }
+
     @Test
     void getMylikeSonglist_Success() {
         User user = new User();
@@ -242,6 +418,22 @@ class SonglistServiceImplTest {
         assertEquals(1, result.getSonglistId());
     }
 
+    @Test
+    void getMylikeSonglistId_DoesNotLoadTracks() {
+        User user = new User();
+        user.setUserId(1);
+        user.setName("test");
+
+        Songlist songlist = new Songlist();
+        songlist.setSonglistId(5);
+
+        when(userFeign.getUserById(1)).thenReturn(ResultVO.buildSuccess(user));
+        when(songlistRepository.findByName("test喜欢的音乐")).thenReturn(songlist);
+
+        assertEquals(5, songlistService.getMylikeSonglistId(1));
+        verify(songlistTrackRepository, never()).findSongIds(anyInt());
+    }
+
     @Test
     void getMylikeSonglist_UserNotFound() {
         when(userFeign.getUserById(1)).thenReturn(ResultVO.buildFailure("User not found"));
@@ -263,6 +455,21 @@ class SonglistServiceImplTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    void getAllByOwnerId_FillsSongsWithOneQuery() {
+        List<Songlist> songlists = Arrays.asList(createSonglistWithId(1), createSonglistWithId(2));
+
+        when(songlistRepository.findAllByOwnerId(1)).thenReturn(songlists);
+        when(songlistTrackRepository.findSongIdsBySonglistIds(Arrays.asList(1, 2)))
+            .thenReturn(Arrays.asList(new Object[]{1, 7}, new Object[]{1, 5}));
+
+        List<Songlist> result = songlistService.getAllByOwnerId(1);
+
+        assertEquals(Arrays.asList(7, 5), result.get(0).getSongs());
+        assertTrue(result.get(1).getSongs().isEmpty());
+        verify(songlistTrackRepository, never()).findSongIds(anyInt());
+    }
+
     @Test
     void getAllByOwnerId_Empty() {
         when(songlistRepository.findAllByOwnerId(1)).thenReturn(new ArrayList<>());
@@ -285,6 +492,116 @@ class SonglistServiceImplTest {
         assertEquals(1, result.getSonglistId());
     }
 
+    @Test
+    void getBySonglistId_FillsSongsInTrackOrder() {
+        when(songlistRepository.findBySonglistId(1)).thenReturn(createSonglistWithId(1));
+        when(songlistTrackRepository.findSongIds(1)).thenReturn(Arrays.asList(9, 3, 6));
+
+        Songlist result = songlistService.getBySonglistId(1);
+
+        assertEquals(Arrays.asList(9, 3, 6), result.getSongs());
+    }
+
+    @Test
+    void addSongs_SkipsDuplicatesAndCountsAdded() {
+        mockOwnedSonglist(1);
+        when(songlistTrackRepository.append(1, 3, SonglistTrack.POSITION_GAP)).thenReturn(1);
+        when(songlistTrackRepository.append(1, 4, SonglistTrack.POSITION_GAP)).thenReturn(0);
+
+        Integer added = songlistService.addSongs(1, Arrays.asList(3, 4, 3));
+
+        assertEquals(1, added);
+        verify(songlistTrackRepository, times(1)).append(1, 3, SonglistTrack.POSITION_GAP);
+        verify(songlistRepository).incrementVersion(1);
+        verify(songlistRepository, never()).save(any());
+    }
+
+    @Test
+    void addSongs_NotOwner() {
+        Songlist songlist = createSonglistWithId(1);
+        songlist.setOwnerId(2);
+        User user = new User();
+        user.setUserId(1);
+        when(songlistRepository.findBySonglistId(1)).thenReturn(songlist);
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+
+        assertThrows(TuneIslandException.class, () -> songlistService.addSongs(1, Arrays.asList(3)));
+        verify(songlistTrackRepository, never()).append(anyInt(), anyInt(), any());
+        verify(songlistRepository, never()).incrementVersion(anyInt());
+    }
+
+    @Test
+    void addSongs_TooManySongs() {
+        assertThrows(TuneIslandException.class, () -> songlistService.addSongs(1, Arrays.asList(1, 2, 3, 4)));
+        verify(songlistRepository, never()).findBySonglistId(anyInt());
+    }
+
+    @Test
+    void removeSongs_Success() {
+        mockOwnedSonglist(1);
+        when(songlistTrackRepository.removeSongs(1, Arrays.asList(3, 4))).thenReturn(2);
+
+        assertEquals(2, songlistService.removeSongs(1, Arrays.asList(3, 4)));
+        verify(songlistRepository).incrementVersion(1);
+    }
+
+    @Test
+    void moveSong_BetweenNeighbours() {
+        mockOwnedSonglist(1);
+        long gap = SonglistTrack.POSITION_GAP;
+        SonglistTrack moving = new SonglistTrack(1, 9, 3 * gap);
+        when(songlistTrackRepository.findBySonglistIdAndSongId(1, 9)).thenReturn(moving);
+        when(songlistTrackRepository.findBySonglistIdAndSongId(1, 7)).thenReturn(new SonglistTrack(1, 7, gap));
+        when(songlistTrackRepository.findNextPosition(1, gap, 9)).thenReturn(2 * gap);
+
+        assertTrue(songlistService.moveSong(1, 9, 7));
+
+        assertEquals(gap + gap / 2, moving.getPosition());
+        verify(songlistTrackRepository).save(moving);
+        verify(songlistTrackRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void moveSong_ToFront() {
+        mockOwnedSonglist(1);
+        long gap = SonglistTrack.POSITION_GAP;
+        SonglistTrack moving = new SonglistTrack(1, 9, 3 * gap);
+        when(songlistTrackRepository.findBySonglistIdAndSongId(1, 9)).thenReturn(moving);
+        when(songlistTrackRepository.findFirstPosition(1, 9)).thenReturn(gap);
+
+        assertTrue(songlistService.moveSong(1, 9, null));
+
+        assertEquals(0L, moving.getPosition());
+    }
+
+    @Test
+    void moveSong_RenumbersWhenNoGap() {
+        mockOwnedSonglist(1);
+        long gap = SonglistTrack.POSITION_GAP;
+        SonglistTrack first = new SonglistTrack(1, 7, 10L);
+        SonglistTrack second = new SonglistTrack(1, 8, 11L);
+        SonglistTrack moving = new SonglistTrack(1, 9, 50L);
+        when(songlistTrackRepository.findBySonglistIdAndSongId(1, 9)).thenReturn(moving);
+        when(songlistTrackRepository.findBySonglistIdAndSongId(1, 7)).thenReturn(first);
+        when(songlistTrackRepository.findNextPosition(1, 10L, 9)).thenReturn(11L);
+        when(songlistTrackRepository.findAllBySonglistIdOrderByPositionAscTrackIdAsc(1))
+            .thenReturn(Arrays.asList(first, second, moving));
+        when(songlistTrackRepository.findNextPosition(1, gap, 9)).thenReturn(2 * gap);
+
+        assertTrue(songlistService.moveSong(1, 9, 7));
+
+        assertEquals(gap, first.getPosition());
+        assertEquals(2 * gap, second.getPosition());
+        assertEquals(gap + gap / 2, moving.getPosition());
+    }
+
+    @Test
+    void moveSong_NotInSonglist() {
+        mockOwnedSonglist(1);
+
+        assertThrows(TuneIslandException.class, () -> songlistService.moveSong(1, 9, null));
+    }
+
 
     @Test
     void getByName_Success() {
@@ -340,56 +657,114 @@ class SonglistServiceImplTest {
     }
 
     @Test
-    void rate_Success() {
+    void collectSonglist_RetriesOnVersionConflict() {
+        Songlist stale = new Songlist();
+        stale.setSonglistId(1);
+        stale.setCollects(0);
+        Songlist fresh = new Songlist();
+        fresh.setSonglistId(1);
+        fresh.setCollects(1);
+
+        User user = new User();
+        user.setUserId(1);
+        user.setSonglistList(new ArrayList<>());
+
+        when(songlistRepository.findBySonglistId(1)).thenReturn(stale, fresh);
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+        when(songlistRepository.save(any()))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Songlist.class, 1))
+            .thenReturn(fresh);
+
+        Integer result = songlistService.collectSonglist(1);
+
+        assertEquals(2, result);
+        verify(songlistRepository, times(2)).save(any());
+        verify(userFeign).save(any());
+    }
+
+    @Test
+    void collectSonglist_RetriesExhausted() {
         Songlist songlist = new Songlist();
         songlist.setSonglistId(1);
-        songlist.setRate(4.0);
-        songlist.setRateNum(1);
-        songlist.setRateUserList(new ArrayList<>());
-        
+        songlist.setCollects(0);
+
         User user = new User();
         user.setUserId(1);
-        
+        user.setSonglistList(new ArrayList<>());
+
         when(songlistRepository.findBySonglistId(1)).thenReturn(songlist);
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
-        when(songlistRepository.save(any())).thenReturn(songlist);
+        when(songlistRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(Songlist.class, 1));
+
+        assertThrows(TuneIslandException.class, () -> songlistService.collectSonglist(1));
+        verify(songlistRepository, times(3)).save(any());
+    }
+
+    @Test
+    void rate_Success() {
+        User user = new User();
+        user.setUserId(1);
+        
+        when(songlistRepository.existsById(1)).thenReturn(true);
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+        when(membershipRepository.add("SONGLIST_RATER", 1, 1)).thenReturn(1);
+        when(songlistRepository.findRateBySonglistId(1)).thenReturn(4.25);
 
         Double result = songlistService.rate(1, 4.5);
         
         assertNotNull(result);
-        verify(songlistRepository).save(any());
+        assertEquals(4.25, result);
+        verify(songlistRepository).addRating(1, 4.5);
+        verify(songlistRepository, never()).save(any());
     }
 
     @Test
     void rate_InvalidRate() {
-        Songlist songlist = new Songlist();
-        songlist.setSonglistId(1);
-        songlist.setRateUserList(new ArrayList<>());
-        
         User user = new User();
         user.setUserId(1);
         
-        when(songlistRepository.findBySonglistId(1)).thenReturn(songlist);
+        when(songlistRepository.existsById(1)).thenReturn(true);
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
 
         assertThrows(TuneIslandException.class, () -> songlistService.rate(1, 6.0));
+        verify(membershipRepository, never()).add(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void rate_NotFound() {
+        User user = new User();
+        user.setUserId(1);
+
+        when(songlistRepository.existsById(1)).thenReturn(false);
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+
+        assertThrows(TuneIslandException.class, () -> songlistService.rate(1, 4.5));
+        verify(songlistRepository, never()).addRating(anyInt(), any());
     }
 
     @Test
     void rate_AlreadyRated() {
-        Songlist songlist = new Songlist();
-        songlist.setSonglistId(1);
-        List<Integer> rateUserList = new ArrayList<>();
-        rateUserList.add(1);
-        songlist.setRateUserList(rateUserList);
-        
         User user = new User();
         user.setUserId(1);
         
-        when(songlistRepository.findBySonglistId(1)).thenReturn(songlist);
+        when(songlistRepository.existsById(1)).thenReturn(true);
         when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+        when(membershipRepository.add("SONGLIST_RATER", 1, 1)).thenReturn(0);
 
         assertThrows(TuneIslandException.class, () -> songlistService.rate(1, 4.5));
+        verify(songlistRepository, never()).addRating(anyInt(), any());
+    }
+
+    @Test
+    void hasRated_ChecksMembership() {
+        User user = new User();
+        user.setUserId(1);
+
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+        when(membershipRepository.existsByKindAndEntityIdAndUserId(MembershipKind.SONGLIST_RATER, 3, 1))
+                .thenReturn(true);
+
+        assertTrue(songlistService.hasRated(3));
     }
 
     @Test
@@ -530,6 +905,64 @@ class SonglistServiceImplTest {
         assertThrows(TuneIslandException.class, () -> songlistService.cancelCollectSonglist(1));
     }
 
+    @Test
+    void getPublicSonglistsPage_ReturnsNextCursorWhenMoreRows() {
+        when(songlistRepository.findByIsPublicTrueAndSonglistIdGreaterThanOrderBySonglistIdAsc(eq(5), any()))
+            .thenReturn(Arrays.asList(createSonglistWithId(6), createSonglistWithId(7), createSonglistWithId(8)));
+
+        CursorPage<Songlist> page = songlistService.getPublicSonglistsPage("5", 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("7", page.getNextCursor());
+    }
+
+    @Test
+    void getPublicSonglistsPage_LastPage() {
+        when(songlistRepository.findByIsPublicTrueAndSonglistIdGreaterThanOrderBySonglistIdAsc(eq(0), any()))
+            .thenReturn(Arrays.asList(createSonglistWithId(1)));
+
+        CursorPage<Songlist> page = songlistService.getPublicSonglistsPage(null, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getPublicSonglistsPage_InvalidCursor() {
+        assertThrows(TuneIslandException.class, () -> songlistService.getPublicSonglistsPage("abc", 2));
+    }
+
+    @Test
+    void exportPublicSonglists_WritesOneLinePerSonglist() throws Exception {
+        when(songlistRepository.findByIsPublicTrueAndSonglistIdGreaterThanOrderBySonglistIdAsc(eq(0), any()))
+            .thenReturn(Arrays.asList(createSonglistWithId(1), createSonglistWithId(2), createSonglistWithId(3)));
+        when(songlistRepository.findByIsPublicTrueAndSonglistIdGreaterThanOrderBySonglistIdAsc(eq(2), any()))
+            .thenReturn(Arrays.asList(createSonglistWithId(3)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        songlistService.exportPublicSonglists(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[2].contains("\"songlistId\":3"));
+    }
+
+    private void mockOwnedSonglist(int songlistId) {
+        Songlist songlist = createSonglistWithId(songlistId);
+        songlist.setOwnerId(1);
+        User user = new User();
+        user.setUserId(1);
+        when(songlistRepository.findBySonglistId(songlistId)).thenReturn(songlist);
+        when(userFeign.getCurrentUser()).thenReturn(ResultVO.buildSuccess(user));
+    }
+
+    private Songlist createSonglistWithId(int songlistId) {
+        Songlist songlist = new Songlist();
+        songlist.setSonglistId(songlistId);
+        songlist.setIsPublic(true);
+        return songlist;
+    }
+
     private Songlist createSonglistWithRateAndCollects(double rate, int collects) {
         Songlist songlist = new Songlist();
         songlist.setRate(rate);
@@ -0,0 +1,86 @@
+package com.devops26.music.util;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class AlsEngineTest {
+    private static final int[] USER_IDS = {1, 2, 3, 4};
+    private static final int[] SONG_IDS = {10, 11, 12, 13, 14};
+    private static final double ALPHA = 10;
+    private static final double REGULARIZATION = 0.1;
+
+    @Test
+    void train_EachSweepLowersLoss() {
+        SparseRatingMatrix ratings = ratings();
+        FactorModel model = FactorModel.random(USER_IDS, SONG_IDS, 0, 3, new Random(7));
+        AlsEngine engine = new AlsEngine(1, 1, ALPHA, REGULARIZATION);
+
+        double previous = loss(ratings, model);
+        for (int sweep = 0; sweep < 5; sweep++) {
+            engine.train(ratings, model);
+            double current = loss(ratings, model);
+            assertTrue(current <= previous + 1e-9, "sweep " + sweep + " raised loss to " + current);
+            previous = current;
+        }
+    }
+
+    @Test
+    void train_RanksObservedSongsFirst() {
+        SparseRatingMatrix ratings = ratings();
+        FactorModel model = FactorModel.random(USER_IDS, SONG_IDS, 0, 3, new Random(7));
+
+        TrainingReport report = new AlsEngine(1, 10, ALPHA, REGULARIZATION).train(ratings, model);
+
+        assertEquals("als", report.getAlgorithm());
+        assertEquals(10, report.getEpochs());
+        // 用户 0 听过 0、1，没听过 2、4
+        assertTrue(model.predict(0, 0) > model.predict(0, 2));
+        assertTrue(model.predict(0, 1) > model.predict(0, 4));
+    }
+
+    @Test
+    void train_ParallelMatchesSequential() {
+        SparseRatingMatrix ratings = ratings();
+        FactorModel sequential = FactorModel.random(USER_IDS, SONG_IDS, 0, 3, new Random(7));
+        FactorModel parallel = FactorModel.random(USER_IDS, SONG_IDS, 0, 3, new Random(7));
+
+        new AlsEngine(1, 3, ALPHA, REGULARIZATION).train(ratings, sequential);
+        new AlsEngine(4, 3, ALPHA, REGULARIZATION).train(ratings, parallel);
+
+        assertArrayEquals(sequential.getUserFactors(), parallel.getUserFactors());
+        assertArrayEquals(sequential.getSongFactors(), parallel.getSongFactors());
+    }
+
+    private SparseRatingMatrix ratings() {
+        return SparseRatingMatrix.builder(4, 5)
+                .add(0, 0, 5f).add(0, 1, 3f)
+                .add(1, 0, 4f).add(1, 1, 2f)
+                .add(2, 2, 5f).add(2, 4, 4f)
+                .add(3, 2, 4f).add(3, 3, 1f).add(3, 4, 5f)
+                .build();
+    }
+
+    // 隐式反馈目标函数：所有 (用户, 歌曲) 上的 c (p - x·y)² 加正则项，ALS 每半轮都精确求解其中一半变量
+    private double loss(SparseRatingMatrix ratings, FactorModel model) {
+        double loss = 0.0;
+        for (int u = 0; u < model.getNumUsers(); u++) {
+            for (int s = 0; s < model.getNumSongs(); s++) {
+                float rating = ratings.getEntry(u, s);
+                double preference = rating > 0 ? 1.0 : 0.0;
+                double error = preference - model.predict(u, s);
+                loss += (1.0 + ALPHA * rating) * error * error;
+            }
+        }
+        for (double factor : model.getUserFactors()) {
+            loss += REGULARIZATION * factor * factor;
+        }
+        for (double factor : model.getSongFactors()) {
+            loss += REGULARIZATION * factor * factor;
+        }
+        return loss;
+    }
+}
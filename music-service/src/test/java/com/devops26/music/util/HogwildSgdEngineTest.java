@@ -0,0 +1,82 @@
+package com.devops26.music.util;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class HogwildSgdEngineTest {
+    private static final int[] USER_IDS = {1, 2, 3, 4};
+    private static final int[] SONG_IDS = {10, 11, 12, 13, 14};
+
+    @Test
+    void train_SeededSingleThreadIsReproducible() {
+        SparseRatingMatrix ratings = ratings();
+        FactorModel first = FactorModel.random(USER_IDS, SONG_IDS, 0, 3, new Random(7));
+        FactorModel second = FactorModel.random(USER_IDS, SONG_IDS, 0, 3, new Random(7));
+
+        TrainingReport firstReport = new HogwildSgdEngine(1, 42L, 0.05, 0.01, 30, 5).train(ratings, first);
+        TrainingReport secondReport = new HogwildSgdEngine(1, 42L, 0.05, 0.01, 30, 5).train(ratings, second);
+
+        assertArrayEquals(first.getUserFactors(), second.getUserFactors());
+        assertArrayEquals(first.getSongFactors(), second.getSongFactors());
+        assertEquals(firstReport.getRmse(), secondReport.getRmse());
+        assertEquals(firstReport.getEpochs(), secondReport.getEpochs());
+    }
+
+    @Test
+    void train_ReducesError() {
+        SparseRatingMatrix ratings = ratings();
+        FactorModel model = FactorModel.random(USER_IDS, SONG_IDS, 0, 3, new Random(7));
+        double before = rmse(ratings, model);
+
+        TrainingReport report = new HogwildSgdEngine(1, 42L, 0.05, 0.01, 200, 10).train(ratings, model);
+
+        assertTrue(rmse(ratings, model) < before / 2);
+        assertEquals("sgd", report.getAlgorithm());
+    }
+
+    @Test
+    void train_ParallelReducesError() {
+        SparseRatingMatrix ratings = ratings();
+        FactorModel model = FactorModel.random(USER_IDS, SONG_IDS, 0, 3, new Random(7));
+        double before = rmse(ratings, model);
+
+        TrainingReport report = new HogwildSgdEngine(4, 42L, 0.05, 0.01, 200, 10).train(ratings, model);
+
+        assertTrue(rmse(ratings, model) < before / 2);
+        assertEquals(4, report.getThreads());
+    }
+
+    @Test
+    void train_EmptyMatrix() {
+        FactorModel model = FactorModel.random(USER_IDS, SONG_IDS, 0, 3, new Random(7));
+        double[] userFactors = model.getUserFactors().clone();
+
+        TrainingReport report = new HogwildSgdEngine(1, 42L, 0.05, 0.01, 30, 5)
+                .train(SparseRatingMatrix.builder(4, 5).build(), model);
+
+        assertEquals(0, report.getEpochs());
+        assertArrayEquals(userFactors, model.getUserFactors());
+    }
+
+    private SparseRatingMatrix ratings() {
+        return SparseRatingMatrix.builder(4, 5)
+                .add(0, 0, 5f).add(0, 1, 3f).add(0, 3, 1f)
+                .add(1, 0, 4f).add(1, 3, 1f)
+                .add(2, 1, 1f).add(2, 2, 5f).add(2, 4, 4f)
+                .add(3, 2, 4f).add(3, 4, 5f)
+                .build();
+    }
+
+    private double rmse(SparseRatingMatrix ratings, FactorModel model) {
+        double squaredError = 0.0;
+        for (int k = 0; k < ratings.getNonZeroCount(); k++) {
+            double error = ratings.value(k) - model.predict(ratings.rowIndex(k), ratings.columnIndex(k));
+            squaredError += error * error;
+        }
+        return Math.sqrt(squaredError / ratings.getNonZeroCount());
+    }
+}
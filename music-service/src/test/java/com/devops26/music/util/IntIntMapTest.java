@@ -0,0 +1,55 @@
+package com.devops26.music.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class IntIntMapTest {
+
+    @Test
+    void put_GrowsBeyondExpectedSize() {
+        IntIntMap map = new IntIntMap(2, -1);
+        for (int key = 1; key <= 1000; key++) {
+            map.put(key, key * 3);
+        }
+
+        assertEquals(1000, map.size());
+        for (int key = 1; key <= 1000; key++) {
+            assertEquals(key * 3, map.get(key));
+        }
+        assertEquals(-1, map.get(1001));
+    }
+
+    @Test
+    void put_OverwritesExistingKey() {
+        IntIntMap map = new IntIntMap(4, 0);
+        map.put(5, 1);
+        map.put(5, 2);
+
+        assertEquals(1, map.size());
+        assertEquals(2, map.get(5));
+    }
+
+    @Test
+    void get_MissingAndReservedKeys() {
+        IntIntMap map = new IntIntMap(4, -7);
+        map.put(-3, 9);
+        map.put(0, 4);
+
+        assertEquals(9, map.get(-3));
+        assertEquals(4, map.get(0));
+        assertEquals(-7, map.get(3));
+        assertEquals(-7, map.get(Integer.MIN_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> map.put(Integer.MIN_VALUE, 1));
+    }
+
+    @Test
+    void indexOf_MapsKeysToPositions() {
+        IntIntMap map = IntIntMap.indexOf(new int[]{40, 10, 30});
+
+        assertEquals(0, map.get(40));
+        assertEquals(1, map.get(10));
+        assertEquals(2, map.get(30));
+        assertEquals(-1, map.get(20));
+    }
+}
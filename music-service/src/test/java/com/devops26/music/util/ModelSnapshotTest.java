@@ -0,0 +1,77 @@
+package com.devops26.music.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ModelSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void write_ThenReadRoundTrips() throws IOException {
+        FactorModel model = new FactorModel(new int[]{7, 3}, new int[]{11, 12, 13}, 1, 2,
+                new double[]{0.1, 0.2, 0.3, 0.4},
+                new double[]{1.0, 1.5, 2.0, 2.5, 3.0, 3.5},
+                new double[]{-1.0, 0.5});
+        TrainingReport report = new TrainingReport("als", 4, 15, 0.25, 1234L);
+        Path path = dir.resolve("model.bin");
+
+        new ModelSnapshot(42L, model, report).write(path);
+        ModelSnapshot loaded = ModelSnapshot.read(path);
+
+        assertEquals(42L, loaded.getVersion());
+        assertEquals(report, loaded.getReport());
+        FactorModel loadedModel = loaded.getModel();
+        assertArrayEquals(model.getUserIds(), loadedModel.getUserIds());
+        assertArrayEquals(model.getSongIds(), loadedModel.getSongIds());
+        assertEquals(1, loadedModel.getNumTags());
+        assertEquals(2, loadedModel.getNumFactors());
+        assertArrayEquals(model.getUserFactors(), loadedModel.getUserFactors());
+        assertArrayEquals(model.getSongFactors(), loadedModel.getSongFactors());
+        assertArrayEquals(model.getTagFactors(), loadedModel.getTagFactors());
+        assertEquals(1, loadedModel.userRow(3));
+        assertEquals(2, loadedModel.songRow(13));
+    }
+
+    @Test
+    void readVersion_ReadsHeaderOnly() throws IOException {
+        FactorModel model = new FactorModel(new int[]{1}, new int[]{2}, 0, 1,
+                new double[]{0.5}, new double[]{0.5}, new double[0]);
+        Path path = dir.resolve("model.bin");
+
+        new ModelSnapshot(7L, model, new TrainingReport("sgd", 1, 3, 0.5, 10L)).write(path);
+        new ModelSnapshot(8L, model, new TrainingReport("sgd", 1, 3, 0.5, 10L)).write(path);
+
+        assertEquals(8L, ModelSnapshot.readVersion(path));
+    }
+
+    @Test
+    void read_RejectsOtherFiles() throws IOException {
+        Path path = dir.resolve("model.bin");
+        Files.write(path, new byte[128]);
+
+        assertThrows(IOException.class, () -> ModelSnapshot.read(path));
+        assertThrows(IOException.class, () -> ModelSnapshot.readVersion(path));
+    }
+
+    @Test
+    void read_RejectsTruncatedFile() throws IOException {
+        FactorModel model = new FactorModel(new int[]{1}, new int[]{2}, 0, 1,
+                new double[]{0.5}, new double[]{0.5}, new double[0]);
+        Path path = dir.resolve("model.bin");
+        new ModelSnapshot(1L, model, new TrainingReport("sgd", 1, 3, 0.5, 10L)).write(path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 8));
+
+        assertThrows(IOException.class, () -> ModelSnapshot.read(path));
+    }
+}
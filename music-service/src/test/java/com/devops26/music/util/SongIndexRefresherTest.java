@@ -0,0 +1,76 @@
+package com.devops26.music.util;
+
+import static org.mockito.ArgumentMatchers.any;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.devops26.music.entity.Song;
+import com.devops26.music.repository.SongRepository;
+
+public class SongIndexRefresherTest {
+    private final RedisSerializer<Object> serializer = new GenericJackson2JsonRedisSerializer();
+
+    @Mock
+    private SongRepository songRepository;
+
+    @Mock
+    private SongSearchIndex songSearchIndex;
+
+    @Mock
+    private SongSuggester songSuggester;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @InjectMocks
+    private SongIndexRefresher songIndexRefresher;
+
+    @BeforeEach
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) serializer);
+    }
+
+    private DefaultMessage message(Object songId) {
+        return new DefaultMessage("music:catalog:invalidate".getBytes(), serializer.serialize(songId));
+    }
+
+    @Test
+    void onMessage_RefreshesIndexAndSuggestions() {
+        Song song = new Song();
+        song.setSongId(7);
+        song.setName("晴天");
+        when(songRepository.findBySongId(7)).thenReturn(song);
+
+        songIndexRefresher.onMessage(message(7), null);
+
+        verify(songSearchIndex).index(song);
+        verify(songSuggester).onSongChanged(song);
+    }
+
+    @Test
+    void onMessage_UnknownSongSkipped() {
+        songIndexRefresher.onMessage(message(8), null);
+
+        verify(songSearchIndex, never()).index(any());
+        verify(songSuggester, never()).onSongChanged(any());
+    }
+
+    @Test
+    void onMessage_MalformedMessageIgnored() {
+        songIndexRefresher.onMessage(new DefaultMessage("c".getBytes(), "not json".getBytes()), null);
+
+        verify(songRepository, never()).findBySongId(any());
+    }
+}
@@ -0,0 +1,69 @@
+package com.devops26.music.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devops26.music.entity.Song;
+import com.devops26.music.entity.SongSummary;
+
+class SongSearchIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private SongSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        index = new SongSearchIndex();
+        ReflectionTestUtils.setField(index, "indexPath", dir.toString());
+        ReflectionTestUtils.setField(index, "popularityWeight", 0.5f);
+        ReflectionTestUtils.setField(index, "maxWindow", 2);
+        index.open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    private static Song song(int id, String name, int playAmount) {
+        Song song = new Song();
+        song.setSongId(id);
+        song.setName(name);
+        song.setSinger("周杰伦");
+        song.setPlayAmount(playAmount);
+        return song;
+    }
+
+    @Test
+    void searchAll_IgnoresPagingWindow() throws IOException {
+        index.index(song(1, "晴天", 10));
+        index.index(song(2, "晴天 live", 30));
+        index.index(song(3, "晴天 demo", 20));
+        index.index(song(4, "稻香", 40));
+
+        List<SongSummary> all = index.searchAll("晴天");
+
+        assertEquals(3, all.size());
+        assertEquals(2, index.search("晴天", 0, 10).getSongs().size());
+        assertEquals(0, index.search("晴天", 1, 2).getSongs().size());
+    }
+
+    @Test
+    void index_ReplacesChangedSong() throws IOException {
+        index.index(song(1, "晴天", 10));
+        index.index(song(1, "七里香", 10));
+
+        assertEquals(0, index.searchAll("晴天").size());
+        assertEquals(1, index.searchAll("qlx").size());
+    }
+}
@@ -0,0 +1,116 @@
+package com.devops26.music.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devops26.music.entity.Song;
+import com.devops26.music.entity.SongSuggestion;
+import com.devops26.music.entity.SongSummary;
+import com.devops26.music.enums.SuggestionType;
+import com.devops26.music.repository.SongRepository;
+
+class SongSuggesterTest {
+
+    @Mock
+    private SongRepository songRepository;
+
+    @InjectMocks
+    private SongSuggester songSuggester;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(songSuggester, "topK", 10);
+        when(songRepository.findAllSummaries()).thenReturn(Arrays.asList(
+                summary(1, "七里香", "周杰伦", 100),
+                summary(2, "晴天", "周杰伦", 300),
+                summary(3, "Quiet Night", "Someone", 50)));
+        songSuggester.rebuild();
+    }
+
+    @Test
+    void suggest_MatchesNamePrefix() {
+        List<SongSuggestion> result = songSuggester.suggest("七里", 10);
+
+        assertEquals(1, result.size());
+        assertEquals(SuggestionType.SONG, result.get(0).getType());
+        assertEquals("七里香", result.get(0).getText());
+        assertEquals(1, result.get(0).getSongId());
+    }
+
+    @Test
+    void suggest_MatchesPinyinInitials() {
+        List<SongSuggestion> result = songSuggester.suggest("q", 10);
+
+        assertEquals(Arrays.asList("晴天", "七里香", "Quiet Night"),
+                result.stream().map(SongSuggestion::getText).toList());
+        assertEquals("七里香", songSuggester.suggest("QLX", 10).get(0).getText());
+    }
+
+    @Test
+    void suggest_SingerSumsPlayAmounts() {
+        List<SongSuggestion> result = songSuggester.suggest("zjl", 10);
+
+        assertEquals(1, result.size());
+        assertEquals(SuggestionType.SINGER, result.get(0).getType());
+        assertEquals("周杰伦", result.get(0).getText());
+        assertNull(result.get(0).getSongId());
+        assertEquals(400L, result.get(0).getPlayAmount());
+    }
+
+    @Test
+    void suggest_RespectsLimit() {
+        assertEquals(2, songSuggester.suggest("q", 2).size());
+        assertTrue(songSuggester.suggest("", 10).isEmpty());
+        assertTrue(songSuggester.suggest("q", 0).isEmpty());
+    }
+
+    @Test
+    void onSongChanged_DeltaOverridesStaleEntry() {
+        songSuggester.onSongChanged(song(1, "稻香", "周杰伦", 500));
+
+        assertTrue(songSuggester.suggest("qlx", 10).isEmpty());
+        List<SongSuggestion> result = songSuggester.suggest("d", 10);
+        assertEquals(1, result.size());
+        assertEquals("稻香", result.get(0).getText());
+        // 歌手已在字典树中，不重复返回
+        assertEquals(1, songSuggester.suggest("zjl", 10).size());
+    }
+
+    @Test
+    void rebuild_DropsAppliedDeltas() {
+        songSuggester.onSongChanged(song(1, "稻香", "周杰伦", 500));
+        when(songRepository.findAllSummaries()).thenReturn(Arrays.asList(
+                summary(1, "稻香", "周杰伦", 500),
+                summary(2, "晴天", "周杰伦", 300)));
+
+        songSuggester.rebuild();
+
+        assertEquals(1, songSuggester.suggest("dx", 10).size());
+        assertTrue(songSuggester.suggest("qlx", 10).isEmpty());
+    }
+
+    private SongSummary summary(int songId, String name, String singer, int playAmount) {
+        return new SongSummary(songId, name, singer, null, null, playAmount, null);
+    }
+
+    private Song song(int songId, String name, String singer, int playAmount) {
+        Song song = new Song();
+        song.setSongId(songId);
+        song.setName(name);
+        song.setSinger(singer);
+        song.setPlayAmount(playAmount);
+        return song;
+    }
+}
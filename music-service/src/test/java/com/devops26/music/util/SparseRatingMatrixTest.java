@@ -0,0 +1,86 @@
+package com.devops26.music.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class SparseRatingMatrixTest {
+
+    @Test
+    void build_SortsEachRowByColumn() {
+        SparseRatingMatrix matrix = SparseRatingMatrix.builder(3, 4)
+                .add(2, 1, 1f)
+                .add(0, 3, 2f)
+                .add(0, 1, 3f)
+                .build();
+
+        assertEquals(3, matrix.getNonZeroCount());
+        assertEquals(0, matrix.rowStart(0));
+        assertEquals(2, matrix.rowEnd(0));
+        assertEquals(1, matrix.columnIndex(0));
+        assertEquals(3, matrix.columnIndex(1));
+        assertEquals(matrix.rowEnd(1), matrix.rowStart(1));
+        assertEquals(2, matrix.rowIndex(2));
+        assertEquals(3f, matrix.getEntry(0, 1));
+        assertEquals(2f, matrix.getEntry(0, 3));
+        assertEquals(0f, matrix.getEntry(1, 0));
+    }
+
+    @Test
+    void build_DuplicateKeepsLastValue() {
+        SparseRatingMatrix matrix = SparseRatingMatrix.builder(2, 2)
+                .add(0, 1, 1f)
+                .add(1, 0, 4f)
+                .add(0, 1, 5f)
+                .add(0, 0, 2f)
+                .add(0, 1, 3f)
+                .build();
+
+        assertEquals(3, matrix.getNonZeroCount());
+        assertEquals(2, matrix.rowEnd(0));
+        assertEquals(3f, matrix.getEntry(0, 1));
+        assertEquals(2f, matrix.getEntry(0, 0));
+        assertEquals(4f, matrix.getEntry(1, 0));
+    }
+
+    @Test
+    void build_GrowsPastInitialCapacity() {
+        SparseRatingMatrix.Builder builder = SparseRatingMatrix.builder(10, 10);
+        for (int row = 0; row < 10; row++) {
+            for (int column = 0; column < 10; column++) {
+                builder.add(row, column, row * 10 + column);
+            }
+        }
+        SparseRatingMatrix matrix = builder.build();
+
+        assertEquals(100, matrix.getNonZeroCount());
+        assertEquals(57f, matrix.getEntry(5, 7));
+    }
+
+    @Test
+    void forEachInColumn_VisitsRowsInOrder() {
+        SparseRatingMatrix matrix = SparseRatingMatrix.builder(3, 2)
+                .add(2, 1, 1f)
+                .add(0, 1, 2f)
+                .add(1, 0, 3f)
+                .build();
+        List<Integer> rows = new ArrayList<>();
+
+        matrix.forEachInColumn(1, (row, column, value) -> rows.add(row));
+
+        assertEquals(List.of(0, 2), rows);
+        assertEquals(2, matrix.columnEnd(1) - matrix.columnStart(1));
+        assertEquals(1f, matrix.value(matrix.columnEntry(matrix.columnStart(1) + 1)));
+    }
+
+    @Test
+    void add_OutOfBounds() {
+        SparseRatingMatrix.Builder builder = SparseRatingMatrix.builder(2, 2);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> builder.add(2, 0, 1f));
+        assertThrows(IndexOutOfBoundsException.class, () -> builder.add(0, -1, 1f));
+    }
+}
@@ -0,0 +1,90 @@
+package com.devops26.music.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class SuggestTrieTest {
+
+    @Test
+    void complete_OrdersByWeight() {
+        SuggestTrie trie = SuggestTrie.build(
+                new String[]{"apple", "app", "apply", "banana"},
+                new int[]{0, 1, 2, 3},
+                new float[]{5f, 10f, 1f, 7f}, 10);
+
+        assertArrayEquals(new int[]{1, 0, 2}, trie.complete("app"));
+        assertArrayEquals(new int[]{0, 2}, trie.complete("appl"));
+        assertArrayEquals(new int[]{2}, trie.complete("apply"));
+        assertArrayEquals(new int[]{3}, trie.complete("b"));
+        assertArrayEquals(new int[]{1, 3, 0, 2}, trie.complete(""));
+    }
+
+    @Test
+    void complete_UnknownPrefix() {
+        SuggestTrie trie = SuggestTrie.build(new String[]{"app"}, new int[]{0}, new float[]{1f}, 10);
+
+        assertArrayEquals(new int[0], trie.complete("c"));
+        assertArrayEquals(new int[0], trie.complete("appx"));
+    }
+
+    @Test
+    void complete_KeepsTopK() {
+        SuggestTrie trie = SuggestTrie.build(
+                new String[]{"a1", "a2", "a3", "a4"},
+                new int[]{0, 1, 2, 3},
+                new float[]{1f, 4f, 3f, 2f}, 2);
+
+        assertArrayEquals(new int[]{1, 2}, trie.complete("a"));
+        assertArrayEquals(new int[]{3}, trie.complete("a4"));
+    }
+
+    @Test
+    void complete_TiesPreferLowerEntry() {
+        SuggestTrie trie = SuggestTrie.build(
+                new String[]{"xb", "xa", "xc"},
+                new int[]{2, 0, 1},
+                new float[]{1f, 1f, 1f}, 10);
+
+        assertArrayEquals(new int[]{0, 1, 2}, trie.complete("x"));
+    }
+
+    @Test
+    void complete_EntryWithSeveralKeysAppearsOnce() {
+        // 同一首歌的歌名和拼音首字母
+        SuggestTrie trie = SuggestTrie.build(
+                new String[]{"七里香", "qlx", "qt", "晴天"},
+                new int[]{0, 0, 1, 1},
+                new float[]{100f, 300f}, 10);
+
+        assertArrayEquals(new int[]{1, 0}, trie.complete("q"));
+        assertArrayEquals(new int[]{0}, trie.complete("ql"));
+        assertArrayEquals(new int[]{0}, trie.complete("七"));
+        assertArrayEquals(new int[]{1, 0}, trie.complete(""));
+    }
+
+    @Test
+    void build_SingleChildChainsShareSlices() {
+        SuggestTrie trie = SuggestTrie.build(
+                new String[]{"abcdef", "abxyz"},
+                new int[]{0, 1},
+                new float[]{2f, 1f}, 10);
+
+        // 根、a、b，两条分支 cdef、xyz
+        assertEquals(10, trie.nodeCount());
+        assertArrayEquals(new int[]{0, 1}, trie.complete("a"));
+        assertArrayEquals(new int[]{0, 1}, trie.complete("ab"));
+        assertArrayEquals(new int[]{0}, trie.complete("abc"));
+        assertArrayEquals(new int[]{0}, trie.complete("abcdef"));
+        assertArrayEquals(new int[]{1}, trie.complete("abxy"));
+    }
+
+    @Test
+    void build_Empty() {
+        SuggestTrie trie = SuggestTrie.build(new String[0], new int[0], new float[0], 10);
+
+        assertEquals(1, trie.nodeCount());
+        assertArrayEquals(new int[0], trie.complete(""));
+        assertArrayEquals(new int[0], trie.complete("a"));
+    }
+}
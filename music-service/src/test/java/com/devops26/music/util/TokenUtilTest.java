@@ -0,0 +1,74 @@
+package com.devops26.music.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.devops26.music.entity.ResultVO;
+import com.devops26.music.feign.UserFeign;
+
+public class TokenUtilTest {
+
+    @Mock
+    private UserFeign userFeign;
+
+    private TokenUtil tokenUtil;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tokenUtil = new TokenUtil(100, 60000);
+        ReflectionTestUtils.setField(tokenUtil, "userFeign", userFeign);
+    }
+
+    private static String token(String userId, String secret) {
+        return JWT.create().withAudience(userId).sign(Algorithm.HMAC256(secret));
+    }
+
+    @Test
+    void getUserId_VerifiedTokenIsCached() {
+        String token = token("7", "password");
+        when(userFeign.verifyToken(token)).thenReturn(ResultVO.buildSuccess(true));
+
+        assertEquals(7, tokenUtil.getUserId(token));
+        assertEquals(7, tokenUtil.getUserId(token));
+        verify(userFeign, times(1)).verifyToken(token);
+    }
+
+    @Test
+    void getUserId_BadSignatureRejectedAndCached() {
+        String forged = token("7", "guessed");
+        when(userFeign.verifyToken(forged)).thenReturn(ResultVO.buildSuccess(false));
+
+        assertNull(tokenUtil.getUserId(forged));
+        assertNull(tokenUtil.getUserId(forged));
+        verify(userFeign, times(1)).verifyToken(forged);
+    }
+
+    @Test
+    void getUserId_VerificationFailureNotCached() {
+        String token = token("7", "password");
+        when(userFeign.verifyToken(token)).thenThrow(new RuntimeException("user-service down"))
+                .thenReturn(ResultVO.buildSuccess(true));
+
+        assertNull(tokenUtil.getUserId(token));
+        assertEquals(7, tokenUtil.getUserId(token));
+    }
+
+    @Test
+    void getUserId_MalformedTokenSkipsVerification() {
+        assertNull(tokenUtil.getUserId("not-a-jwt"));
+        assertNull(tokenUtil.getUserId(null));
+        verify(userFeign, never()).verifyToken("not-a-jwt");
+    }
+}
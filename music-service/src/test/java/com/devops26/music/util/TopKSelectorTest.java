@@ -0,0 +1,62 @@
+package com.devops26.music.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class TopKSelectorTest {
+
+    @Test
+    void drainDescending_ReturnsHighestScoresFirst() {
+        TopKSelector selector = new TopKSelector(3);
+        float[] scores = {0.5f, 2.0f, -1.0f, 3.0f, 1.0f, 2.5f};
+        for (int i = 0; i < scores.length; i++) {
+            selector.offer(i, scores[i]);
+        }
+
+        assertArrayEquals(new int[]{3, 5, 1}, selector.drainDescending());
+        assertEquals(0, selector.size());
+    }
+
+    @Test
+    void offer_TiesKeepSmallerIndex() {
+        TopKSelector selector = new TopKSelector(2);
+        selector.offer(4, 1.0f);
+        selector.offer(2, 1.0f);
+        selector.offer(9, 1.0f);
+        selector.offer(1, 1.0f);
+
+        assertArrayEquals(new int[]{1, 2}, selector.drainDescending());
+    }
+
+    @Test
+    void offer_IgnoresNaN() {
+        TopKSelector selector = new TopKSelector(2);
+        selector.offer(0, Float.NaN);
+        selector.offer(1, -5.0f);
+
+        assertArrayEquals(new int[]{1}, selector.drainDescending());
+    }
+
+    @Test
+    void offer_ZeroCapacity() {
+        TopKSelector selector = new TopKSelector(0);
+        selector.offer(0, 1.0f);
+
+        assertArrayEquals(new int[0], selector.drainDescending());
+    }
+
+    @Test
+    void drainDescending_SelectorCanBeReused() {
+        TopKSelector selector = new TopKSelector(2);
+        selector.offer(0, 1.0f);
+        selector.offer(1, 2.0f);
+        selector.drainDescending();
+
+        selector.offer(5, 0.1f);
+        selector.offer(6, 0.3f);
+        selector.offer(7, 0.2f);
+
+        assertArrayEquals(new int[]{6, 7}, selector.drainDescending());
+    }
+}
@@ -0,0 +1,49 @@
+package com.devops26.user.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devops26.migration.MigrationSupport;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 把旧的 user_history 集合表迁移到 listening_event，只执行一次，旧表保留
+@Slf4j
+@Component
+public class ListeningHistoryMigration {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MigrationSupport migrationSupport;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyHistory() {
+        if (!migrationSupport.tableExists("user_history")) {
+            log.info("No legacy user_history table to migrate");
+            return;
+        }
+        try {
+            String sequence = migrationSupport.addSequenceColumn("user_history");
+            if (!migrationSupport.markDone("user_history_to_listening_event")) {
+                return;
+            }
+            // 旧列表最新的播放在前，按原顺序编号后倒推出递减的时间戳
+            int migrated = jdbcTemplate.update(
+                    "insert into listening_event (user_id, song_id, played_at) " +
+                    "select user_user_id, history, now() - interval row_number() over " +
+                    "(partition by user_user_id order by " + sequence + ") second " +
+                    "from user_history where history is not null");
+            log.info("Migrated {} legacy history entries to listening_event", migrated);
+        } catch (Exception e) {
+            log.error("Failed to migrate legacy user_history: {}", e.getMessage());
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.devops26.user.config;
+
+import com.devops26.user.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+@EnableScheduling
+public class ScheduleConfig {
+
+    @Autowired
+    private UserService userService;
+
+    // 按固定间隔把每个用户的播放记录裁剪到上限
+    @Scheduled(fixedDelayString = "${user.history.compaction-interval-ms:600000}")
+    public void compactHistory() {
+        userService.compactHistory();
+    }
+}
@@ -13,7 +13,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.devops26.user.entity.ListeningEvent;
+import com.devops26.user.entity.PlayEvent;
 import com.devops26.user.entity.User;
+import com.devops26.user.entity.UserProfile;
 import com.devops26.user.service.UserService;
 
 import java.util.List;
@@ -67,7 +70,12 @@ public class UserController {
 
     @GetMapping("/findAll")
     public ResultVO<List<User>> findAll() {
-        return ResultVO.buildSuccess(userRepository.findAll());
+        return ResultVO.buildSuccess(userService.findAll());
+    }
+
+    @GetMapping("/findAllProfiles")
+    public ResultVO<List<UserProfile>> findAllProfiles() {
+        return ResultVO.buildSuccess(userService.findAllProfiles());
     }
 
     @PostMapping("/saveAll")
@@ -75,6 +83,18 @@ public class UserController {
         return ResultVO.buildSuccess(userRepository.saveAll(users));
     }
 
+    @PostMapping("/appendHistory")
+    public ResultVO<Boolean> appendHistory(@RequestBody List<PlayEvent> events) {
+        return ResultVO.buildSuccess(userService.appendHistory(events));
+    }
+
+    @GetMapping("/history")
+    public ResultVO<List<ListeningEvent>> getHistory(@RequestParam("userId") Integer userId,
+                                                     @RequestParam(name = "page", defaultValue = "0") Integer page,
+                                                     @RequestParam(name = "size", defaultValue = "20") Integer size) {
+        return ResultVO.buildSuccess(userService.getHistory(userId, page, size));
+    }
+
     @PostMapping("/verifyToken")
     public ResultVO<Boolean> verifyToken(@RequestParam("token") String token) {
         return ResultVO.buildSuccess(tokenUtil.verifyToken(token));
@@ -0,0 +1,38 @@
+package com.devops26.user.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "listening_event",
+        indexes = @Index(name = "idx_listening_event_user_played", columnList = "user_id, played_at"))
+public class ListeningEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Basic
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Basic
+    @Column(name = "song_id", nullable = false)
+    private Integer songId;
+
+    @Basic
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "played_at", nullable = false)
+    private Date playedAt;
+
+    public ListeningEvent(Integer userId, Integer songId, Date playedAt) {
+        this.userId = userId;
+        this.songId = songId;
+        this.playedAt = playedAt;
+    }
+}
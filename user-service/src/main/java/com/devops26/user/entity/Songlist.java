@@ -25,6 +25,4 @@ public class Songlist {
     private Double rate;
 
     private Integer rateNum;
-
-    private List<Integer> rateUserList;
 }
@@ -42,8 +42,8 @@ public class User {
     @Column(name = "songlist_list")
     private List<Integer> songlistList;
 
-    @ElementCollection
-    @Column(name = "history")
+    // 最近的播放历史，由 listening_event 表填充，不随用户保存
+    @Transient
     private List<Integer> history;
 
     @ElementCollection
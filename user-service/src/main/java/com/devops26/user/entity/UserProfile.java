@@ -0,0 +1,21 @@
+package com.devops26.user.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 推荐训练需要的用户数据，不含密码、手机号等字段
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfile {
+    private Integer userId;
+
+    // 收藏的歌单
+    private List<Integer> songlistList;
+
+    // 最近的播放历史
+    private List<Integer> history;
+}
@@ -0,0 +1,39 @@
+package com.devops26.user.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.devops26.user.entity.ListeningEvent;
+
+@Repository
+public interface ListeningEventRepository extends JpaRepository<ListeningEvent, Long> {
+    Page<ListeningEvent> findByUserIdOrderByPlayedAtDescIdDesc(Integer userId, Pageable pageable);
+
+    @Query("select e.songId from ListeningEvent e where e.userId = :userId order by e.playedAt desc, e.id desc")
+    List<Integer> findRecentSongIds(@Param("userId") Integer userId, Pageable pageable);
+
+    // 每行为 [userId, songId]：窗口函数在数据库中截取每个用户最近的 limit 条，只返回这部分
+    @Query(value = "select user_id, song_id from (" +
+            "select user_id, song_id, played_at, id, " +
+            "row_number() over (partition by user_id order by played_at desc, id desc) as rn " +
+            "from listening_event) recent where rn <= :limit order by user_id, played_at desc, id desc",
+            nativeQuery = true)
+    List<Object[]> findRecentSongIdsPerUser(@Param("limit") int limit);
+
+    @Query("select e.userId from ListeningEvent e group by e.userId having count(e) > :limit")
+    List<Integer> findUserIdsWithMoreThan(@Param("limit") long limit);
+
+    // 删除某条事件及比它更早的所有事件
+    @Modifying
+    @Query("delete from ListeningEvent e where e.userId = :userId " +
+            "and (e.playedAt < :playedAt or (e.playedAt = :playedAt and e.id <= :id))")
+    int deleteUpTo(@Param("userId") Integer userId, @Param("playedAt") Date playedAt, @Param("id") Long id);
+}
@@ -1,6 +1,9 @@
 package com.devops26.user.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.devops26.user.entity.User;
@@ -12,4 +15,10 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     User findByName(String name);
     User findByPhone(String phone);
 
+    @Query("select u.userId from User u")
+    List<Integer> findAllUserIds();
+
+    // 每行为 [userId, songlistId]
+    @Query("select u.userId, s from User u join u.songlistList s")
+    List<Object[]> findAllSonglistIds();
 }
\ No newline at end of file
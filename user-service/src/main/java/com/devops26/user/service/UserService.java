@@ -1,11 +1,21 @@
 package com.devops26.user.service;
 
+import com.devops26.user.entity.ListeningEvent;
+import com.devops26.user.entity.PlayEvent;
 import com.devops26.user.entity.User;
+import com.devops26.user.entity.UserProfile;
+
+import java.util.List;
 
 public interface UserService {
     User findByUserId(Integer userId);
+    List<User> findAll();
+    List<UserProfile> findAllProfiles();
     Boolean register(User user);
     String login(String phone, String password);
     Boolean updateUser(User user);
     Boolean verifyPwd(String password);
+    Boolean appendHistory(List<PlayEvent> events);
+    List<ListeningEvent> getHistory(Integer userId, Integer page, Integer size);
+    int compactHistory();
 } 
\ No newline at end of file
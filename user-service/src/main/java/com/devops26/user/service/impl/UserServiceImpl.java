@@ -1,25 +1,45 @@
 package com.devops26.user.service.impl;
 
+import com.devops26.user.entity.ListeningEvent;
+import com.devops26.user.entity.PlayEvent;
 import com.devops26.user.entity.Songlist;
 import com.devops26.user.exception.TuneIslandException;
 import com.devops26.user.feign.MusicFeign;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.DigestUtils;
 
 import com.devops26.user.entity.User;
+import com.devops26.user.entity.UserProfile;
+import com.devops26.user.repository.ListeningEventRepository;
 import com.devops26.user.repository.UserRepository;
 import com.devops26.user.service.UserService;
 import com.devops26.user.util.TokenUtil;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Service
 @Slf4j
 public class UserServiceImpl implements UserService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    ListeningEventRepository listeningEventRepository;
+
+    @Value("${user.history.max-size:300}")
+    private int maxHistory = 300;
+
     @Autowired
     TokenUtil tokenUtil;
 
@@ -28,7 +48,43 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User findByUserId(Integer userId) {
-        return userRepository.findByUserId(userId);
+        User user = userRepository.findByUserId(userId);
+        if (user != null) {
+            user.setHistory(listeningEventRepository.findRecentSongIds(userId, PageRequest.of(0, maxHistory)));
+        }
+        return user;
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = userRepository.findAll();
+        Map<Integer, List<Integer>> historyByUser = findRecentHistories();
+        users.forEach(user -> user.setHistory(historyByUser.getOrDefault(user.getUserId(), new ArrayList<>())));
+        return users;
+    }
+
+    @Override
+    public List<UserProfile> findAllProfiles() {
+        // 收藏歌单用一条 join 查询取出，不加载用户实体
+        Map<Integer, List<Integer>> songlistsByUser = new HashMap<>();
+        for (Object[] row : userRepository.findAllSonglistIds()) {
+            songlistsByUser.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((Integer) row[1]);
+        }
+        Map<Integer, List<Integer>> historyByUser = findRecentHistories();
+        return userRepository.findAllUserIds().stream()
+                .map(userId -> new UserProfile(userId,
+                        songlistsByUser.getOrDefault(userId, new ArrayList<>()),
+                        historyByUser.getOrDefault(userId, new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    // 一次查询取出每个用户最近 maxHistory 条播放，按用户分组，避免逐个用户查询
+    private Map<Integer, List<Integer>> findRecentHistories() {
+        Map<Integer, List<Integer>> historyByUser = new HashMap<>();
+        for (Object[] row : listeningEventRepository.findRecentSongIdsPerUser(maxHistory)) {
+            historyByUser.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((Integer) row[1]);
+        }
+        return historyByUser;
     }
 
     @Override
@@ -97,4 +153,43 @@ public class UserServiceImpl implements UserService {
         User user = tokenUtil.getCurrentUser();
         return user.getPassword().equals(DigestUtils.md5DigestAsHex((password + "TuneIsland").getBytes()));
     }
-}
\ No newline at end of file
+
+    @Override
+    public Boolean appendHistory(List<PlayEvent> events) {
+        // 只追加播放事件，每次播放对应一条插入；超出上限的旧记录由 compactHistory 定期清理
+        List<ListeningEvent> listeningEvents = events.stream()
+                .filter(event -> event.getUserId() != null && event.getSongId() != null)
+                .map(event -> new ListeningEvent(event.getUserId(), event.getSongId(),
+                        event.getPlayedAt() == null ? new Date() : event.getPlayedAt()))
+                .collect(Collectors.toList());
+        listeningEventRepository.saveAll(listeningEvents);
+        log.info("Appended {} play events", listeningEvents.size());
+        return true;
+    }
+
+    @Override
+    public List<ListeningEvent> getHistory(Integer userId, Integer page, Integer size) {
+        return listeningEventRepository.findByUserIdOrderByPlayedAtDescIdDesc(userId, PageRequest.of(page, size))
+                .getContent();
+    }
+
+    @Override
+    @Transactional
+    public int compactHistory() {
+        int deleted = 0;
+        for (Integer userId : listeningEventRepository.findUserIdsWithMoreThan(maxHistory)) {
+            // 第 maxHistory + 1 新的事件及更早的事件都超出了环形缓冲区
+            List<ListeningEvent> boundary = listeningEventRepository
+                    .findByUserIdOrderByPlayedAtDescIdDesc(userId, PageRequest.of(maxHistory, 1))
+                    .getContent();
+            if (!boundary.isEmpty()) {
+                ListeningEvent oldest = boundary.get(0);
+                deleted += listeningEventRepository.deleteUpTo(userId, oldest.getPlayedAt(), oldest.getId());
+            }
+        }
+        if (deleted > 0) {
+            log.info("Compacted {} listening events", deleted);
+        }
+        return deleted;
+    }
+}
@@ -1,6 +1,7 @@
 package com.devops26.user.controller;
 
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -20,7 +21,10 @@ import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.devops26.user.entity.ListeningEvent;
+import com.devops26.user.entity.PlayEvent;
 import com.devops26.user.entity.User;
+import com.devops26.user.entity.UserProfile;
 import com.devops26.user.exception.TuneIslandException;
 import com.devops26.user.repository.UserRepository;
 import com.devops26.user.service.UserService;
@@ -190,7 +194,7 @@ class UserControllerTest {
     @Test
     void findAll_ShouldReturnAllUsers() throws Exception {
         List<User> users = Arrays.asList(testUser);
-        when(userRepository.findAll()).thenReturn(users);
+        when(userService.findAll()).thenReturn(users);
 
         mockMvc.perform(get("/user/findAll"))
                 .andDo(MockMvcResultHandlers.print())
@@ -200,6 +204,18 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.result[0].name").value(testUser.getName()));
     }
 
+    @Test
+    void findAllProfiles_ShouldReturnProfiles() throws Exception {
+        UserProfile profile = new UserProfile(1, Arrays.asList(2), Arrays.asList(3, 4));
+        when(userService.findAllProfiles()).thenReturn(Arrays.asList(profile));
+
+        mockMvc.perform(get("/user/findAllProfiles"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value("000"))
+                .andExpect(jsonPath("$.result[0].userId").value(1))
+                .andExpect(jsonPath("$.result[0].history[1]").value(4));
+    }
+
     @Test
     void saveAll_ShouldReturnSavedUsers() throws Exception {
         List<User> users = Arrays.asList(testUser);
@@ -215,6 +231,32 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.result[0].name").value(testUser.getName()));
     }
 
+    @Test
+    void appendHistory_ShouldReturnSuccess() throws Exception {
+        List<PlayEvent> events = Arrays.asList(new PlayEvent(1, 2, new Date()));
+        when(userService.appendHistory(any())).thenReturn(true);
+
+        mockMvc.perform(post("/user/appendHistory")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(events)))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value("000"))
+                .andExpect(jsonPath("$.result").value(true));
+    }
+
+    @Test
+    void getHistory_ShouldReturnEvents() throws Exception {
+        when(userService.getHistory(1, 0, 20)).thenReturn(List.of(new ListeningEvent(1, 2, new Date())));
+
+        mockMvc.perform(get("/user/history")
+                .param("userId", "1"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value("000"))
+                .andExpect(jsonPath("$.result[0].songId").value(2));
+    }
+
     @Test
     void verifyToken_ShouldReturnTrue() throws Exception {
         when(tokenUtil.verifyToken(anyString())).thenReturn(true);
@@ -10,19 +10,31 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import com.devops26.user.entity.ResultVO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.util.DigestUtils;
 
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import com.devops26.user.entity.ListeningEvent;
+import com.devops26.user.entity.PlayEvent;
 import com.devops26.user.entity.User;
+import com.devops26.user.entity.UserProfile;
 import com.devops26.user.exception.TuneIslandException;
 import com.devops26.user.feign.MusicFeign;
+import com.devops26.user.repository.ListeningEventRepository;
 import com.devops26.user.repository.UserRepository;
 import com.devops26.user.service.impl.UserServiceImpl;
 import com.devops26.user.util.TokenUtil;
@@ -32,6 +44,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ListeningEventRepository listeningEventRepository;
+
     @Mock
     private TokenUtil tokenUtil;
 
@@ -168,4 +183,89 @@ class UserServiceTest {
         when(tokenUtil.getCurrentUser()).thenReturn(null);
         assertThrows(NullPointerException.class, () -> userService.verifyPwd(testPassword));
     }
-} 
+
+    @Test
+    void findByUserId_ShouldFillRecentHistory() {
+        when(userRepository.findByUserId(1)).thenReturn(testUser);
+        when(listeningEventRepository.findRecentSongIds(1, PageRequest.of(0, 300))).thenReturn(Arrays.asList(3, 2));
+
+        User result = userService.findByUserId(1);
+
+        assertEquals(Arrays.asList(3, 2), result.getHistory());
+    }
+
+    @Test
+    void findAll_ShouldGroupHistoryByUser() {
+        User other = new User();
+        other.setUserId(2);
+        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser, other));
+        when(listeningEventRepository.findRecentSongIdsPerUser(300)).thenReturn(Arrays.asList(
+                new Object[]{1, 5}, new Object[]{1, 4}));
+
+        List<User> result = userService.findAll();
+
+        assertEquals(Arrays.asList(5, 4), result.get(0).getHistory());
+        assertTrue(result.get(1).getHistory().isEmpty());
+    }
+
+    @Test
+    void findAllProfiles_ShouldJoinSonglistsAndHistory() {
+        when(userRepository.findAllUserIds()).thenReturn(Arrays.asList(1, 2));
+        when(userRepository.findAllSonglistIds()).thenReturn(Arrays.asList(
+                new Object[]{1, 7}, new Object[]{1, 8}));
+        when(listeningEventRepository.findRecentSongIdsPerUser(300)).thenReturn(Arrays.asList(
+                new Object[][]{{2, 5}}));
+
+        List<UserProfile> result = userService.findAllProfiles();
+
+        assertEquals(2, result.size());
+        assertEquals(Arrays.asList(7, 8), result.get(0).getSonglistList());
+        assertTrue(result.get(0).getHistory().isEmpty());
+        assertTrue(result.get(1).getSonglistList().isEmpty());
+        assertEquals(Arrays.asList(5), result.get(1).getHistory());
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void appendHistory_ShouldInsertOneEventPerPlay() {
+        List<PlayEvent> events = Arrays.asList(
+                new PlayEvent(1, 10, new Date(1000)),
+                new PlayEvent(1, 11, null),
+                new PlayEvent(null, 12, new Date()));
+
+        Boolean result = userService.appendHistory(events);
+
+        assertTrue(result);
+        ArgumentCaptor<List<ListeningEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(listeningEventRepository).saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertNotNull(captor.getValue().get(1).getPlayedAt());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void getHistory_ShouldReturnPage() {
+        ListeningEvent event = new ListeningEvent(1, 10, new Date());
+        when(listeningEventRepository.findByUserIdOrderByPlayedAtDescIdDesc(1, PageRequest.of(0, 20)))
+                .thenReturn(new PageImpl<>(List.of(event)));
+
+        List<ListeningEvent> result = userService.getHistory(1, 0, 20);
+
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void compactHistory_ShouldDeleteEventsBeyondLimit() {
+        ListeningEvent boundary = new ListeningEvent(1, 10, new Date(1000));
+        boundary.setId(42L);
+        when(listeningEventRepository.findUserIdsWithMoreThan(300)).thenReturn(List.of(1));
+        when(listeningEventRepository.findByUserIdOrderByPlayedAtDescIdDesc(1, PageRequest.of(300, 1)))
+                .thenReturn(new PageImpl<>(List.of(boundary)));
+        when(listeningEventRepository.deleteUpTo(1, boundary.getPlayedAt(), 42L)).thenReturn(5);
+
+        int deleted = userService.compactHistory();
+
+        assertEquals(5, deleted);
+    }
+}